@@ -0,0 +1,416 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A table of the identities (name and email) of applicants, each stored once as bytes and referred
+ * to by an int handle. A table can be shared by the CompactApplicationQueues of many positions, so
+ * that an applicant who applies to several of them is stored only once, whenever they applied:
+ * the submission time of each application is kept by its queue.
+ *
+ * The table is split into 8 stripes, chosen by the email of the applicant, each with its own lock.
+ * A stripe appends its identities to arenas of up to 1 MiB, each as a reference count, then the
+ * length and bytes of its name and of its email as written by ApplicationCodec.
+ * The handle of an identity is its stripe, arena and offset, so the table needs no per-identity
+ * object or index beyond an open-addressing hash table of the handles per stripe. The bytes of an
+ * identity never change while it is referenced, so reading an identity takes no lock.
+ *
+ * Every intern() takes a reference to its identity, which release() gives back. An identity is
+ * removed from the table with its last reference, and an arena is reused once all its identities
+ * are removed, so the table only holds the arenas of the identities still referenced. The space of
+ * a removed identity is only reclaimed with the rest of its arena.
+ */
+public class ApplicantTable {
+  private static final int STRIPE_BITS = 3;                // log2 of the number of stripes
+  private static final int STRIPES = 1 << STRIPE_BITS;     // number of stripes
+  private static final int ARENA_BITS = 20;                // log2 of the maximum size of an arena
+  private static final int ARENA_SIZE = 1 << ARENA_BITS;   // maximum size of an arena, in bytes
+  private static final int FIRST_ARENA_SIZE = 4096;        // size of the first arena of a stripe
+  private static final int MAX_ARENAS = 1 << (31 - STRIPE_BITS - ARENA_BITS); // arenas per stripe
+  private static final int EMPTY = -1;                     // empty slot of a hash table
+  private static final int COUNT_SIZE = 4;                 // bytes of the reference count
+
+  private final Stripe[] stripes; // the stripes, by the hash of the emails
+
+  /**
+   * The identities of the emails of one hash, guarded by the lock of the stripe. Only the arenas
+   * are read without the lock, at the handles of referenced identities.
+   */
+  private static class Stripe {
+    private final int index;        // index of this stripe, in the high bits of its handles
+    private volatile byte[][] arenas; // the arenas, null when unused
+    private int[] live;             // number of identities in each arena
+    private int[] free;             // stack of the unused arena indices below arenaCount
+    private int freeCount;          // number of unused arena indices
+    private int arenaCount;         // number of arena indices ever used
+    private int current;            // index of the arena appended to
+    private ByteBuffer arena;       // buffer over the current arena, positioned after its end
+    private int[] slots;            // open-addressing hash table of the handles, EMPTY when free
+    private int size;               // number of identities in this stripe
+
+    private Stripe(int index) {
+      this.index = index;
+      this.arenas = new byte[1][];
+      this.live = new int[1];
+      this.free = new int[1];
+      this.slots = new int[16];
+      Arrays.fill(slots, EMPTY);
+    }
+  }
+
+  /**
+   * Creates a new empty ApplicantTable
+   */
+  public ApplicantTable() {
+    stripes = new Stripe[STRIPES];
+    for(int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(i);
+  }
+
+  /**
+   * Returns the handle of the identity with the given name and email, adding it to this table if
+   * it is not there yet, and takes a reference to it, to give back with release(). The identity is
+   * encoded in place at the end of the current arena of its stripe, then looked up by its bytes,
+   * so interning an identity which is already there allocates nothing.
+   *
+   * @param name  the name of the applicant
+   * @param email the email of the applicant
+   * @return the handle of the identity, a non-negative int
+   * @throws NullPointerException     if name or email is null
+   * @throws IllegalArgumentException if the identity does not fit in an arena
+   * @throws IllegalStateException    if the stripe of the identity is full
+   */
+  public int intern(String name, String email) {
+    if(name == null || email == null) throw new NullPointerException("Null identity");
+    Stripe stripe = stripes[(email.hashCode() * 0x9E3779B9) >>> (32 - STRIPE_BITS)];
+
+    synchronized(stripe){
+      //  encode the identity after the last one, in a larger or new arena if it does not fit
+      if(stripe.arena == null) newArena(stripe, FIRST_ARENA_SIZE);
+      int start = stripe.arena.position();
+      while(!encode(stripe.arena, name, email)){
+        stripe.arena.position(start);
+        int length = stripe.arena.capacity();
+        if(length < ARENA_SIZE){
+          //  the first arena grows up to the full size, keeping the handles of its identities
+          byte[] larger = Arrays.copyOf(stripe.arena.array(), 2 * length);
+          stripe.arenas[stripe.current] = larger;
+          stripe.arena = ByteBuffer.wrap(larger).position(start);
+        } else if(start == 0){
+          throw new IllegalArgumentException("Applicant too long");
+        } else {
+          newArena(stripe, ARENA_SIZE);
+          start = 0;
+        }
+      }
+      byte[] bytes = stripe.arena.array();
+      int length = stripe.arena.position() - start;
+      int handle = stripe.index << (31 - STRIPE_BITS) | stripe.current << ARENA_BITS | start;
+
+      //  look the identity up, and forget the new bytes if it is already there
+      int mask = stripe.slots.length - 1;
+      for(int slot = hash(bytes, start, length) & mask; ; slot = (slot + 1) & mask){
+        int other = stripe.slots[slot];
+        if(other == EMPTY){
+          stripe.slots[slot] = handle;
+          break;
+        }
+        if(sameBytes(stripe, other, bytes, start, length)){
+          stripe.arena.position(start);
+          byte[] otherBytes = stripe.arenas[arenaOf(other)];
+          int at = offsetOf(other);
+          ByteBuffer.wrap(otherBytes).putInt(at, ByteBuffer.wrap(otherBytes).getInt(at) + 1);
+          return other;
+        }
+      }
+
+      //  keep the new identity with one reference, growing the hash table to keep it half full
+      ByteBuffer.wrap(bytes).putInt(start, 1);
+      stripe.live[stripe.current]++;
+      if(++stripe.size > stripe.slots.length / 2) rehash(stripe);
+      return handle;
+    }
+  }
+
+  /**
+   * Gives back a reference taken by intern(). The identity is removed from this table with its
+   * last reference, after which its handle must no longer be used.
+   *
+   * @param handle a handle returned by intern()
+   * @throws IllegalStateException if the identity is not referenced
+   */
+  public void release(int handle) {
+    Stripe stripe = stripes[handle >>> (31 - STRIPE_BITS)];
+    synchronized(stripe){
+      byte[] bytes = stripe.arenas[arenaOf(handle)];
+      int at = offsetOf(handle);
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      int count = buffer.getInt(at);
+      if(count <= 0) throw new IllegalStateException("Identity not referenced");
+      buffer.putInt(at, count - 1);
+      if(count == 1) remove(stripe, handle);
+    }
+  }
+
+  /**
+   * Returns the name of the identity with the given handle. This takes no lock.
+   *
+   * @param handle the handle of a referenced identity
+   * @return the name of the applicant
+   */
+  public String getName(int handle) {
+    return ApplicationCodec.getString(view(handle));
+  }
+
+  /**
+   * Returns the email of the identity with the given handle. This takes no lock.
+   *
+   * @param handle the handle of a referenced identity
+   * @return the email of the applicant
+   */
+  public String getEmail(int handle) {
+    ByteBuffer view = view(handle);
+    view.position(view.position() + recordLength(view.array(), view.position(), 1));
+    return ApplicationCodec.getString(view);
+  }
+
+  /**
+   * Creates an Application for the identity with the given handle and the given score, with no
+   * submission time. This takes no lock.
+   *
+   * @param handle the handle of a referenced identity
+   * @param score  the score of the Application
+   * @return a new Application
+   */
+  public Application toApplication(int handle, int score) {
+    return toApplication(handle, score, Application.NO_TIME);
+  }
+
+  /**
+   * Creates an Application for the identity with the given handle, and the given score and
+   * submission time. This takes no lock.
+   *
+   * @param handle      the handle of a referenced identity
+   * @param score       the score of the Application
+   * @param submittedAt the submission time of the Application, or Application.NO_TIME
+   * @return a new Application
+   */
+  public Application toApplication(int handle, int score, long submittedAt) {
+    ByteBuffer view = view(handle);
+    String name = ApplicationCodec.getString(view);
+    String email = ApplicationCodec.getString(view);
+    return new Application(name, email, score, submittedAt);
+  }
+
+  /**
+   * Returns the number of identities in this table
+   *
+   * @return the number of identities in this table
+   */
+  public int size() {
+    int size = 0;
+    for(Stripe stripe : stripes){
+      synchronized(stripe){
+        size += stripe.size;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes of the arrays of this table: its arenas and its hash tables.
+   *
+   * @return the memory taken by the arrays of this table
+   */
+  public long memoryBytes() {
+    long bytes = 0;
+    for(Stripe stripe : stripes){
+      synchronized(stripe){
+        for(byte[] arena : stripe.arenas){
+          if(arena != null) bytes += arena.length;
+        }
+        bytes += 4L * stripe.slots.length + 16L * stripe.arenas.length;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Helper method: Makes a new arena of the given size the current arena of a stripe, reusing the
+   * index of an unused arena if any. Must be called with the lock of the stripe held.
+   *
+   * @throws IllegalStateException if the stripe has no arena index left
+   */
+  private static void newArena(Stripe stripe, int size) {
+    int index;
+    if(stripe.freeCount > 0){
+      index = stripe.free[--stripe.freeCount];
+    } else {
+      if(stripe.arenaCount == MAX_ARENAS) throw new IllegalStateException("ApplicantTable is full");
+      index = stripe.arenaCount++;
+      if(index == stripe.arenas.length){
+        int length = Math.min(MAX_ARENAS, 2 * stripe.arenas.length);
+        stripe.live = Arrays.copyOf(stripe.live, length);
+        stripe.free = Arrays.copyOf(stripe.free, length);
+        stripe.arenas = Arrays.copyOf(stripe.arenas, length);
+      }
+    }
+    byte[] arena = new byte[size];
+    stripe.arenas[index] = arena;
+    stripe.current = index;
+    stripe.arena = ByteBuffer.wrap(arena);
+  }
+
+  /**
+   * Helper method: Removes an identity without references from the hash table of its stripe,
+   * shifting back the handles probed after it, and frees its arena if it was the last identity of
+   * that arena. Must be called with the lock of the stripe held.
+   */
+  private static void remove(Stripe stripe, int handle) {
+    int mask = stripe.slots.length - 1;
+    int hole = slotOf(stripe, handle) & mask;
+    while(stripe.slots[hole] != handle) hole = (hole + 1) & mask;
+    for(int next = (hole + 1) & mask; stripe.slots[next] != EMPTY; next = (next + 1) & mask){
+      //  move back the handles whose probe sequence went through the hole
+      int home = slotOf(stripe, stripe.slots[next]) & mask;
+      if(((next - home) & mask) >= ((next - hole) & mask)){
+        stripe.slots[hole] = stripe.slots[next];
+        hole = next;
+      }
+    }
+    stripe.slots[hole] = EMPTY;
+    stripe.size--;
+
+    //  an arena left without identities is reused: the current one from its start
+    int index = arenaOf(handle);
+    if(--stripe.live[index] > 0) return;
+    if(index == stripe.current){
+      stripe.arena.position(0);
+    } else {
+      stripe.arenas[index] = null;
+      stripe.free[stripe.freeCount++] = index;
+    }
+  }
+
+  /**
+   * Helper method: Encodes an identity at the position of an arena, after room for its reference
+   * count.
+   *
+   * @return false if the identity does not fit in the rest of the arena
+   */
+  private static boolean encode(ByteBuffer arena, String name, String email) {
+    try {
+      arena.position(arena.position() + COUNT_SIZE);
+      ApplicationCodec.putString(name, arena);
+      ApplicationCodec.putString(email, arena);
+      return true;
+    } catch (BufferOverflowException | IllegalArgumentException e){
+      return false;
+    }
+  }
+
+  /**
+   * Helper method: Returns a buffer over the arena of a handle, positioned on its name.
+   */
+  private ByteBuffer view(int handle) {
+    byte[] arena = stripes[handle >>> (31 - STRIPE_BITS)].arenas[arenaOf(handle)];
+    int at = offsetOf(handle) + COUNT_SIZE;
+    return ByteBuffer.wrap(arena, at, arena.length - at);
+  }
+
+  /**
+   * Helper method: Checks whether the identity of a handle has the given bytes, from its count.
+   * Identities are self-delimiting, so an identity starting with all the given bytes after its
+   * count is that identity.
+   */
+  private static boolean sameBytes(Stripe stripe, int handle, byte[] bytes, int start,
+                                   int length) {
+    byte[] other = stripe.arenas[arenaOf(handle)];
+    int at = offsetOf(handle);
+    if(at + length > other.length) return false;
+    return Arrays.equals(other, at + COUNT_SIZE, at + length, bytes, start + COUNT_SIZE,
+        start + length);
+  }
+
+  /**
+   * Helper method: Doubles the hash table of a stripe, hashing every identity again from its
+   * bytes.
+   */
+  private static void rehash(Stripe stripe) {
+    int[] old = stripe.slots;
+    stripe.slots = new int[2 * old.length];
+    Arrays.fill(stripe.slots, EMPTY);
+    int mask = stripe.slots.length - 1;
+    for(int handle : old){
+      if(handle == EMPTY) continue;
+      int slot = slotOf(stripe, handle) & mask;
+      while(stripe.slots[slot] != EMPTY) slot = (slot + 1) & mask;
+      stripe.slots[slot] = handle;
+    }
+  }
+
+  /**
+   * Helper method: Returns the hash of the identity of a handle, from its bytes.
+   */
+  private static int slotOf(Stripe stripe, int handle) {
+    byte[] bytes = stripe.arenas[arenaOf(handle)];
+    int at = offsetOf(handle);
+    return hash(bytes, at, COUNT_SIZE + recordLength(bytes, at + COUNT_SIZE, 2));
+  }
+
+  /**
+   * Helper method: Returns the index of the arena of a handle in its stripe.
+   */
+  private static int arenaOf(int handle) {
+    return (handle >>> ARENA_BITS) & (MAX_ARENAS - 1);
+  }
+
+  /**
+   * Helper method: Returns the offset of the identity of a handle in its arena.
+   */
+  private static int offsetOf(int handle) {
+    return handle & (ARENA_SIZE - 1);
+  }
+
+  /**
+   * Helper method: Returns the number of bytes of the given number of consecutive strings written
+   * by ApplicationCodec.putString().
+   */
+  private static int recordLength(byte[] bytes, int start, int strings) {
+    int at = start;
+    for(int i = 0; i < strings; i++){
+      int length = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[at++];
+        length |= (b & 0x7F) << shift;
+        shift += 7;
+      } while(b < 0);
+      at += length;
+    }
+    return at - start;
+  }
+
+  /**
+   * Helper method: Returns the hash of an identity, skipping its reference count, with its bits
+   * mixed for open addressing.
+   */
+  private static int hash(byte[] bytes, int start, int length) {
+    int h = 1;
+    for(int i = start + COUNT_SIZE; i < start + length; i++){
+      h = 31 * h + bytes[i];
+    }
+    return h ^ (h >>> 16);
+  }
+
+}
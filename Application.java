@@ -13,9 +13,13 @@
  * This class models an application with a name and due date
  */
 public class Application implements Comparable<Application>{
-  private final String name;  // name of this applicant
-  private final String email; // email of this applicant
-  private final int score;    // estimated score of this applicant
+  // submission time of the applications created without one
+  public static final long NO_TIME = Long.MIN_VALUE;
+
+  private final String name;        // name of this applicant
+  private final String email;       // email of this applicant
+  private final int score;          // estimated score of this applicant
+  private final long submittedAt;   // submission time of this application, or NO_TIME
 
   /**
    * Creates a new Application with the given information
@@ -28,6 +32,25 @@ public class Application implements Comparable<Application>{
    *                                  is not in the 0 .. 100 range.
    */
   public Application(String name, String email, int score) {
+    this(name, email, score, NO_TIME);
+  }
+
+  /**
+   * Creates a new Application with the given information and submission time. The submission
+   * time is only used by the positions which expire their applications, and is not part of the
+   * String representing the Application.
+   *
+   * @param name        name of this applicant
+   * @param email       email of this applicant
+   * @param score       estimated score of this applicant (must be in the range 0 .. 100)
+   * @param submittedAt submission time of this application in milliseconds since the epoch, or
+   *                    NO_TIME
+   * @throws IllegalArgumentException if the provided name is null or blank, or if the email is
+   *                                  null or does not have a single {@literal @}, or if score
+   *                                  is not in the 0 .. 100 range.
+   * @see ExpiringOpenPosition
+   */
+  public Application(String name, String email, int score, long submittedAt) {
     // throws an IllegalArgumentException if the provided name is null or blank
     if(name == null || name.equals("")) throw new IllegalArgumentException("Invalid Name");
 
@@ -48,6 +71,7 @@ public class Application implements Comparable<Application>{
     this.name = name;
     this.email = email;
     this.score = score;
+    this.submittedAt = submittedAt;
   }
 
   /**
@@ -77,6 +101,16 @@ public class Application implements Comparable<Application>{
     return score;
   }
 
+  /**
+   * Returns the submission time of this Application
+   *
+   * @return the submission time in milliseconds since the epoch, or NO_TIME if it was created
+   *         without one
+   */
+  public long getSubmittedAt() {
+    return submittedAt;
+  }
+
   /**
    * Compares this Applicant to another applicant based on their score
    *
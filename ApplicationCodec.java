@@ -0,0 +1,292 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary format of Applications and ApplicationQueues, read and written directly from
+ * and to ByteBuffers.
+ *
+ * An Application is encoded as its score in a single byte, followed by its name and its email,
+ * each as a length (unsigned LEB128 varint, one byte below 128) followed by that many bytes of
+ * UTF-8. Unlike the name:email:score text form, any character can appear in a name or an email.
+ *
+ * An ApplicationQueue is encoded as the format version, its arity, capacity and size, followed by
+ * its Applications in heap order. Decoding only checks the heap invariant, in linear time, instead
+ * of enqueueing every Application again.
+ */
+public class ApplicationCodec {
+  public static final int VERSION = 1; // version of the ApplicationQueue format
+
+  /**
+   * This class only has static methods
+   */
+  private ApplicationCodec() {
+  }
+
+  /**
+   * Returns the number of bytes the given Application takes once encoded.
+   *
+   * @param application an Application
+   * @return the encoded length of the Application
+   */
+  public static int encodedLength(Application application) {
+    int nameLength = utf8Length(application.getName());
+    int emailLength = utf8Length(application.getEmail());
+    return 1 + varintLength(nameLength) + nameLength + varintLength(emailLength) + emailLength;
+  }
+
+  /**
+   * Encodes the given Application at the position of the buffer, and moves the position after it.
+   *
+   * @param application the Application to encode
+   * @param buffer      the buffer to write to
+   * @throws BufferOverflowException if the buffer does not have enough remaining room, in which
+   *                                 case its content after its position is undefined
+   */
+  public static void encode(Application application, ByteBuffer buffer) {
+    buffer.put((byte) application.getScore());
+    putString(application.getName(), buffer);
+    putString(application.getEmail(), buffer);
+  }
+
+  /**
+   * Decodes an Application at the position of the buffer, and moves the position after it. The
+   * string bytes are decoded straight from the backing array of heap buffers.
+   *
+   * @param buffer the buffer to read from
+   * @return the decoded Application
+   * @throws BufferUnderflowException if the buffer ends before the Application
+   * @throws IllegalArgumentException if the bytes do not encode a valid Application
+   */
+  public static Application decode(ByteBuffer buffer) {
+    int score = buffer.get();
+    String name = getString(buffer);
+    String email = getString(buffer);
+    return new Application(name, email, score);
+  }
+
+  /**
+   * Returns the number of bytes the given ApplicationQueue takes once encoded.
+   *
+   * @param queue an ApplicationQueue
+   * @return the encoded length of the ApplicationQueue
+   */
+  public static int encodedLength(ApplicationQueue queue) {
+    int length = 10;
+    for(int i = 0; i < queue.size(); i++){
+      length += encodedLength(queue.get(i));
+    }
+    return length;
+  }
+
+  /**
+   * Encodes the given ApplicationQueue at the position of the buffer, with its Applications in
+   * heap order, and moves the position after it.
+   *
+   * @param queue  the ApplicationQueue to encode
+   * @param buffer the buffer to write to
+   * @throws BufferOverflowException if the buffer does not have enough remaining room, in which
+   *                                 case its content after its position is undefined
+   */
+  public static void encode(ApplicationQueue queue, ByteBuffer buffer) {
+    buffer.put((byte) VERSION);
+    buffer.put((byte) queue.arity());
+    buffer.putInt(queue.capacity());
+    buffer.putInt(queue.size());
+    for(int i = 0; i < queue.size(); i++){
+      encode(queue.get(i), buffer);
+    }
+  }
+
+  /**
+   * Decodes an ApplicationQueue at the position of the buffer, and moves the position after it.
+   * The Applications are placed back in heap order, without percolating them.
+   *
+   * @param buffer the buffer to read from
+   * @return the decoded ApplicationQueue
+   * @throws BufferUnderflowException if the buffer ends before the ApplicationQueue
+   * @throws IllegalArgumentException if the bytes do not encode a valid ApplicationQueue of this
+   *                                  version
+   */
+  public static ApplicationQueue decodeQueue(ByteBuffer buffer) {
+    int version = buffer.get();
+    if(version != VERSION) throw new IllegalArgumentException("Unsupported version " + version);
+    int arity = buffer.get();
+    int capacity = buffer.getInt();
+    int size = buffer.getInt();
+    if(capacity <= 0 || size < 0 || size > capacity)
+      throw new IllegalArgumentException("Invalid ApplicationQueue");
+    //  every Application takes at least 3 bytes: check the size before allocating the heap
+    if(size > buffer.remaining() / 3) throw new IllegalArgumentException("Invalid size " + size);
+
+    Application[] heap = new Application[size];
+    for(int i = 0; i < size; i++){
+      heap[i] = decode(buffer);
+    }
+    return ApplicationQueue.fromHeap(heap, size, capacity, arity);
+  }
+
+  /**
+   * Helper method: Writes the length and the UTF-8 bytes of a string, encoding its characters
+   * straight into the buffer. Unpaired surrogates are written as '?', like String.getBytes() does.
+   * A string whose characters all take one byte is copied straight into the backing array of heap
+   * buffers. Also used by ApplicantTable.
+   *
+   * @param s      the string to write
+   * @param buffer the buffer to write to
+   */
+  static void putString(String s, ByteBuffer buffer) {
+    int length = utf8Length(s);
+    putVarint(length, buffer);
+    if(length == s.length() && buffer.hasArray()){
+      if(buffer.remaining() < length) throw new BufferOverflowException();
+      byte[] array = buffer.array();
+      int at = buffer.arrayOffset() + buffer.position();
+      for(int i = 0; i < length; i++){
+        char c = s.charAt(i);
+        array[at + i] = c < 0x80 ? (byte) c : (byte) '?';
+      }
+      buffer.position(buffer.position() + length);
+      return;
+    }
+
+    for(int i = 0; i < s.length(); i++){
+      char c = s.charAt(i);
+      if(c < 0x80){
+        buffer.put((byte) c);
+      } else if(c < 0x800){
+        buffer.put((byte) (0xC0 | (c >> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } else if(Character.isSurrogate(c)){
+        if(Character.isHighSurrogate(c) && i + 1 < s.length()
+            && Character.isLowSurrogate(s.charAt(i + 1))){
+          int codePoint = Character.toCodePoint(c, s.charAt(++i));
+          buffer.put((byte) (0xF0 | (codePoint >> 18)));
+          buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+          buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+          buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+          buffer.put((byte) '?');
+        }
+      } else {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+
+  /**
+   * Helper method: Reads a string written by putString(). Also used by ApplicantTable.
+   *
+   * @param buffer the buffer to read from
+   * @return the string read
+   */
+  static String getString(ByteBuffer buffer) {
+    int length = getVarint(buffer);
+    if(length > buffer.remaining()) throw new BufferUnderflowException();
+
+    String s;
+    if(buffer.hasArray()){
+      s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+          StandardCharsets.UTF_8);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(buffer.position(), bytes);
+      s = new String(bytes, StandardCharsets.UTF_8);
+    }
+    buffer.position(buffer.position() + length);
+    return s;
+  }
+
+  /**
+   * Helper method: Returns the number of bytes of the UTF-8 encoding of a string, as written by
+   * putString().
+   *
+   * @param s a string
+   * @return the UTF-8 length of s
+   */
+  private static int utf8Length(String s) {
+    int length = 0;
+    for(int i = 0; i < s.length(); i++){
+      char c = s.charAt(i);
+      if(c < 0x80){
+        length++;
+      } else if(c < 0x800){
+        length += 2;
+      } else if(Character.isSurrogate(c)){
+        if(Character.isHighSurrogate(c) && i + 1 < s.length()
+            && Character.isLowSurrogate(s.charAt(i + 1))){
+          length += 4;
+          i++;
+        } else {
+          length++;
+        }
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Helper method: Writes a non-negative int as an unsigned LEB128 varint.
+   *
+   * @param value  the value to write
+   * @param buffer the buffer to write to
+   */
+  private static void putVarint(int value, ByteBuffer buffer) {
+    while((value & ~0x7F) != 0){
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Helper method: Reads an unsigned LEB128 varint written by putVarint().
+   *
+   * @param buffer the buffer to read from
+   * @return the value read
+   * @throws IllegalArgumentException if the varint is longer than 5 bytes or negative
+   */
+  private static int getVarint(ByteBuffer buffer) {
+    int value = 0;
+    for(int shift = 0; shift < 35; shift += 7){
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if(b >= 0){
+        if(value < 0) throw new IllegalArgumentException("Invalid length");
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Invalid length");
+  }
+
+  /**
+   * Helper method: Returns the number of bytes of a non-negative int written as a varint.
+   *
+   * @param value a non-negative int
+   * @return the varint length of value
+   */
+  private static int varintLength(int value) {
+    int length = 1;
+    while((value & ~0x7F) != 0){
+      value >>>= 7;
+      length++;
+    }
+    return length;
+  }
+
+}
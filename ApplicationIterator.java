@@ -8,15 +8,16 @@
 // Lecturer: Mouna Kacem
 //
 ///////////////////////////////////////////////////////////////////////////////
-import java.util.Iterator;
-import java.util.NoSuchElementException;
-
 /**
  * Implements an iterator for Applications, which returns the Applications in order from earliest to
  * latest based on their order in a priority queue.
+ *
+ * The iterator walks the live heap without copying or modifying it, with an IndexFrontier that
+ * compares the heap indices by the scores of their Applications. Returning the first k
+ * Applications therefore costs O(k log k), whatever the size of the queue. Modifying the queue
+ * during the iteration makes the iterator fail with a ConcurrentModificationException.
  */
-public class ApplicationIterator implements Iterator<Application> {
-  private ApplicationQueue queue; // a copy of the priority queue of applications to iterate over
+public class ApplicationIterator extends IndexFrontier {
 
   /**
    * Creates a new ApplicationIterator which iterates over the elements of the given ApplicationQueue
@@ -25,38 +26,8 @@ public class ApplicationIterator implements Iterator<Application> {
    * @param queue the ApplicationQueue to iterate over
    */
   public ApplicationIterator(ApplicationQueue queue) {
-    this.queue = queue.deepCopy(); // we are going to work on a deep copy of the provided queue
-    // as input parameter.
-  }
-
-  /**
-   * Returns true if the iteration has more elements.
-   *
-   * @return {@code true} if the iteration has more elements
-   */
-  @Override
-  public boolean hasNext() {
-
-    try{
-      queue.peek();
-    } catch (Exception e){
-      return false;
-    }
-    return true;
-  }
-
-  /**
-   * Returns the next element in the iteration.
-   *
-   * @return the next element in the iteration.
-   * @throws NoSuchElementException with a descriptive error message if the iteration has no more
-   *                                elements
-   */
-  @Override
-  public Application next() {
-    if (!hasNext())
-      throw new NoSuchElementException("No more elements in this iteration");
-    return queue.dequeue();
+    super(queue.size(), queue.arity(), queue::modCount,
+        (a, b) -> Integer.compare(queue.get(a).getScore(), queue.get(b).getScore()), queue::get);
   }
 
 }
@@ -0,0 +1,533 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams applications from a file into an OpenPosition, one record per line, in one of two
+ * formats:
+ * <ul>
+ *   <li>CSV: {@code name,email,score}. The score follows the last comma and the email the one
+ *       before, so names may contain commas. A first line which is not a record, like a
+ *       {@code name,email,score} header, is skipped. Fields are not quoted.</li>
+ *   <li>JSONL: {@code {"name": "...", "email": "...", "score": 87}}, in any member order. Other
+ *       members are ignored, as long as their values are strings, numbers or literals.</li>
+ * </ul>
+ *
+ * The file is read through a channel into a large buffer and parsed in place: no String is built
+ * for a line. The score of a record is parsed first and compared with the cutoff of the position,
+ * and the name and email Strings are only created for records above it. These records are
+ * collected in batches given to OpenPosition.addAll(), after which the cutoff is read again.
+ *
+ * Records which cannot be parsed, or whose name, email or score is invalid for an Application,
+ * are counted as malformed; blank lines are ignored. Records at or below the cutoff, and records
+ * of a batch which addAll() did not keep, are counted as rejected.
+ */
+public class ApplicationLoader {
+  public static final int DEFAULT_BUFFER_SIZE = 1 << 20; // bytes read from the file at once
+  public static final int DEFAULT_BATCH_SIZE = 8192;     // applications given to each addAll()
+
+  /**
+   * Formats of the records of a file
+   */
+  public enum Format {
+    CSV, JSONL
+  }
+
+  private final Format format;  // format of the records of the files loaded
+  private final int bufferSize; // initial size of the read buffer
+  private final int batchSize;  // number of applications given to each addAll()
+
+  /**
+   * Creates a loader of files in the given format, with the default buffer and batch sizes.
+   *
+   * @param format format of the records of the files to load
+   */
+  public ApplicationLoader(Format format) {
+    this(format, DEFAULT_BUFFER_SIZE, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a loader of files in the given format.
+   *
+   * @param format     format of the records of the files to load
+   * @param bufferSize number of bytes read at once; the buffer grows past it for longer lines
+   * @param batchSize  number of applications given to each OpenPosition.addAll()
+   * @throws NullPointerException     if format is null
+   * @throws IllegalArgumentException if bufferSize or batchSize is not positive
+   */
+  public ApplicationLoader(Format format, int bufferSize, int batchSize) {
+    if(format == null) throw new NullPointerException("Null format");
+    if(bufferSize <= 0) throw new IllegalArgumentException("Invalid buffer size");
+    if(batchSize <= 0) throw new IllegalArgumentException("Invalid batch size");
+    this.format = format;
+    this.bufferSize = bufferSize;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Loads the applications of the given file into the given position.
+   *
+   * @param file     the file to read
+   * @param position the position to add the applications to
+   * @return the counts and throughput of the load
+   * @throws IOException if the file cannot be read
+   */
+  public Report load(Path file, OpenPosition position) throws IOException {
+    try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+      return load(channel, position);
+    }
+  }
+
+  /**
+   * Loads the applications read from the given channel, until its end, into the given position.
+   * The channel is not closed.
+   *
+   * @param channel  the channel to read
+   * @param position the position to add the applications to
+   * @return the counts and throughput of the load
+   * @throws IOException if the channel cannot be read
+   */
+  public Report load(ReadableByteChannel channel, OpenPosition position) throws IOException {
+    Load load = new Load(position);
+    long start = System.nanoTime();
+
+    ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+    int scanned = 0; // bytes of the buffer already known not to hold a line end
+    boolean end = false;
+    while(!end){
+      end = channel.read(buffer) < 0;
+      byte[] bytes = buffer.array();
+      int limit = buffer.position();
+
+      //  parse every complete line of the buffer, and the last line at the end of the channel
+      int lineStart = 0;
+      for(int i = scanned; i < limit; i++){
+        if(bytes[i] == '\n'){
+          load.line(bytes, lineStart, i);
+          lineStart = i + 1;
+        }
+      }
+      if(end && lineStart < limit){
+        load.line(bytes, lineStart, limit);
+        lineStart = limit;
+      }
+
+      //  move the incomplete line to the front, growing the buffer if it fills it
+      int remaining = limit - lineStart;
+      if(remaining == buffer.capacity()){
+        ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity());
+        larger.put(bytes, 0, remaining);
+        buffer = larger;
+      } else {
+        System.arraycopy(bytes, lineStart, bytes, 0, remaining);
+        buffer.position(remaining);
+      }
+      scanned = remaining;
+    }
+    load.flush();
+
+    return new Report(load.records, load.accepted, load.rejected, load.malformed,
+        System.nanoTime() - start);
+  }
+
+  /**
+   * The state of one load: the position, the current batch and cutoff, and the counts.
+   */
+  private class Load {
+    private final OpenPosition position;       // the position loaded
+    private final List<Application> batch;     // applications above the cutoff, not added yet
+    private int cutoff;                        // cutoff of the position after the last batch
+    private boolean firstLine = true;          // whether no line was parsed yet
+    private long records;                      // number of records read
+    private long accepted;                     // number of applications added to the position
+    private long rejected;                     // number of valid records not added
+    private long malformed;                    // number of records which could not be parsed
+
+    // fields of the current record: byte ranges of the name and email, and score or -1
+    private int nameStart;
+    private int nameEnd;
+    private int emailStart;
+    private int emailEnd;
+    private int score;
+    private boolean escaped; // whether the JSON name or email holds escape sequences
+
+    /**
+     * Starts a load into the given position.
+     *
+     * @param position the position to add the applications to
+     */
+    private Load(OpenPosition position) {
+      this.position = position;
+      this.batch = new ArrayList<>(batchSize);
+      this.cutoff = position.cutoffScore();
+    }
+
+    /**
+     * Parses one line, from the start index to the end index (exclusive, on the line end).
+     *
+     * @param bytes the buffer holding the line
+     * @param start index of the first byte of the line
+     * @param end   index following the last byte of the line
+     */
+    private void line(byte[] bytes, int start, int end) {
+      boolean first = firstLine;
+      firstLine = false;
+
+      //  skip blank lines
+      start = skipSpaces(bytes, start, end);
+      while(end > start && isSpace(bytes[end - 1])) end--;
+      if(start == end) return;
+
+      score = -1;
+      escaped = false;
+      boolean parsed = format == Format.CSV ? parseCsv(bytes, start, end)
+          : parseJson(bytes, start, end);
+      if(first && format == Format.CSV && !parsed) return; // header line
+
+      records++;
+      if(!parsed || score < 0 || score > 100 || nameStart == nameEnd || !hasOneAt(bytes)){
+        malformed++;
+        return;
+      }
+      if(score <= cutoff){
+        rejected++;
+        return;
+      }
+
+      //  only now create the strings of the application
+      try {
+        String name = escaped ? unescape(bytes, nameStart, nameEnd) : new String(bytes, nameStart,
+            nameEnd - nameStart, StandardCharsets.UTF_8);
+        String email = escaped ? unescape(bytes, emailStart, emailEnd) : new String(bytes,
+            emailStart, emailEnd - emailStart, StandardCharsets.UTF_8);
+        batch.add(new Application(name, email, score));
+      } catch (IllegalArgumentException e){
+        malformed++;
+        return;
+      }
+      if(batch.size() == batchSize) flush();
+    }
+
+    /**
+     * Adds the current batch to the position, and reads its new cutoff.
+     */
+    private void flush() {
+      if(batch.isEmpty()) return;
+      int added = position.addAll(batch);
+      accepted += added;
+      rejected += batch.size() - added;
+      batch.clear();
+      cutoff = position.cutoffScore();
+    }
+
+    /**
+     * Helper method: Parses a trimmed CSV record into the fields of the current record.
+     *
+     * @return true if the record has three fields and a numeric score
+     */
+    private boolean parseCsv(byte[] bytes, int start, int end) {
+      int last = lastIndexOf(bytes, start, end, (byte) ',');
+      if(last < 0) return false;
+      int middle = lastIndexOf(bytes, start, last, (byte) ',');
+      if(middle < 0) return false;
+
+      nameStart = start;
+      nameEnd = middle;
+      emailStart = middle + 1;
+      emailEnd = last;
+      while(nameEnd > nameStart && isSpace(bytes[nameEnd - 1])) nameEnd--;
+      emailStart = skipSpaces(bytes, emailStart, emailEnd);
+      while(emailEnd > emailStart && isSpace(bytes[emailEnd - 1])) emailEnd--;
+      return parseScore(bytes, skipSpaces(bytes, last + 1, end), end) == end;
+    }
+
+    /**
+     * Helper method: Parses a trimmed JSON object into the fields of the current record.
+     *
+     * @return true if the record is a JSON object with string name and email members and an
+     *         integer score member
+     */
+    private boolean parseJson(byte[] bytes, int start, int end) {
+      if(bytes[start] != '{' || bytes[end - 1] != '}') return false;
+      boolean hasName = false;
+      boolean hasEmail = false;
+      int i = skipSpaces(bytes, start + 1, end - 1);
+      if(i == end - 1) return false;
+
+      while(true){
+        //  read the key of a member
+        if(bytes[i] != '"') return false;
+        int keyEnd = stringEnd(bytes, i + 1, end - 1);
+        if(keyEnd < 0) return false;
+        int keyStart = i + 1;
+        i = skipSpaces(bytes, keyEnd + 1, end - 1);
+        if(i == end - 1 || bytes[i] != ':') return false;
+        i = skipSpaces(bytes, i + 1, end - 1);
+        if(i == end - 1) return false;
+
+        //  read its value
+        if(bytes[i] == '"'){
+          int valueEnd = stringEnd(bytes, i + 1, end - 1);
+          if(valueEnd < 0) return false;
+          if(isKey(bytes, keyStart, keyEnd, "name")){
+            nameStart = i + 1;
+            nameEnd = valueEnd;
+            hasName = true;
+          } else if(isKey(bytes, keyStart, keyEnd, "email")){
+            emailStart = i + 1;
+            emailEnd = valueEnd;
+            hasEmail = true;
+          }
+          i = valueEnd + 1;
+        } else if(isKey(bytes, keyStart, keyEnd, "score")){
+          i = parseScore(bytes, i, end - 1);
+          if(i < 0) return false;
+        } else {
+          //  skip a literal or number value we do not use
+          while(i < end - 1 && bytes[i] != ',' && !isSpace(bytes[i])) i++;
+        }
+
+        //  then a comma or the end of the object
+        i = skipSpaces(bytes, i, end - 1);
+        if(i == end - 1) return hasName && hasEmail && score >= 0;
+        if(bytes[i] != ',') return false;
+        i = skipSpaces(bytes, i + 1, end - 1);
+        if(i == end - 1) return false;
+      }
+    }
+
+    /**
+     * Helper method: Parses the decimal digits of a score into the current record.
+     *
+     * @return the index following the digits, or -1 if there is no digit or more than three
+     */
+    private int parseScore(byte[] bytes, int start, int end) {
+      int value = 0;
+      int i = start;
+      while(i < end && bytes[i] >= '0' && bytes[i] <= '9' && i - start < 3){
+        value = 10 * value + bytes[i++] - '0';
+      }
+      if(i == start || (i < end && bytes[i] >= '0' && bytes[i] <= '9')) return -1;
+      score = value;
+      return i;
+    }
+
+    /**
+     * Helper method: Returns the index of the closing quote of a JSON string, noting whether the
+     * string holds escape sequences.
+     *
+     * @return the index of the closing quote, or -1 if there is none before end
+     */
+    private int stringEnd(byte[] bytes, int start, int end) {
+      for(int i = start; i < end; i++){
+        if(bytes[i] == '\\'){
+          escaped = true;
+          i++;
+        } else if(bytes[i] == '"'){
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Helper method: Checks that the email of the current record has a single {@literal @}, as
+     * Application requires. '@' is a single byte in UTF-8, never part of another character.
+     */
+    private boolean hasOneAt(byte[] bytes) {
+      int count = 0;
+      for(int i = emailStart; i < emailEnd; i++){
+        if(bytes[i] == '@') count++;
+      }
+      return count == 1 || (escaped && count == 0);
+    }
+  }
+
+  /**
+   * Helper method: Decodes a JSON string body holding escape sequences.
+   *
+   * @param bytes the buffer holding the string
+   * @param start index of the first byte of the string
+   * @param end   index of its closing quote
+   * @return the decoded string
+   * @throws IllegalArgumentException if an escape sequence is invalid
+   */
+  private static String unescape(byte[] bytes, int start, int end) {
+    StringBuilder builder = new StringBuilder(end - start);
+    int run = start; // start of the bytes not decoded yet
+    for(int i = start; i < end; i++){
+      if(bytes[i] != '\\') continue;
+      builder.append(new String(bytes, run, i - run, StandardCharsets.UTF_8));
+      if(++i == end) throw new IllegalArgumentException("Invalid escape");
+      switch(bytes[i]){
+        case '"': builder.append('"'); break;
+        case '\\': builder.append('\\'); break;
+        case '/': builder.append('/'); break;
+        case 'b': builder.append('\b'); break;
+        case 'f': builder.append('\f'); break;
+        case 'n': builder.append('\n'); break;
+        case 'r': builder.append('\r'); break;
+        case 't': builder.append('\t'); break;
+        case 'u':
+          if(i + 4 >= end) throw new IllegalArgumentException("Invalid escape");
+          int c = 0;
+          for(int j = i + 1; j <= i + 4; j++){
+            int digit = Character.digit(bytes[j], 16);
+            if(digit < 0) throw new IllegalArgumentException("Invalid escape");
+            c = 16 * c + digit;
+          }
+          builder.append((char) c);
+          i += 4;
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid escape");
+      }
+      run = i + 1;
+    }
+    return builder.append(new String(bytes, run, end - run, StandardCharsets.UTF_8)).toString();
+  }
+
+  /**
+   * Helper method: Checks whether the bytes of a JSON key are the given ASCII key.
+   */
+  private static boolean isKey(byte[] bytes, int start, int end, String key) {
+    if(end - start != key.length()) return false;
+    for(int i = 0; i < key.length(); i++){
+      if(bytes[start + i] != key.charAt(i)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Helper method: Returns the index of the last given byte in a range, or -1 if there is none.
+   */
+  private static int lastIndexOf(byte[] bytes, int start, int end, byte b) {
+    for(int i = end - 1; i >= start; i--){
+      if(bytes[i] == b) return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Helper method: Returns the index of the first byte of a range which is not a space.
+   */
+  private static int skipSpaces(byte[] bytes, int start, int end) {
+    while(start < end && isSpace(bytes[start])) start++;
+    return start;
+  }
+
+  /**
+   * Helper method: Checks whether a byte is an ASCII space, tab or carriage return.
+   */
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  /**
+   * The outcome of a load: how many records were read, added, rejected and malformed, and how
+   * long it took.
+   */
+  public static class Report {
+    private final long records;      // number of records read, not counting blank lines
+    private final long accepted;     // number of applications added to the position
+    private final long rejected;     // number of valid records not added to the position
+    private final long malformed;    // number of records which could not be parsed
+    private final long elapsedNanos; // duration of the load
+
+    /**
+     * Creates a report of a load.
+     */
+    private Report(long records, long accepted, long rejected, long malformed,
+        long elapsedNanos) {
+      this.records = records;
+      this.accepted = accepted;
+      this.rejected = rejected;
+      this.malformed = malformed;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of records read, not counting blank lines and a CSV header
+     *
+     * @return the number of records read
+     */
+    public long getRecords() {
+      return records;
+    }
+
+    /**
+     * Returns the number of applications added to the position. Some of them may have been
+     * evicted by later ones.
+     *
+     * @return the number of applications added
+     */
+    public long getAccepted() {
+      return accepted;
+    }
+
+    /**
+     * Returns the number of valid records whose score was too low to be added to the position
+     *
+     * @return the number of rejected records
+     */
+    public long getRejected() {
+      return rejected;
+    }
+
+    /**
+     * Returns the number of records which could not be parsed into an Application
+     *
+     * @return the number of malformed records
+     */
+    public long getMalformed() {
+      return malformed;
+    }
+
+    /**
+     * Returns the duration of the load in nanoseconds
+     *
+     * @return the duration of the load
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of records read per second
+     *
+     * @return the throughput of the load
+     */
+    public double getRecordsPerSecond() {
+      return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns a String summarizing this report
+     *
+     * @return a String representation of this report
+     */
+    @Override
+    public String toString() {
+      return String.format("%d records (%d accepted, %d rejected, %d malformed) in %.1f ms, "
+          + "%.0f records/s", records, accepted, rejected, malformed, elapsedNanos / 1e6,
+          getRecordsPerSecond());
+    }
+  }
+
+}
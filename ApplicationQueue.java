@@ -8,6 +8,9 @@
 // Lecturer: Mouna Kacem
 //
 ///////////////////////////////////////////////////////////////////////////////
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -16,10 +19,28 @@ import java.util.NoSuchElementException;
  * min-heap invariant, so that the Application at the root should have the lowest score, and
  * children always have a higher or equal score as their parent. The root of a non-empty queue
  * is always at index 0 of this array-heap.
+ *
+ * The heap is binary by default, but can be given a higher arity: with 4 or 8 children per node,
+ * the children of a node are contiguous in the array (and usually share a cache line) and the
+ * tree is half or a third as deep, which makes percolating down cheaper in large queues.
+ *
+ * The array is allocated lazily: an empty queue holds no array of its own, and the array grows
+ * geometrically up to the capacity as applications are added. A queue which never fills up, like
+ * the queue of a rarely used position, only takes the memory it needs.
  */
 public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable<Application> {
+  private static final Application[] EMPTY = new Application[0]; // array of new empty queues
+  private static final int INITIAL_LENGTH = 8;                    // first length of the array
+  static final int MAX_ARITY = 64;                                // highest number of children
+
   private Application[] queue; // array min-heap of applications representing this priority queue
   private int size;            // size of this priority queue
+  private int capacity;        // maximum size of this priority queue, up to which queue grows
+  private int arity;           // number of children of each node of the heap
+  private int modCount;        // number of structural modifications, checked by the iterators
+  private boolean shared;      // whether queue is shared with a snapshot, and must be copied
+                               // before the next write
+  private boolean readOnly;    // whether this ApplicationQueue is a snapshot
 
   /**
    * Creates a new empty ApplicationQueue with the given capacity
@@ -29,12 +50,70 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
    *                                  positive integer
    */
   public ApplicationQueue(int capacity) {
-    //  verify the capacity
+    this(capacity, 2);
+  }
+
+  /**
+   * Creates a new empty ApplicationQueue with the given capacity, whose heap nodes have the given
+   * number of children
+   *
+   * @param capacity Capacity of this ApplicationQueue
+   * @param arity    number of children of each node of the heap (2 for a binary heap)
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if the arity is less than 2 or more
+   *                                  than 64
+   */
+  public ApplicationQueue(int capacity, int arity) {
+    //  verify the capacity and the arity
     if(capacity <= 0) throw new IllegalArgumentException("Invalid capacity");
+    if(arity < 2 || arity > MAX_ARITY) throw new IllegalArgumentException("Invalid arity");
 
-    //  initialize fields appropriately
-    queue = new Application[capacity];
+    //  initialize fields appropriately, the array being allocated by the first enqueue
+    queue = EMPTY;
     size = 0;
+    this.capacity = capacity;
+    this.arity = arity;
+  }
+
+  /**
+   * Creates a new ApplicationQueue over the given heap array, without copying or verifying it.
+   *
+   * @param queue    array min-heap of the applications, of length at least size
+   * @param size     number of applications in queue
+   * @param capacity maximum size of this ApplicationQueue, at least the length of queue
+   * @param arity    number of children of each node of the heap
+   */
+  private ApplicationQueue(Application[] queue, int size, int capacity, int arity) {
+    this.queue = queue;
+    this.size = size;
+    this.capacity = capacity;
+    this.arity = arity;
+  }
+
+  /**
+   * Creates a new ApplicationQueue over the given heap array, after checking in linear time that
+   * its first size Applications are non-null and satisfy the heap condition. Used to decode an
+   * ApplicationQueue without enqueueing its Applications again.
+   *
+   * @param queue    array min-heap of the applications, of length at least size
+   * @param size     number of applications in queue
+   * @param capacity maximum size of the ApplicationQueue, at least the length of queue
+   * @param arity    number of children of each node of the heap
+   * @return an ApplicationQueue owning the given array
+   * @throws IllegalArgumentException if the capacity is not positive, if the arity is less than
+   *                                  2 or more than 64, or if the array is not a valid heap of
+   *                                  size Applications
+   */
+  static ApplicationQueue fromHeap(Application[] queue, int size, int capacity, int arity) {
+    if(arity < 2 || arity > MAX_ARITY) throw new IllegalArgumentException("Invalid arity");
+    if(capacity <= 0 || queue.length > capacity || size < 0 || size > queue.length)
+      throw new IllegalArgumentException("Invalid capacity");
+    for(int i = 0; i < size; i++){
+      if(queue[i] == null) throw new IllegalArgumentException("Null Application");
+      if(i > 0 && queue[(i - 1) / arity].getScore() > queue[i].getScore())
+        throw new IllegalArgumentException("Invalid heap order");
+    }
+    return new ApplicationQueue(queue, size, capacity, arity);
   }
 
   /**
@@ -73,9 +152,11 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
     if(o == null) throw new NullPointerException("Null Application");
 
     //  verify that the queue is not full
-    if(size >= queue.length) throw new IllegalStateException("ApplicationQueue is full");
+    if(size >= capacity) throw new IllegalStateException("ApplicationQueue is full");
 
     //  if allowed, add the application to the queue and percolate to restore the heap condition
+    prepareWrite();
+    if(size == queue.length) grow(size + 1);
     size++;
     queue[size - 1] = o;
 
@@ -83,6 +164,51 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
 
   }
 
+  /**
+   * Adds all the given Applications to this ApplicationQueue at once. When there are many of them
+   * compared to the current size, the whole heap is rebuilt bottom-up (Floyd's heapify) in linear
+   * time; otherwise each new Application is percolated up on its own. Either way this
+   * ApplicationQueue is left unchanged if an exception is thrown.
+   *
+   * @param applications Applications to add to this ApplicationQueue
+   * @throws NullPointerException  if applications or one of its Applications is null
+   * @throws IllegalStateException with a descriptive error message if this ApplicationQueue does
+   *                               not have room for all the applications
+   */
+  @Override
+  public void enqueueAll(Collection<? extends Application> applications) {
+    //  verify that the queue has room for all the applications
+    int count = applications.size();
+    if(count > capacity - size) throw new IllegalStateException("ApplicationQueue is full");
+
+    //  append the applications after the current ones, then verify them
+    prepareWrite();
+    if(size + count > queue.length) grow(size + count);
+    int newSize = size;
+    for(Application o : applications){
+      queue[newSize++] = o;
+    }
+    for(int i = size; i < newSize; i++){
+      if(queue[i] == null){
+        for(int j = size; j < newSize; j++) queue[j] = null;
+        throw new NullPointerException("Null Application");
+      }
+    }
+
+    //  restore the heap condition, choosing the cheaper of heapify and percolating up
+    int oldSize = size;
+    size = newSize;
+    if((long) count * (32 - Integer.numberOfLeadingZeros(size)) > size){
+      for(int i = getParentIndex(size - 1); i >= 0; i--){
+        percolateDown(i);
+      }
+    } else {
+      for(int i = oldSize; i < size; i++){
+        percolateUp(i);
+      }
+    }
+  }
+
   /**
    * Removes and returns the Application at the root of this ApplicationQueue, i.e. the Application
    * with the lowest score.
@@ -99,83 +225,111 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
     //  save the lowest-scoring application
     Application returnApp = queue[0];
 
-    //  replace the root of the heap and percolate to restore the heap condition
-    swap(0, size - 1);
-    queue[size - 1] = null;
+    //  move the last application to the root and percolate to restore the heap condition
+    prepareWrite();
     size--;
-    percolateDown(0);
+    Application last = queue[size];
+    queue[size] = null;
+    if(size > 0){
+      queue[0] = last;
+      percolateDown(0);
+    }
 
     //  return the lowest-scoring application
     return returnApp;  
   }
 
+  /**
+   * Replaces the Application at the root of this ApplicationQueue with the given Application and
+   * uses the percolateDown() method to maintain the min-heap invariant. This does a single walk
+   * down the heap, instead of the two walks of a dequeue() followed by an enqueue().
+   *
+   * @param o Application to add to this ApplicationQueue
+   * @return the Application in this ApplicationQueue with the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this ApplicationQueue is
+   *                                empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty ApplicationQueue");
+
+    //  overwrite the root and percolate to restore the heap condition
+    prepareWrite();
+    Application returnApp = queue[0];
+    queue[0] = o;
+    percolateDown(0);
+
+    return returnApp;
+  }
+
   /**
    * An implementation of percolateDown() method. Restores the min-heap invariant of a given
    * subtree by percolating its root down the tree. If the element at the given index does not
    * violate the min-heap invariant (it is due before its children), then this method does not
-   * modify the heap. Otherwise, if there is a heap violation, then swap the element with the
-   * correct child and continue percolating the element down the heap.
+   * modify the heap. Otherwise, if there is a heap violation, then the correct child moves up
+   * and the element continues percolating down the heap.
    *
-   * This method may be implemented recursively OR iteratively.
+   * This implementation is iterative and hole-based: the percolating element is held aside while
+   * the children move up into the hole it leaves, and it is written once at its final index.
+   * Scores are compared directly, so each level costs one array write and no method dispatch.
    *
    * @param i index of the element in the heap to percolate downwards
    * @throws IndexOutOfBoundsException if index is out of bounds - do not catch the exception
    */
   private void percolateDown(int i) {
-
-    // implement the min-heap percolate down algorithm to modify the heap in place
-    // if left child is greater than size than left child DNE
-    if(getLeftChildIndex(i) >= size || queue[getLeftChildIndex(i)] == null){
-      return;
-    }
-
-    int compareIndex;
-
-    if(hasLeftChild(i) && hasRightChild(i)){
-      int left = getLeftChildIndex(i);
-      int right = getRightChildIndex(i);
-
-      if(queue[left].compareTo(queue[right]) <= 0){
-        compareIndex = left;
-      } else {
-        compareIndex = right;
+    Application moving = queue[i];
+    int score = moving.getScore();
+
+    int child;
+    while((child = getLeftChildIndex(i)) < size){
+      //  pick the lowest-scored child, preferring the leftmost one on ties
+      Application smallest = queue[child];
+      int last = child + Math.min(arity, size - child);
+      for(int sibling = child + 1; sibling < last; sibling++){
+        if(queue[sibling].getScore() < smallest.getScore()){
+          smallest = queue[sibling];
+          child = sibling;
+        }
       }
-    } else {
-      compareIndex = getLeftChildIndex(i);
-    }
 
-    if(queue[i].compareTo(queue[compareIndex]) > 0){
-      swap(i, compareIndex);
-      percolateDown(compareIndex);
+      //  stop once the element is due before its children, otherwise move the child up
+      if(score <= smallest.getScore()) break;
+      queue[i] = smallest;
+      i = child;
     }
-
+    queue[i] = moving;
   }
 
   /**
    * An implementation of percolateUp() method. Restores the min-heap invariant of the tree
    * by percolating a leaf up the tree. If the element at the given index does not violate the
    * min-heap invariant (it occurs after its parent), then this method does not modify the heap.
-   * Otherwise, if there is a heap violation, swap the element with its parent and continue
-   * percolating the element up the heap.
-   *
-   * This method may be implemented recursively OR iteratively.
+   * Otherwise, if there is a heap violation, the parent moves down and the element continues
+   * percolating up the heap.
    *
-   * Feel free to add private helper methods if you need them.
+   * Like percolateDown(), this implementation is iterative and hole-based.
    *
    * @param i index of the element in the heap to percolate upwards
    * @throws IndexOutOfBoundsException if index is out of bounds - do not catch the exception
    */
   private void percolateUp(int i) {
-
-    // if parent index is less than 0 then i is the root
-    if(getParentIndex(i) < 0 || queue[getParentIndex(i)] == null) return;
-
-    // If app at i is less than at i's parent swap them
-    if(queue[i].compareTo(queue[getParentIndex(i)]) < 0){
-      swap(i, getParentIndex(i));
-      // then recursively call percolateUp at the parent index of i, which is now i
-      percolateUp(getParentIndex(i));
+    Application moving = queue[i];
+    int score = moving.getScore();
+
+    while(i > 0){
+      //  stop once the parent is due before the element, otherwise move the parent down
+      int parent = getParentIndex(i);
+      Application above = queue[parent];
+      if(above.getScore() <= score) break;
+      queue[i] = above;
+      i = parent;
     }
+    queue[i] = moving;
   }
 
   /**
@@ -198,18 +352,37 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
    * This method does not return the deepest copy, meaning that you do not need to duplicate
    * applications. Only the instance of the heap (including the array and its size) will be duplicated.
    *
+   * The array of this queue already satisfies the heap invariant, so it is copied as is in linear
+   * time. The copy can be modified, even if this queue is a snapshot.
+   *
    * @return a deep copy of this ApplicationQueue. The returned new application queue has the same
    *         length and size as this queue.
    */
   public ApplicationQueue deepCopy() {
-
-    ApplicationQueue deepCopyQueue = new ApplicationQueue(queue.length);
-
-    for (Application application : queue) {
-      deepCopyQueue.enqueue(application);
-    }
+    ApplicationQueue deepCopyQueue = new ApplicationQueue(capacity, arity);
+    if(size > 0) deepCopyQueue.queue = Arrays.copyOf(queue, queue.length);
+    deepCopyQueue.size = size;
     return deepCopyQueue;
+  }
 
+  /**
+   * Returns a read-only snapshot of this ApplicationQueue, which keeps its current elements while
+   * this queue goes on changing. The snapshot shares the array of this queue, which is only copied
+   * (copy-on-write) when this queue is next modified, so taking a snapshot costs constant time.
+   * Trying to modify the snapshot throws an UnsupportedOperationException.
+   *
+   * Like the rest of this class, snapshot() is not synchronized: a snapshot handed to another
+   * thread must be published safely, e.g. by taking it under the lock guarding this queue.
+   *
+   * @return a read-only snapshot of this ApplicationQueue
+   */
+  public ApplicationQueue snapshot() {
+    if(readOnly) return this;
+
+    ApplicationQueue snapshot = new ApplicationQueue(queue, size, capacity, arity);
+    snapshot.readOnly = true;
+    shared = true;
+    return snapshot;
   }
 
   /**
@@ -236,9 +409,8 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
 
   /**
    * Returns an Iterator for this ApplicationQueue which proceeds from the lowest-scored to the
-   * highest-scored Application in the queue.
-   *
-   * This implementation is provided.
+   * highest-scored Application in the queue. The iterator walks this live queue without copying
+   * it, so modifying the queue during the iteration makes the iterator fail.
    *
    * @see ApplicationIterator
    * @return an Iterator for this ApplicationQueue
@@ -249,66 +421,115 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
   }
 
   /**
-   * Helper Method: Swaps the elements at indices i and j
+   * Returns an Iterator over the Applications of this ApplicationQueue in array (heap) order,
+   * which is not sorted by score. This is the cheapest way to visit every application, e.g. to
+   * aggregate their scores.
    *
-   * @param i index to swap with
-   * @param j index to swap with
-   * @throws IndexOutOfBoundsException if i or j is not in the range 0..size-1
+   * @return an unordered Iterator for this ApplicationQueue
    */
-  private void swap(int i, int j) throws IndexOutOfBoundsException {
-    Application temp = queue[i];
-    queue[i] = queue[j];
-    queue[j] = temp;
+  @Override
+  public Iterator<Application> unorderedIterator() {
+    return new Iterator<Application>() {
+      private int index = 0;                      // index of the next application to return
+      private int expectedModCount = modCount;    // modCount of the queue when iteration started
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Application next() {
+        if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        if (!hasNext())
+          throw new NoSuchElementException("No more elements in this iteration");
+        return queue[index++];
+      }
+    };
   }
 
   /**
-   * helper method Returns the index of the parent of the node at position j of the heap
+   * Returns the Application stored at the given index of the heap array. Used by the iterators.
    *
-   * @param c index of a node (child)
-   * @return index of the parent of node at position j
+   * @param i index of a node stored in the heap
+   * @return the Application at index i
    */
-  private int getParentIndex(int c) {
-    return (c - 1) / 2;
+  Application get(int i) {
+    return queue[i];
   }
 
   /**
-   * helper method Returns the index of the left child of the node at index p in the heap
+   * Returns the number of children of each node of the heap. Used by the iterators.
    *
-   * @param p index of a node (parent aka internal node)
-   * @return index of the left child of p
+   * @return the arity of this ApplicationQueue
    */
-  private int getLeftChildIndex(int p) {
-    return 2 * p + 1;
+  int arity() {
+    return arity;
+  }
+
+  /**
+   * Returns the number of Applications this ApplicationQueue can hold.
+   *
+   * @return the capacity of this ApplicationQueue
+   */
+  int capacity() {
+    return capacity;
   }
 
   /**
-   * helper method Returns the index of the right child of the node at index p in the heap
+   * Returns the number of structural modifications made to this ApplicationQueue, so that the
+   * iterators can detect concurrent modifications.
    *
-   * @param p index of a node
-   * @return index of the right child of p
+   * @return the modification count of this ApplicationQueue
    */
-  private int getRightChildIndex(int p) {
-    return 2 * p + 2;
+  int modCount() {
+    return modCount;
   }
 
   /**
-   * helper method Checks whether the node of index p has a left child or not
+   * Helper method: Prepares the array of this ApplicationQueue to be modified, copying it first if
+   * it is shared with a snapshot, and records the modification for the iterators.
    *
-   * @param p index of a node/element stored in the heap
-   * @return true if the node of index p has a left child, false otherwise
+   * @throws UnsupportedOperationException if this ApplicationQueue is a read-only snapshot
    */
-  private boolean hasLeftChild(int p) {
-    return getLeftChildIndex(p) < size;
+  private void prepareWrite() {
+    if(readOnly) throw new UnsupportedOperationException("ApplicationQueue snapshot is read-only");
+    if(shared){
+      queue = queue.clone();
+      shared = false;
+    }
+    modCount++;
   }
 
   /**
-   * Checks whether the node of index p has a right child
+   * Helper method: Replaces the array of this ApplicationQueue by a longer copy, at least doubling
+   * its length up to the capacity.
    *
-   * @param p index of a particular node stored in the heap
-   * @return true if the node of index p has a left child, false otherwise
+   * @param minLength the length the array needs, at most the capacity
    */
-  private boolean hasRightChild(int p) {
-    return getRightChildIndex(p) < size;
+  private void grow(int minLength) {
+    int length = (int) Math.min(capacity, Math.max(2L * queue.length, INITIAL_LENGTH));
+    queue = Arrays.copyOf(queue, Math.max(length, minLength));
+  }
+
+  /**
+   * helper method Returns the index of the parent of the node at position j of the heap
+   *
+   * @param c index of a node (child)
+   * @return index of the parent of node at position j
+   */
+  private int getParentIndex(int c) {
+    return (c - 1) / arity;
+  }
+
+  /**
+   * helper method Returns the index of the left child of the node at index p in the heap
+   *
+   * @param p index of a node (parent aka internal node)
+   * @return index of the left child of p, or Integer.MAX_VALUE if it is beyond any array
+   */
+  private int getLeftChildIndex(int p) {
+    return (int) Math.min((long) arity * p + 1, Integer.MAX_VALUE);
   }
 
 }
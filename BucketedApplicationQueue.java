@@ -0,0 +1,264 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Bucketed implementation of a priority queue containing Applications. Since an Application score
+ * is always in the 0 .. 100 range, applications are kept in one bucket per score instead of a
+ * heap. Each bucket is a singly-linked list threaded through a fixed pool of slots, and a bitmap
+ * records which buckets are non-empty, so that enqueue, dequeue and peek all run in constant time
+ * and never compare two Applications. Applications with the same score are dequeued in no
+ * particular order.
+ */
+public class BucketedApplicationQueue implements PriorityQueueADT<Application> {
+  private static final int NUM_BUCKETS = 101; // one bucket per possible score 0 .. 100
+  private static final int NONE = -1;         // end-of-list marker for slot links
+
+  private Application[] slots;  // pool of slots holding the applications of this queue
+  private int[] next;           // next slot in the same bucket (or in the free list)
+  private int[] heads;          // first slot of each score bucket, or NONE if empty
+  private long[] occupied;      // bitmap of the non-empty buckets
+  private int free;             // first slot of the free list, or NONE if full
+  private int size;             // size of this priority queue
+  private int modCount;         // number of structural modifications, checked by the iterators
+
+  /**
+   * Creates a new empty BucketedApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this BucketedApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public BucketedApplicationQueue(int capacity) {
+    //  verify the capacity
+    if(capacity <= 0) throw new IllegalArgumentException("Invalid capacity");
+
+    //  initialize fields appropriately, chaining every slot into the free list
+    slots = new Application[capacity];
+    next = new int[capacity];
+    for(int i = 0; i < capacity - 1; i++){
+      next[i] = i + 1;
+    }
+    next[capacity - 1] = NONE;
+    free = 0;
+
+    heads = new int[NUM_BUCKETS];
+    for(int s = 0; s < NUM_BUCKETS; s++){
+      heads[s] = NONE;
+    }
+    occupied = new long[2];
+    size = 0;
+  }
+
+  /**
+   * Checks whether this BucketedApplicationQueue is empty
+   *
+   * @return {@code true} if this BucketedApplicationQueue is empty
+   */
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the size of this BucketedApplicationQueue
+   *
+   * @return the size of this BucketedApplicationQueue
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds the given Application to the bucket of its score.
+   *
+   * @param o Application to add to this BucketedApplicationQueue
+   * @throws NullPointerException if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not full
+    if(free == NONE) throw new IllegalStateException("BucketedApplicationQueue is full");
+
+    //  take a slot from the free list and push it onto the bucket of the score
+    int slot = free;
+    free = next[slot];
+
+    modCount++;
+    int score = o.getScore();
+    slots[slot] = o;
+    next[slot] = heads[score];
+    heads[score] = slot;
+    occupied[score >>> 6] |= 1L << score;
+    size++;
+  }
+
+  /**
+   * Removes and returns an Application from the lowest non-empty bucket of this queue, i.e. an
+   * Application with the lowest score.
+   *
+   * @return an Application in this BucketedApplicationQueue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty BucketedApplicationQueue");
+
+    //  pop the first slot of the lowest bucket and return it to the free list
+    modCount++;
+    int score = lowestScore();
+    int slot = heads[score];
+    heads[score] = next[slot];
+    if(heads[score] == NONE) occupied[score >>> 6] &= ~(1L << score);
+
+    Application returnApp = slots[slot];
+    slots[slot] = null;
+    next[slot] = free;
+    free = slot;
+    size--;
+
+    return returnApp;
+  }
+
+  /**
+   * Replaces an Application with the lowest score by the given Application. Both bucket
+   * operations run in constant time, so this simply dequeues then enqueues.
+   *
+   * @param o Application to add to this BucketedApplicationQueue
+   * @return the removed Application, having the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    //  verify the application before removing anything
+    if(o == null) throw new NullPointerException("Null Application");
+
+    Application returnApp = dequeue();
+    enqueue(o);
+    return returnApp;
+  }
+
+  /**
+   * Returns an Application from the lowest non-empty bucket of this queue, i.e. an Application
+   * with the lowest score.
+   *
+   * @return an Application in this BucketedApplicationQueue with the smallest score
+   * @throws NoSuchElementException if this BucketedApplicationQueue is empty
+   */
+  @Override
+  public Application peek() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Queue is empty");
+    return slots[heads[lowestScore()]];
+  }
+
+  /**
+   * Returns a String representing this BucketedApplicationQueue, where each element (application)
+   * of the queue is listed on a separate line, in order from the lowest score to the highest score.
+   *
+   * @return a String representing this BucketedApplicationQueue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator for this BucketedApplicationQueue which proceeds from the lowest-scored to
+   * the highest-scored Application in the queue. The buckets are already sorted by score, so no
+   * comparisons are needed. Modifying the queue during the iteration makes the iterator fail.
+   *
+   * @return an Iterator for this BucketedApplicationQueue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return new BucketIterator(1);
+  }
+
+  /**
+   * Returns an Iterator over the Applications of this BucketedApplicationQueue from the
+   * highest-scored to the lowest-scored. Walking the buckets downwards costs the same as walking
+   * them upwards, and lets callers looking for the best applications stop early.
+   *
+   * @return an Iterator for this BucketedApplicationQueue in decreasing order of the scores
+   */
+  @Override
+  public Iterator<Application> unorderedIterator() {
+    return new BucketIterator(-1);
+  }
+
+  /**
+   * Iterator walking the buckets of this queue in increasing or decreasing order of the scores.
+   */
+  private class BucketIterator implements Iterator<Application> {
+    private int step;                         // +1 to walk the buckets upwards, -1 downwards
+    private int score;                        // bucket currently being walked
+    private int slot = NONE;                  // slot of the next application to return
+    private int expectedModCount = modCount;  // modCount of the queue when iteration started
+
+    private BucketIterator(int step) {
+      this.step = step;
+      this.score = step > 0 ? -1 : NUM_BUCKETS;
+      advanceBucket();
+    }
+
+    // moves to the first slot of the next non-empty bucket, if any
+    private void advanceBucket() {
+      while(slot == NONE && score + step >= 0 && score + step < NUM_BUCKETS){
+        score += step;
+        slot = heads[score];
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return slot != NONE;
+    }
+
+    @Override
+    public Application next() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (!hasNext())
+        throw new NoSuchElementException("No more elements in this iteration");
+      Application returnApp = slots[slot];
+      slot = next[slot];
+      advanceBucket();
+      return returnApp;
+    }
+  }
+
+  /**
+   * helper method Returns the lowest score having a non-empty bucket, using the bitmap. The
+   * queue must not be empty.
+   *
+   * @return the lowest score currently in this queue
+   */
+  private int lowestScore() {
+    if(occupied[0] != 0) return Long.numberOfTrailingZeros(occupied[0]);
+    return 64 + Long.numberOfTrailingZeros(occupied[1]);
+  }
+
+}
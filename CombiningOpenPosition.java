@@ -0,0 +1,529 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe open position which combines the submissions arriving together into batches. Like
+ * ConcurrentOpenPosition, it rejects the submissions which do not pass the published cutoff
+ * without locking, and applies the others right away when the lock is free. When it is not, they
+ * are published in a queue of pending requests, and the first submitting thread to get the lock
+ * becomes the combiner: it applies every pending request, its own and those of the other threads,
+ * in a single pass under the lock. The other threads wait for
+ * their request to be applied, spinning briefly before they block on the lock, so that under load
+ * the lock is taken once per batch instead of once per submission.
+ *
+ * A batch is applied from its highest score to its lowest, which is a valid order for concurrent
+ * submissions: no application of the batch evicts another one of the same batch, and once an
+ * application is rejected, every lower one is rejected without touching the priority queue. The
+ * outcome of each request is stored in the request, so an exception thrown by the position while
+ * it applies a request is rethrown in the thread which submitted it, not in the combiner, and the
+ * rest of the batch is still applied.
+ *
+ * Every request of a batch is counted in the metrics and reported to the listeners, whether the
+ * position rejected it or the combiner did, so the counts do not depend on how the submissions
+ * were batched. Only the lock-free rejections are not reported to the listeners, which are
+ * notified under the lock.
+ *
+ * It has the same methods as ConcurrentOpenPosition, so either can be used: the methods other than
+ * add() take the lock as in ConcurrentOpenPosition, and are applied between two batches.
+ */
+public class CombiningOpenPosition {
+  private static final int MAX_BATCH = 1024; // number of requests applied per pass at most
+  private static final int SPINS = 64;       // tries for the lock before blocking on it
+
+  // requests with the highest scores first, and in order of arrival among equal scores
+  private static final Comparator<Request> BY_SCORE_DESCENDING =
+      (a, b) -> Integer.compare(b.application.getScore(), a.application.getScore());
+
+  private final OpenPosition position;                   // the position guarded by lock
+  private final ReentrantLock lock;                      // lock held by the combiner
+  private final ConcurrentLinkedQueue<Request> pending;  // requests waiting for a combiner
+  private final Request[] batch;                         // requests of a pass, guarded by lock
+  private volatile int cutoff;          // the cutoff score of position, published after updates
+  private volatile OpenPositionMetrics metrics; // metrics of position, read by the fast path
+  private long passes;                  // number of combining passes, guarded by lock
+  private long combined;                // number of requests applied by them, guarded by lock
+
+  /**
+   * A submission waiting to be applied by a combiner
+   */
+  private static class Request {
+    private static final int PENDING = 0;  // not applied yet
+    private static final int ADDED = 1;    // applied, and added to the position
+    private static final int REJECTED = 2; // applied, and rejected by the position
+    private static final int FAILED = 3;   // applied, and the position threw failure
+
+    private final Application application; // the submitted application
+    private Throwable failure;             // thrown while applying, published by state
+    private volatile int state;            // PENDING, ADDED, REJECTED or FAILED
+
+    private Request(Application application) {
+      this.application = application;
+    }
+  }
+
+  /**
+   * Creates a new combining open position with the given capacity
+   *
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public CombiningOpenPosition(String positionName, int capacity) {
+    this(new OpenPosition(positionName, capacity));
+  }
+
+  /**
+   * Creates a new combining open position with the given capacity, which keeps its applications
+   * in the given priority queue.
+   *
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @param applications an empty priority queue able to hold at least capacity applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if the given queue is null or not empty
+   * @see OpenPosition#OpenPosition(String, int, PriorityQueueADT)
+   */
+  public CombiningOpenPosition(String positionName, int capacity,
+                               PriorityQueueADT<Application> applications) {
+    this(new OpenPosition(positionName, capacity, applications));
+  }
+
+  /**
+   * Creates a new combining open position guarding a newly created position, which must not be
+   * reachable from anywhere else.
+   *
+   * @param position the position to guard
+   */
+  private CombiningOpenPosition(OpenPosition position) {
+    this.position = position;
+    this.lock = new ReentrantLock();
+    this.pending = new ConcurrentLinkedQueue<>();
+    this.batch = new Request[MAX_BATCH];
+    this.cutoff = position.cutoffScore();
+  }
+
+  /**
+   * Gets the position name
+   *
+   * @return the position name
+   */
+  public String getPositionName() { return position.getPositionName(); }
+
+  /**
+   * Sets the metrics recording the activity of this position, replacing the previous ones. The
+   * lock-free rejections are counted in the metrics as well.
+   *
+   * @param metrics the metrics to record into, or null to stop recording
+   * @see OpenPosition#setMetrics(OpenPositionMetrics)
+   */
+  public void setMetrics(OpenPositionMetrics metrics) {
+    lock.lock();
+    try {
+      position.setMetrics(metrics);
+      this.metrics = metrics;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the metrics recording the activity of this position
+   *
+   * @return the metrics of this position, or null if it has none
+   */
+  public OpenPositionMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Adds a listener notified of the admissions, evictions and rejections of this position. It is
+   * notified under the lock, by one thread at a time, and not of the lock-free rejections.
+   *
+   * @param listener the listener to notify
+   * @throws NullPointerException if listener is null
+   * @see OpenPosition#addListener(OpenPositionListener)
+   */
+  public void addListener(OpenPositionListener listener) {
+    lock.lock();
+    try {
+      position.addListener(listener);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes a listener added to this position, leaving the other listeners in place.
+   *
+   * @param listener the listener to stop notifying
+   * @return Whether the listener was notified by this position
+   */
+  public boolean removeListener(OpenPositionListener listener) {
+    lock.lock();
+    try {
+      return position.removeListener(listener);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Tries to add the given Application to this position. Applications whose score does not exceed
+   * the published cutoff are rejected without locking; the others are applied by a combiner,
+   * possibly along with the submissions of other threads.
+   *
+   * @param application the Application to add
+   * @return Whether the given Application was added successfully
+   * @throws NullPointerException if the given Application is null
+   * @throws RuntimeException     or Error, if the position threw it while adding the Application
+   */
+  public boolean add(Application application) {
+    //  fast path: the cutoff only changes under the lock, so a score below it is a reject
+    if(application.getScore() <= cutoff) return reject();
+
+    //  uncontended path: with the lock free, apply the submission right away, then the pending ones
+    if(lock.tryLock()){
+      try {
+        passes++;
+        combined++;
+        return position.add(application);
+      } finally {
+        cutoff = position.cutoffScore();
+        if(!pending.isEmpty()) combine();
+        lock.unlock();
+      }
+    }
+
+    Request request = new Request(application);
+    pending.add(request);
+
+    //  wait for a combiner to apply the request, or become the combiner
+    boolean locked = false;
+    for(int spins = 0; !locked && request.state == Request.PENDING; spins++){
+      if(spins < SPINS){
+        locked = lock.tryLock();
+        if(!locked) Thread.onSpinWait();
+      } else {
+        lock.lock();
+        locked = true;
+      }
+    }
+    if(locked){
+      try {
+        while(request.state == Request.PENDING) combine();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    //  rethrow what the position threw for this request, in the thread which submitted it
+    if(request.state == Request.FAILED){
+      if(request.failure instanceof Error) throw (Error) request.failure;
+      if(request.failure instanceof RuntimeException) throw (RuntimeException) request.failure;
+      throw new IllegalStateException(request.failure);
+    }
+    return request.state == Request.ADDED;
+  }
+
+  /**
+   * Tries to add an Application with the given name, email and score to this position. Scores
+   * which do not exceed the published cutoff are rejected without locking or allocating.
+   *
+   * @param name  name of the applicant
+   * @param email email of the applicant
+   * @param score score of the applicant
+   * @return Whether the Application was added successfully
+   * @throws IllegalArgumentException if the submission passes the cutoff, but is not a valid
+   *                                  Application
+   * @see OpenPosition#add(String, String, int)
+   */
+  public boolean add(String name, String email, int score) {
+    if(score <= cutoff) return reject();
+    return add(new Application(name, email, score));
+  }
+
+  /**
+   * Helper method: Counts a lock-free rejection in the metrics, if any.
+   *
+   * @return false
+   */
+  private boolean reject() {
+    OpenPositionMetrics metrics = this.metrics;
+    if(metrics != null) metrics.recordRejection();
+    return false;
+  }
+
+  /**
+   * Checks whether an Application with the given score would pass the published cutoff of this
+   * position. This never blocks; a concurrent admission may still raise the cutoff above it.
+   *
+   * @param score a score
+   * @return Whether an Application with the given score would be added to this position now
+   */
+  public boolean wouldAccept(int score) {
+    return score > cutoff;
+  }
+
+  /**
+   * Removes the Application with the given email from this position. The applications must be
+   * indexed by email.
+   *
+   * @param email the email of the Application to remove
+   * @return Whether an Application was removed
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   * @see OpenPosition#withdraw(String)
+   */
+  public boolean withdraw(String email) {
+    lock.lock();
+    try {
+      return position.withdraw(email);
+    } finally {
+      cutoff = position.cutoffScore();
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Changes the score of the Application with the given email. The applications must be indexed
+   * by email.
+   *
+   * @param email    the email of the Application to update
+   * @param newScore the new score of the Application, in the 0 .. 100 range
+   * @return Whether an Application was updated
+   * @throws IllegalArgumentException      if newScore is not in the 0 .. 100 range
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   * @see OpenPosition#updateScore(String, int)
+   */
+  public boolean updateScore(String email, int newScore) {
+    lock.lock();
+    try {
+      return position.updateScore(email, newScore);
+    } finally {
+      cutoff = position.cutoffScore();
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the score a new Application must exceed to be added to this position. This only reads
+   * the published cutoff and never blocks.
+   *
+   * @return The score a new Application must exceed to be added to this position
+   * @see OpenPosition#cutoffScore()
+   */
+  public int cutoffScore() {
+    return cutoff;
+  }
+
+  /**
+   * Returns the average number of requests applied per combining pass, which is the number of
+   * submissions per acquisition of the lock by a combiner.
+   *
+   * @return the average size of the batches, or 0 if no request was combined yet
+   */
+  public double getAverageBatchSize() {
+    lock.lock();
+    try {
+      return passes == 0 ? 0 : (double) combined / passes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the list of Applications in this position.
+   *
+   * @return The list of Applications in this position, in increasing order of the scores.
+   * @see OpenPosition#getApplications()
+   */
+  public String getApplications() {
+    lock.lock();
+    try {
+      return position.getApplications();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the total score of Applications in this position.
+   *
+   * @return The total score of Applications in this position.
+   */
+  public int getTotalScore() {
+    lock.lock();
+    try {
+      return position.getTotalScore();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of Applications in this position.
+   *
+   * @return The number of Applications in this position.
+   */
+  public int getApplicationCount() {
+    lock.lock();
+    try {
+      return position.getApplicationCount();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the lowest score of the Applications in this position.
+   *
+   * @return The lowest score of the Applications in this position.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getLowestScore() {
+    lock.lock();
+    try {
+      return position.getLowestScore();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the highest score of the Applications in this position.
+   *
+   * @return The highest score of the Applications in this position.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getHighestScore() {
+    lock.lock();
+    try {
+      return position.getHighestScore();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the k highest-scored Applications in this position.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) highest-scored Applications, in decreasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   * @see OpenPosition#topK(int)
+   */
+  public List<Application> topK(int k) {
+    lock.lock();
+    try {
+      return position.topK(k);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the k lowest-scored Applications in this position.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) lowest-scored Applications, in increasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   * @see OpenPosition#bottomK(int)
+   */
+  public List<Application> bottomK(int k) {
+    lock.lock();
+    try {
+      return position.bottomK(k);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Helper method: Applies a batch of pending requests to the position: rejects those which do
+   * not pass its cutoff in one pass, then adds the others from the highest score to the lowest,
+   * and publishes the new cutoff. The requests rejected without being added are recorded by the
+   * position as rejections. A request the position throws on is marked as failed with what it
+   * threw. Must be called with the lock held.
+   */
+  private void combine() {
+    int count = 0;
+    Request request;
+    while(count < MAX_BATCH && (request = pending.poll()) != null){
+      batch[count++] = request;
+    }
+    if(count == 0) return;
+    passes++;
+    combined += count;
+
+    //  reject the requests below the current cutoff, and keep the others at the front
+    int threshold = position.cutoffScore();
+    int candidates = 0;
+    for(int j = 0; j < count; j++){
+      if(batch[j].application.getScore() <= threshold) reject(batch[j]);
+      else batch[candidates++] = batch[j];
+    }
+
+    //  once a request is rejected, the cutoff is at least its score, so the lower ones are too
+    Arrays.sort(batch, 0, candidates, BY_SCORE_DESCENDING);
+    int i = 0;
+    try {
+      for(; i < candidates; i++){
+        Request next = batch[i];
+        boolean added;
+        try {
+          added = position.add(next.application);
+        } catch (Throwable e){
+          next.failure = e;
+          next.state = Request.FAILED;
+          continue;
+        }
+        if(!added){
+          next.state = Request.REJECTED;
+          i++;
+          break;
+        }
+        next.state = Request.ADDED;
+      }
+    } finally {
+      for(; i < candidates; i++){
+        reject(batch[i]);
+      }
+      Arrays.fill(batch, 0, count, null);
+      cutoff = position.cutoffScore();
+    }
+  }
+
+  /**
+   * Helper method: Rejects a request without adding its application, recording the rejection in
+   * the position before publishing the outcome to the submitter. A request the position throws on
+   * while recording it is marked as failed, like when adding it. Must be called with the lock
+   * held.
+   *
+   * @param request the request to reject
+   */
+  private void reject(Request request) {
+    try {
+      position.reject(request.application);
+    } catch (Throwable e){
+      request.failure = e;
+      request.state = Request.FAILED;
+      return;
+    }
+    request.state = Request.REJECTED;
+  }
+
+}
@@ -0,0 +1,405 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-based heap implementation of a priority queue containing Applications, which keeps no
+ * Application object at all. The name and email of each Application are interned in an
+ * ApplicantTable, possibly shared with other queues, and the min-heap is an array of longs holding
+ * the score of an Application in the high 32 bits and the handle of its identity in the low 32
+ * bits. A retained Application therefore takes 8 bytes in the queue, plus the bytes of its
+ * identity in the table, which are shared by all the queues the applicant is retained by. The
+ * submission times are kept in a second array, moved along with the keys, which is only allocated
+ * once an Application with a submission time is added.
+ * The queue holds a reference to the identity of each of its Applications, and releases it when
+ * the Application leaves the queue; clear() releases them all.
+ *
+ * Applications are created again from the table when they are read, without locking it. The
+ * Application at the root is kept once created, so that peek() is cheap until the root is removed
+ * or changes. Applications with the same score are ordered by handle.
+ */
+public class CompactApplicationQueue implements PriorityQueueADT<Application> {
+  private static final long[] EMPTY = new long[0]; // array of new empty queues
+
+  private final ApplicantTable table; // identities of the applications
+  private long[] keys;                // array min-heap of (score << 32 | handle) keys
+  private long[] times;               // submission times of the keys, or null if none has one
+  private int size;                   // size of this priority queue
+  private int capacity;               // maximum size of this priority queue, up to which keys grows
+  private Application root;           // Application of rootKey, created by peek(), or null
+  private long rootKey;               // key root was created from
+  private int modCount;               // number of structural modifications, checked by iterators
+
+  /**
+   * Creates a new empty CompactApplicationQueue with the given capacity and its own ApplicantTable
+   *
+   * @param capacity Capacity of this CompactApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public CompactApplicationQueue(int capacity) {
+    this(capacity, new ApplicantTable());
+  }
+
+  /**
+   * Creates a new empty CompactApplicationQueue with the given capacity, which interns the
+   * identities of its applications in the given table
+   *
+   * @param capacity Capacity of this CompactApplicationQueue
+   * @param table    the table of identities, which may be shared with other queues
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if table is null
+   */
+  public CompactApplicationQueue(int capacity, ApplicantTable table) {
+    //  verify the capacity and the table
+    if(capacity <= 0) throw new IllegalArgumentException("Invalid capacity");
+    if(table == null) throw new NullPointerException("Null ApplicantTable");
+
+    //  initialize fields appropriately, the array being allocated by the first enqueue
+    this.table = table;
+    this.keys = EMPTY;
+    this.capacity = capacity;
+    size = 0;
+  }
+
+  /**
+   * Returns the table of the identities of the Applications of this queue
+   *
+   * @return the ApplicantTable of this CompactApplicationQueue
+   */
+  public ApplicantTable getTable() {
+    return table;
+  }
+
+  /**
+   * Checks whether this CompactApplicationQueue is empty
+   *
+   * @return {@code true} if this CompactApplicationQueue is empty
+   */
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the size of this CompactApplicationQueue
+   *
+   * @return the size of this CompactApplicationQueue
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Interns the identity of the given Application and adds its key to the heap.
+   *
+   * @param o Application to add to this CompactApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not full
+    if(size == capacity) throw new IllegalStateException("CompactApplicationQueue is full");
+
+    //  intern the identity, then percolate the key up to restore the heap condition
+    long key = key(o);
+    modCount++;
+    if(size == keys.length) grow(size + 1);
+    if(times == null && o.getSubmittedAt() != Application.NO_TIME) allocateTimes();
+    percolateUp(size++, key, o.getSubmittedAt());
+  }
+
+  /**
+   * Adds all the given Applications to this CompactApplicationQueue, then rebuilds the heap
+   * bottom-up in linear time. This CompactApplicationQueue is left unchanged if an exception is
+   * thrown, although the identities of the Applications may have been interned.
+   *
+   * @param applications Applications to add to this CompactApplicationQueue
+   * @throws NullPointerException  if applications or one of its Applications is null
+   * @throws IllegalStateException with a descriptive error message if this queue does not have
+   *                               room for all the applications
+   */
+  @Override
+  public void enqueueAll(Collection<? extends Application> applications) {
+    //  verify the applications and that the queue has room for all of them
+    int count = applications.size();
+    if(count > capacity - size)
+      throw new IllegalStateException("CompactApplicationQueue is full");
+    for(Application o : applications){
+      if(o == null) throw new NullPointerException("Null Application");
+    }
+
+    //  append the keys, releasing them if an identity cannot be interned, then heapify
+    modCount++;
+    if(size + count > keys.length) grow(size + count);
+    int newSize = size;
+    try {
+      for(Application o : applications){
+        keys[newSize] = key(o);
+        if(times == null && o.getSubmittedAt() != Application.NO_TIME) allocateTimes();
+        if(times != null) times[newSize] = o.getSubmittedAt();
+        newSize++;
+      }
+    } catch (RuntimeException e){
+      for(int i = size; i < newSize; i++) table.release((int) keys[i]);
+      throw e;
+    }
+    size = newSize;
+    root = null;
+    for(int i = size / 2 - 1; i >= 0; i--){
+      percolateDown(i, keys[i], timeAt(i));
+    }
+  }
+
+  /**
+   * Removes and returns the Application with the lowest score, whose key is at the root of the
+   * heap.
+   *
+   * @return the Application in this CompactApplicationQueue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty CompactApplicationQueue");
+
+    //  move the last key to the root and percolate it down
+    Application returnApp = peek();
+    //  the handle of the root may be given to the next identity interned: forget its Application
+    table.release((int) keys[0]);
+    root = null;
+    modCount++;
+    size--;
+    if(size > 0) percolateDown(0, keys[size], timeAt(size));
+    return returnApp;
+  }
+
+  /**
+   * Replaces the Application with the lowest score by the given Application, whose key is
+   * percolated down from the root.
+   *
+   * @param o Application to add to this CompactApplicationQueue
+   * @return the removed Application, having the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty CompactApplicationQueue");
+
+    Application returnApp = peek();
+    long key = key(o);
+    table.release((int) keys[0]);
+    root = null;
+    modCount++;
+    if(times == null && o.getSubmittedAt() != Application.NO_TIME) allocateTimes();
+    percolateDown(0, key, o.getSubmittedAt());
+    return returnApp;
+  }
+
+  /**
+   * Returns the Application with the lowest score, whose key is at the root of the heap. The
+   * Application is created from the table the first time the root is read.
+   *
+   * @return the Application in this CompactApplicationQueue with the smallest score
+   * @throws NoSuchElementException if this CompactApplicationQueue is empty
+   */
+  @Override
+  public Application peek() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Queue is empty");
+
+    if(root == null || rootKey != keys[0]){
+      root = toApplication(0);
+      rootKey = keys[0];
+    }
+    return root;
+  }
+
+  /**
+   * Removes all the Applications of this CompactApplicationQueue, releasing their identities in
+   * the table. A queue which is discarded while it holds Applications should be cleared first,
+   * or their identities stay in a shared table.
+   */
+  public void clear() {
+    modCount++;
+    for(int i = 0; i < size; i++) table.release((int) keys[i]);
+    size = 0;
+    root = null;
+  }
+
+  /**
+   * Returns a String representing this CompactApplicationQueue, where each element (application)
+   * of the queue is listed on a separate line, in order from the lowest score to the highest score.
+   *
+   * @return a String representing this CompactApplicationQueue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator for this CompactApplicationQueue which proceeds from the lowest-scored to
+   * the highest-scored Application in the queue. It walks the live heap with an IndexFrontier that
+   * compares the indices by their keys, and creates each Application it returns. Modifying the
+   * queue during the iteration makes the iterator fail.
+   *
+   * @return an Iterator for this CompactApplicationQueue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return new IndexFrontier(size, 2, () -> modCount, (a, b) -> Long.compare(keys[a], keys[b]),
+        this::toApplication);
+  }
+
+  /**
+   * Returns an Iterator over the Applications of this CompactApplicationQueue in heap order,
+   * which is not sorted by score. Each Application is created as it is returned.
+   *
+   * @return an unordered Iterator for this CompactApplicationQueue
+   */
+  @Override
+  public Iterator<Application> unorderedIterator() {
+    return new Iterator<Application>() {
+      private int index = 0;                      // index of the next key to return
+      private int expectedModCount = modCount;    // modCount of the queue when iteration started
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Application next() {
+        if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        if (!hasNext())
+          throw new NoSuchElementException("No more elements in this iteration");
+        return toApplication(index++);
+      }
+    };
+  }
+
+  /**
+   * Helper method: Percolates the given key down the heap, starting from the hole at index i,
+   * along with its submission time.
+   *
+   * @param i    index of the hole the key starts from
+   * @param key  key to place in the heap
+   * @param time submission time of the key, ignored if no key has one
+   */
+  private void percolateDown(int i, long key, long time) {
+    int child;
+    while((child = 2 * i + 1) < size){
+      if(child + 1 < size && keys[child + 1] < keys[child]) child++;
+      if(key <= keys[child]) break;
+      keys[i] = keys[child];
+      if(times != null) times[i] = times[child];
+      i = child;
+    }
+    keys[i] = key;
+    if(times != null) times[i] = time;
+  }
+
+  /**
+   * Helper method: Percolates the given key up the heap, starting from the hole at index i, along
+   * with its submission time.
+   *
+   * @param i    index of the hole the key starts from
+   * @param key  key to place in the heap
+   * @param time submission time of the key, ignored if no key has one
+   */
+  private void percolateUp(int i, long key, long time) {
+    while(i > 0){
+      int parent = (i - 1) / 2;
+      if(keys[parent] <= key) break;
+      keys[i] = keys[parent];
+      if(times != null) times[i] = times[parent];
+      i = parent;
+    }
+    keys[i] = key;
+    if(times != null) times[i] = time;
+  }
+
+  /**
+   * Helper method: Replaces the array of keys by a longer copy, at least doubling its length up
+   * to the capacity.
+   *
+   * @param minLength the length the array needs, at most the capacity
+   */
+  private void grow(int minLength) {
+    int length = (int) Math.min(capacity, Math.max(2L * keys.length, 8));
+    keys = Arrays.copyOf(keys, Math.max(length, minLength));
+    if(times != null) times = Arrays.copyOf(times, keys.length);
+  }
+
+  /**
+   * Helper method: Allocates the submission times of the keys, when the first Application with a
+   * submission time is added. The keys already in the heap have none.
+   */
+  private void allocateTimes() {
+    times = new long[keys.length];
+    Arrays.fill(times, Application.NO_TIME);
+  }
+
+  /**
+   * Helper method: Returns the submission time of the key at an index of the heap.
+   *
+   * @param index an index of the heap
+   * @return the submission time of the key, or Application.NO_TIME
+   */
+  private long timeAt(int index) {
+    return times == null ? Application.NO_TIME : times[index];
+  }
+
+  /**
+   * Helper method: Interns the identity of an Application, taking a reference to it, and returns
+   * its heap key.
+   *
+   * @param o an Application
+   * @return the score of o in the high 32 bits, and the handle of its identity in the low 32 bits
+   */
+  private long key(Application o) {
+    return ((long) o.getScore() << 32) | table.intern(o.getName(), o.getEmail());
+  }
+
+  /**
+   * Helper method: Creates the Application of the key at an index of the heap from the table.
+   *
+   * @param index an index of the heap
+   * @return a new Application
+   */
+  private Application toApplication(int index) {
+    long key = keys[index];
+    return table.toApplication((int) key, (int) (key >>> 32), timeAt(index));
+  }
+
+}
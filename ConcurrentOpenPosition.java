@@ -0,0 +1,323 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe open position, which can receive applications from many threads at once. It wraps
+ * an OpenPosition whose every access is guarded by a lock, and publishes the cutoff score of that
+ * position in a volatile field. Most submissions to a full position have a score below the cutoff:
+ * those are rejected by reading the published cutoff, without taking the lock. Only submissions
+ * which may be admitted take the lock to update the priority queue.
+ */
+public class ConcurrentOpenPosition {
+  private final OpenPosition position;  // the position guarded by lock
+  private final ReentrantLock lock;     // lock guarding every access to position
+  private volatile int cutoff;          // the cutoff score of position, published after updates
+  private volatile OpenPositionMetrics metrics; // metrics of position, read by the fast path
+
+  /**
+   * Creates a new thread-safe open position with the given capacity
+   *
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public ConcurrentOpenPosition(String positionName, int capacity) {
+    this(new OpenPosition(positionName, capacity));
+  }
+
+  /**
+   * Creates a new thread-safe open position with the given capacity, which keeps its applications
+   * in the given priority queue.
+   *
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @param applications an empty priority queue able to hold at least capacity applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if the given queue is null or not empty
+   * @see OpenPosition#OpenPosition(String, int, PriorityQueueADT)
+   */
+  public ConcurrentOpenPosition(String positionName, int capacity,
+                                PriorityQueueADT<Application> applications) {
+    this(new OpenPosition(positionName, capacity, applications));
+  }
+
+  /**
+   * Creates a new thread-safe open position guarding a newly created position, which must not be
+   * reachable from anywhere else.
+   *
+   * @param position the position to guard
+   */
+  private ConcurrentOpenPosition(OpenPosition position) {
+    this.position = position;
+    this.lock = new ReentrantLock();
+    this.cutoff = position.cutoffScore();
+  }
+
+  /**
+   * Gets the position name
+   *
+   * @return the position name
+   */
+  public String getPositionName() { return position.getPositionName(); }
+
+  /**
+   * Sets the metrics recording the activity of this position, replacing the previous ones. The
+   * lock-free rejections are counted in the metrics as well.
+   *
+   * @param metrics the metrics to record into, or null to stop recording
+   * @see OpenPosition#setMetrics(OpenPositionMetrics)
+   */
+  public void setMetrics(OpenPositionMetrics metrics) {
+    lock.lock();
+    try {
+      position.setMetrics(metrics);
+      this.metrics = metrics;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the metrics recording the activity of this position
+   *
+   * @return the metrics of this position, or null if it has none
+   */
+  public OpenPositionMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Tries to add the given Application to this position. Applications whose score does not exceed
+   * the published cutoff are rejected without locking.
+   *
+   * @param application the Application to add
+   * @return Whether the given Application was added successfully
+   * @throws NullPointerException if the given Application is null
+   */
+  public boolean add(Application application) {
+    //  fast path: the cutoff only changes under the lock, so a score below it is a reject
+    if(application.getScore() <= cutoff) return reject();
+
+    lock.lock();
+    try {
+      boolean added = position.add(application);
+      cutoff = position.cutoffScore();
+      return added;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Tries to add an Application with the given name, email and score to this position. Scores
+   * which do not exceed the published cutoff are rejected without locking or allocating, and the
+   * Application of the others is created before taking the lock.
+   *
+   * @param name  name of the applicant
+   * @param email email of the applicant
+   * @param score score of the applicant
+   * @return Whether the Application was added successfully
+   * @throws IllegalArgumentException if the submission passes the cutoff, but is not a valid
+   *                                  Application
+   * @see OpenPosition#add(String, String, int)
+   */
+  public boolean add(String name, String email, int score) {
+    if(score <= cutoff) return reject();
+    return add(new Application(name, email, score));
+  }
+
+  /**
+   * Helper method: Counts a lock-free rejection in the metrics, if any.
+   *
+   * @return false
+   */
+  private boolean reject() {
+    OpenPositionMetrics metrics = this.metrics;
+    if(metrics != null) metrics.recordRejection();
+    return false;
+  }
+
+  /**
+   * Checks whether an Application with the given score would pass the published cutoff of this
+   * position. This never blocks; a concurrent admission may still raise the cutoff above it.
+   *
+   * @param score a score
+   * @return Whether an Application with the given score would be added to this position now
+   */
+  public boolean wouldAccept(int score) {
+    return score > cutoff;
+  }
+
+  /**
+   * Removes the Application with the given email from this position. The applications must be
+   * indexed by email.
+   *
+   * @param email the email of the Application to remove
+   * @return Whether an Application was removed
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   * @see OpenPosition#withdraw(String)
+   */
+  public boolean withdraw(String email) {
+    lock.lock();
+    try {
+      boolean removed = position.withdraw(email);
+      cutoff = position.cutoffScore();
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Changes the score of the Application with the given email. The applications must be indexed
+   * by email.
+   *
+   * @param email    the email of the Application to update
+   * @param newScore the new score of the Application, in the 0 .. 100 range
+   * @return Whether an Application was updated
+   * @throws IllegalArgumentException      if newScore is not in the 0 .. 100 range
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   * @see OpenPosition#updateScore(String, int)
+   */
+  public boolean updateScore(String email, int newScore) {
+    lock.lock();
+    try {
+      boolean updated = position.updateScore(email, newScore);
+      cutoff = position.cutoffScore();
+      return updated;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the score a new Application must exceed to be added to this position. This only reads
+   * the published cutoff and never blocks.
+   *
+   * @return The score a new Application must exceed to be added to this position
+   * @see OpenPosition#cutoffScore()
+   */
+  public int cutoffScore() {
+    return cutoff;
+  }
+
+  /**
+   * Returns the list of Applications in this position.
+   *
+   * @return The list of Applications in this position, in increasing order of the scores.
+   * @see OpenPosition#getApplications()
+   */
+  public String getApplications() {
+    lock.lock();
+    try {
+      return position.getApplications();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the total score of Applications in this position.
+   *
+   * @return The total score of Applications in this position.
+   */
+  public int getTotalScore() {
+    lock.lock();
+    try {
+      return position.getTotalScore();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of Applications in this position.
+   *
+   * @return The number of Applications in this position.
+   */
+  public int getApplicationCount() {
+    lock.lock();
+    try {
+      return position.getApplicationCount();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the lowest score of the Applications in this position.
+   *
+   * @return The lowest score of the Applications in this position.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getLowestScore() {
+    lock.lock();
+    try {
+      return position.getLowestScore();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the highest score of the Applications in this position.
+   *
+   * @return The highest score of the Applications in this position.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getHighestScore() {
+    lock.lock();
+    try {
+      return position.getHighestScore();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the k highest-scored Applications in this position.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) highest-scored Applications, in decreasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   * @see OpenPosition#topK(int)
+   */
+  public List<Application> topK(int k) {
+    lock.lock();
+    try {
+      return position.topK(k);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the k lowest-scored Applications in this position.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) lowest-scored Applications, in increasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   * @see OpenPosition#bottomK(int)
+   */
+  public List<Application> bottomK(int k) {
+    lock.lock();
+    try {
+      return position.bottomK(k);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+}
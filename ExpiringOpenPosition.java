@@ -0,0 +1,228 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * An open position which only considers the applications submitted during the last time to live,
+ * e.g. the last 30 days. Every application expires when its time to live has elapsed since its
+ * submission time, and is then withdrawn from the position, which makes room for lower-scored
+ * applications and lowers the cutoff.
+ *
+ * The applications are indexed by email, so that an expired application is withdrawn in O(log N)
+ * time; like in any indexed position, a resubmission replaces the previous application of its
+ * email. The expiry times are kept in a TimerWheel with ticks of 1/1024 of the time to live, and
+ * every method first withdraws the applications which expired since the previous call, without
+ * ever scanning the whole position. An application which was evicted or replaced before its
+ * expiry is ignored when its expiry time comes.
+ */
+public class ExpiringOpenPosition {
+  private static final int TICKS_PER_TTL = 1024; // resolution of the expiry times
+
+  private final OpenPosition position;                 // the position of the live applications
+  private final IndexedApplicationQueue applications;  // the priority queue of position
+  private final long timeToLive;                       // time to live of the applications, in ms
+  private final LongSupplier clock;                    // current time, in ms
+  private final TimerWheel<Application> expiries;      // expiry times of the admitted applications
+  private long expired;                                // number of expired applications
+
+  /**
+   * Creates a new open position with the given capacity, whose applications expire after the
+   * given time to live, measured by the system clock.
+   *
+   * @param positionName     the name of this position
+   * @param capacity         the number of vacancies of this position
+   * @param timeToLiveMillis the time to live of the applications, in milliseconds
+   * @throws IllegalArgumentException with a descriptive error message if the capacity or the time
+   *                                  to live is not a positive integer
+   */
+  public ExpiringOpenPosition(String positionName, int capacity, long timeToLiveMillis) {
+    this(positionName, capacity, timeToLiveMillis, System::currentTimeMillis);
+  }
+
+  /**
+   * Creates a new open position with the given capacity, whose applications expire after the
+   * given time to live, measured by the given clock.
+   *
+   * @param positionName     the name of this position
+   * @param capacity         the number of vacancies of this position
+   * @param timeToLiveMillis the time to live of the applications, in milliseconds
+   * @param clock            returns the current time in milliseconds
+   * @throws IllegalArgumentException with a descriptive error message if the capacity or the time
+   *                                  to live is not a positive integer
+   * @throws NullPointerException     if clock is null
+   */
+  public ExpiringOpenPosition(String positionName, int capacity, long timeToLiveMillis,
+                              LongSupplier clock) {
+    if(timeToLiveMillis <= 0) throw new IllegalArgumentException("Invalid time to live");
+    if(clock == null) throw new NullPointerException("Null clock");
+    if(capacity <= 0) throw new IllegalArgumentException("Invalid Capacity");
+
+    this.applications = new IndexedApplicationQueue(capacity);
+    this.position = new OpenPosition(positionName, capacity, applications);
+    this.timeToLive = timeToLiveMillis;
+    this.clock = clock;
+    this.expiries = new TimerWheel<>(Math.max(1, timeToLiveMillis / TICKS_PER_TTL),
+        clock.getAsLong());
+  }
+
+  /**
+   * Gets the position name
+   *
+   * @return the position name
+   */
+  public String getPositionName() { return position.getPositionName(); }
+
+  /**
+   * Gets the time to live of the applications of this position
+   *
+   * @return the time to live of the applications, in milliseconds
+   */
+  public long getTimeToLive() { return timeToLive; }
+
+  /**
+   * Tries to add the given Application to this position. An Application without a submission time
+   * is considered submitted now; an Application which has already expired is rejected.
+   *
+   * @param application the Application to add
+   * @return Whether the given Application was added successfully
+   * @throws NullPointerException if the given Application is null
+   * @see OpenPosition#add(Application)
+   */
+  public boolean add(Application application) {
+    long now = expire();
+    if(application.getSubmittedAt() == Application.NO_TIME){
+      application = new Application(application.getName(), application.getEmail(),
+          application.getScore(), now);
+    } else if(expiresAt(application) <= now){
+      return false;
+    }
+
+    if(!position.add(application)) return false;
+    expiries.schedule(application, expiresAt(application));
+    return true;
+  }
+
+  /**
+   * Removes the Application with the given email from this position.
+   *
+   * @param email the email of the Application to remove
+   * @return Whether an Application was removed
+   */
+  public boolean withdraw(String email) {
+    expire();
+    return position.withdraw(email);
+  }
+
+  /**
+   * Withdraws the applications whose time to live has elapsed, in O(log N) time each.
+   *
+   * @return the current time, in milliseconds
+   */
+  public long expire() {
+    long now = clock.getAsLong();
+    expiries.advance(now, application -> {
+      //  the application of its email may have been evicted, or replaced by a later one
+      Application current = applications.get(application.getEmail());
+      if(current != null && expiresAt(current) <= now){
+        position.withdraw(current.getEmail());
+        expired++;
+      }
+    });
+    return now;
+  }
+
+  /**
+   * Returns the number of applications which expired from this position
+   *
+   * @return the number of expired applications
+   */
+  public long getExpiredCount() {
+    expire();
+    return expired;
+  }
+
+  /**
+   * Returns the score a new Application must exceed to be added to this position, once the
+   * expired applications are withdrawn.
+   *
+   * @return The score a new Application must exceed to be added to this position
+   * @see OpenPosition#cutoffScore()
+   */
+  public int cutoffScore() {
+    expire();
+    return position.cutoffScore();
+  }
+
+  /**
+   * Returns the list of live Applications in this position.
+   *
+   * @return The list of Applications in this position, in increasing order of the scores.
+   * @see OpenPosition#getApplications()
+   */
+  public String getApplications() {
+    expire();
+    return position.getApplications();
+  }
+
+  /**
+   * Returns the total score of the live Applications in this position.
+   *
+   * @return The total score of Applications in this position.
+   */
+  public int getTotalScore() {
+    expire();
+    return position.getTotalScore();
+  }
+
+  /**
+   * Returns the number of live Applications in this position.
+   *
+   * @return The number of Applications in this position.
+   */
+  public int getApplicationCount() {
+    expire();
+    return position.getApplicationCount();
+  }
+
+  /**
+   * Returns the lowest score of the live Applications in this position.
+   *
+   * @return The lowest score of the Applications in this position.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getLowestScore() {
+    expire();
+    return position.getLowestScore();
+  }
+
+  /**
+   * Returns the k highest-scored live Applications in this position.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) highest-scored Applications, in decreasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   * @see OpenPosition#topK(int)
+   */
+  public List<Application> topK(int k) {
+    expire();
+    return position.topK(k);
+  }
+
+  /**
+   * Helper method: Returns the time at which an Application with a submission time expires.
+   */
+  private long expiresAt(Application application) {
+    return application.getSubmittedAt() + timeToLive;
+  }
+
+}
@@ -0,0 +1,146 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * Iterates over the Applications of an array d-ary min-heap in order from the lowest to the
+ * highest, without copying or modifying the heap. It is shared by the iterators of the priority
+ * queues, which only differ in how they compare two heap indices and how they return the
+ * Application at a heap index.
+ *
+ * The iterator keeps a small frontier min-heap of the heap indices whose parent was already
+ * returned: the next Application is always at the root of the frontier, and returning it adds its
+ * children to the frontier. Returning the first k Applications therefore costs O(k log k),
+ * whatever the size of the heap.
+ */
+class IndexFrontier implements Iterator<Application> {
+  private final int size;                           // number of entries of the heap
+  private final int arity;                          // number of children of each heap node
+  private final IntSupplier modCount;               // modification count of the heap
+  private final IntBinaryOperator comparator;       // compares the keys of two heap indices
+  private final IntFunction<Application> applications; // Application at a heap index
+  private final int expectedModCount;               // modification count when iteration started
+  private int[] frontier;                           // min-heap of the indices to return next
+  private int frontierSize;                         // number of indices in the frontier
+
+  /**
+   * Creates a new IndexFrontier over the first size entries of a heap.
+   *
+   * @param size         number of entries of the heap
+   * @param arity        number of children of each heap node
+   * @param modCount     returns the modification count of the heap
+   * @param comparator   compares the keys at two heap indices, like a Comparator
+   * @param applications returns the Application at a heap index
+   */
+  IndexFrontier(int size, int arity, IntSupplier modCount, IntBinaryOperator comparator,
+      IntFunction<Application> applications) {
+    this.size = size;
+    this.arity = arity;
+    this.modCount = modCount;
+    this.comparator = comparator;
+    this.applications = applications;
+    this.expectedModCount = modCount.getAsInt();
+
+    // the root of the heap is the first application to return
+    frontier = new int[8];
+    frontierSize = 0;
+    if(size > 0) push(0);
+  }
+
+  /**
+   * Returns true if the iteration has more elements.
+   *
+   * @return {@code true} if the iteration has more elements
+   */
+  @Override
+  public boolean hasNext() {
+    return frontierSize > 0;
+  }
+
+  /**
+   * Returns the next element in the iteration.
+   *
+   * @return the next element in the iteration.
+   * @throws NoSuchElementException with a descriptive error message if the iteration has no more
+   *                                elements
+   * @throws ConcurrentModificationException if the heap was modified since this iterator was
+   *                                         created
+   */
+  @Override
+  public Application next() {
+    if (modCount.getAsInt() != expectedModCount) throw new ConcurrentModificationException();
+    if (!hasNext())
+      throw new NoSuchElementException("No more elements in this iteration");
+
+    // take the lowest index of the frontier and replace it with its children
+    int index = pop();
+    int first = arity * index + 1;
+    int last = (int) Math.min((long) first + arity, size);
+    for(int child = first; child < last; child++){
+      push(child);
+    }
+
+    return applications.apply(index);
+  }
+
+  /**
+   * Helper method: Adds a heap index to the frontier, percolating it up by key.
+   *
+   * @param index heap index to add
+   */
+  private void push(int index) {
+    if(frontierSize == frontier.length) {
+      int[] larger = new int[frontier.length * 2];
+      System.arraycopy(frontier, 0, larger, 0, frontierSize);
+      frontier = larger;
+    }
+
+    int hole = frontierSize++;
+    while(hole > 0) {
+      int parent = (hole - 1) / 2;
+      if(comparator.applyAsInt(frontier[parent], index) <= 0) break;
+      frontier[hole] = frontier[parent];
+      hole = parent;
+    }
+    frontier[hole] = index;
+  }
+
+  /**
+   * Helper method: Removes and returns the heap index of the lowest key in the frontier.
+   *
+   * @return the heap index of the next Application to return
+   */
+  private int pop() {
+    int returnIndex = frontier[0];
+    int last = frontier[--frontierSize];
+
+    // percolate the last index down from the root of the frontier
+    int hole = 0;
+    while(true) {
+      int child = 2 * hole + 1;
+      if(child >= frontierSize) break;
+      if(child + 1 < frontierSize
+          && comparator.applyAsInt(frontier[child + 1], frontier[child]) < 0) child++;
+      if(comparator.applyAsInt(last, frontier[child]) <= 0) break;
+      frontier[hole] = frontier[child];
+      hole = child;
+    }
+    frontier[hole] = last;
+
+    return returnIndex;
+  }
+
+}
@@ -0,0 +1,343 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-based heap implementation of a priority queue containing Applications, which also indexes
+ * its Applications by email: it holds at most one Application per email, and can find, remove or
+ * replace the Application of an email in O(log N) time.
+ *
+ * Each Application is held by a node which records its current index in the heap, and a hash map
+ * gives the node of each email. Percolating only updates the index of the moved nodes, so the map
+ * is only read or written when an Application is added, removed or replaced.
+ */
+public class IndexedApplicationQueue implements PriorityQueueADT<Application> {
+  private Node[] queue;                // array min-heap of the nodes of the applications
+  private HashMap<String, Node> nodes; // node of the application of each email
+  private int size;                    // size of this priority queue
+  private int modCount;                // number of structural modifications, checked by iterators
+
+  /**
+   * The place of an Application in the heap
+   */
+  private static class Node {
+    private Application application; // the application held
+    private int index;               // index of this node in the heap array
+
+    private Node(Application application) {
+      this.application = application;
+    }
+  }
+
+  /**
+   * Creates a new empty IndexedApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this IndexedApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public IndexedApplicationQueue(int capacity) {
+    //  verify the capacity
+    if(capacity <= 0) throw new IllegalArgumentException("Invalid capacity");
+
+    //  initialize fields appropriately
+    queue = new Node[capacity];
+    nodes = new HashMap<>(2 * capacity);
+    size = 0;
+  }
+
+  /**
+   * Checks whether this IndexedApplicationQueue is empty
+   *
+   * @return {@code true} if this IndexedApplicationQueue is empty
+   */
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the size of this IndexedApplicationQueue
+   *
+   * @return the size of this IndexedApplicationQueue
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether this IndexedApplicationQueue holds an Application with the given email
+   *
+   * @param email an email
+   * @return {@code true} if an Application of this queue has the given email
+   */
+  public boolean contains(String email) {
+    return nodes.containsKey(email);
+  }
+
+  /**
+   * Returns the Application of this IndexedApplicationQueue with the given email
+   *
+   * @param email an email
+   * @return the Application with the given email, or null if there is none
+   */
+  public Application get(String email) {
+    Node node = nodes.get(email);
+    return node == null ? null : node.application;
+  }
+
+  /**
+   * Adds the given Application to this IndexedApplicationQueue and percolates it up the heap.
+   *
+   * @param o Application to add to this IndexedApplicationQueue
+   * @throws NullPointerException     if the given Application is null
+   * @throws IllegalStateException    with a descriptive error message if this queue is full
+   * @throws IllegalArgumentException with a descriptive error message if this queue already holds
+   *                                  an Application with the same email
+   */
+  @Override
+  public void enqueue(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not full, and that the email is new
+    if(size == queue.length) throw new IllegalStateException("IndexedApplicationQueue is full");
+    if(nodes.containsKey(o.getEmail())) throw new IllegalArgumentException("Duplicate email");
+
+    //  index the application, then percolate it up from the bottom of the heap
+    modCount++;
+    Node node = new Node(o);
+    nodes.put(o.getEmail(), node);
+    percolateUp(size++, node);
+  }
+
+  /**
+   * Removes and returns the Application with the lowest score, at the root of the heap.
+   *
+   * @return the Application in this IndexedApplicationQueue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty IndexedApplicationQueue");
+    return removeAt(0);
+  }
+
+  /**
+   * Replaces the Application with the lowest score by the given Application, and percolates it
+   * down from the root.
+   *
+   * @param o Application to add to this IndexedApplicationQueue
+   * @return the removed Application, having the smallest score
+   * @throws NullPointerException     if the given Application is null
+   * @throws NoSuchElementException   with a descriptive error message if this queue is empty
+   * @throws IllegalArgumentException with a descriptive error message if another Application of
+   *                                  this queue than the lowest-scored one has the same email
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not empty, and that the email is new or the root's
+    if(isEmpty()) throw new NoSuchElementException("Empty IndexedApplicationQueue");
+    Node root = queue[0];
+    Application returnApp = root.application;
+    boolean sameEmail = returnApp.getEmail().equals(o.getEmail());
+    if(!sameEmail && nodes.containsKey(o.getEmail()))
+      throw new IllegalArgumentException("Duplicate email");
+
+    //  the root node now holds the new application
+    modCount++;
+    if(!sameEmail){
+      nodes.remove(returnApp.getEmail());
+      nodes.put(o.getEmail(), root);
+    }
+    root.application = o;
+    percolateDown(0, root);
+    return returnApp;
+  }
+
+  /**
+   * Returns the Application with the lowest score, at the root of the heap.
+   *
+   * @return the Application in this IndexedApplicationQueue with the smallest score
+   * @throws NoSuchElementException if this IndexedApplicationQueue is empty
+   */
+  @Override
+  public Application peek() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Queue is empty");
+    return queue[0].application;
+  }
+
+  /**
+   * Removes the Application with the given email, in O(log N) time.
+   *
+   * @param email the email of the Application to remove
+   * @return the removed Application, or null if no Application has the given email
+   */
+  public Application remove(String email) {
+    Node node = nodes.get(email);
+    if(node == null) return null;
+    return removeAt(node.index);
+  }
+
+  /**
+   * Replaces the Application having the same email as the given Application by it, and moves it
+   * up or down the heap according to its new score, in O(log N) time.
+   *
+   * @param o the new Application of its email
+   * @return the replaced Application, or null if no Application has the email of o, in which case
+   *         this queue is left unchanged
+   * @throws NullPointerException if the given Application is null
+   */
+  public Application replace(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    Node node = nodes.get(o.getEmail());
+    if(node == null) return null;
+
+    modCount++;
+    Application returnApp = node.application;
+    node.application = o;
+    if(o.getScore() < returnApp.getScore()) percolateUp(node.index, node);
+    else percolateDown(node.index, node);
+    return returnApp;
+  }
+
+  /**
+   * Returns a String representing this IndexedApplicationQueue, where each element (application)
+   * of the queue is listed on a separate line, in order from the lowest score to the highest score.
+   *
+   * @return a String representing this IndexedApplicationQueue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator for this IndexedApplicationQueue which proceeds from the lowest-scored to
+   * the highest-scored Application in the queue. It walks the live heap with an IndexFrontier.
+   * Modifying the queue during the iteration makes the iterator fail.
+   *
+   * @return an Iterator for this IndexedApplicationQueue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return new IndexFrontier(size, 2, () -> modCount,
+        (a, b) -> Integer.compare(queue[a].application.getScore(),
+            queue[b].application.getScore()),
+        index -> queue[index].application);
+  }
+
+  /**
+   * Returns an Iterator over the Applications of this IndexedApplicationQueue in heap order, which
+   * is not sorted by score.
+   *
+   * @return an unordered Iterator for this IndexedApplicationQueue
+   */
+  @Override
+  public Iterator<Application> unorderedIterator() {
+    return new Iterator<Application>() {
+      private int index = 0;                      // index of the next node to return
+      private int expectedModCount = modCount;    // modCount of the queue when iteration started
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Application next() {
+        if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        if (!hasNext())
+          throw new NoSuchElementException("No more elements in this iteration");
+        return queue[index++].application;
+      }
+    };
+  }
+
+  /**
+   * Helper method: Removes the node at the given index of the heap, filling its place with the
+   * last node, which is then percolated up or down.
+   *
+   * @param i index of the node to remove
+   * @return the Application of the removed node
+   */
+  private Application removeAt(int i) {
+    modCount++;
+    Node node = queue[i];
+    nodes.remove(node.application.getEmail());
+
+    Node last = queue[--size];
+    queue[size] = null;
+    if(i < size){
+      if(last.application.getScore() < node.application.getScore()) percolateUp(i, last);
+      else percolateDown(i, last);
+    }
+    return node.application;
+  }
+
+  /**
+   * Helper method: Percolates the given node down the heap, starting from the hole at index i.
+   *
+   * @param i    index of the hole the node starts from
+   * @param node node to place in the heap
+   */
+  private void percolateDown(int i, Node node) {
+    int score = node.application.getScore();
+    int child;
+    while((child = 2 * i + 1) < size){
+      if(child + 1 < size && queue[child + 1].application.getScore()
+          < queue[child].application.getScore()) child++;
+      if(score <= queue[child].application.getScore()) break;
+      queue[i] = queue[child];
+      queue[i].index = i;
+      i = child;
+    }
+    queue[i] = node;
+    node.index = i;
+  }
+
+  /**
+   * Helper method: Percolates the given node up the heap, starting from the hole at index i.
+   *
+   * @param i    index of the hole the node starts from
+   * @param node node to place in the heap
+   */
+  private void percolateUp(int i, Node node) {
+    int score = node.application.getScore();
+    while(i > 0){
+      int parent = (i - 1) / 2;
+      if(queue[parent].application.getScore() <= score) break;
+      queue[i] = queue[parent];
+      queue[i].index = i;
+      i = parent;
+    }
+    queue[i] = node;
+    node.index = i;
+  }
+
+}
@@ -0,0 +1,272 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * An in-process intake service in front of open positions, which never makes the submitting
+ * threads wait for a lock. Every position has a bounded mailbox of submissions and a drain loop,
+ * the only code which ever touches the position: the submitting threads only enqueue their
+ * submission and get a CompletableFuture of its result, completed by the drain loop.
+ *
+ * The drain loop of a position runs on the given Executor while its mailbox is not empty, at most
+ * once at a time, and yields the executor thread after a batch of submissions so that the drain
+ * loops of busy positions take turns. On JDK 21 or later, the submitting threads are best virtual
+ * threads, e.g. from Executors.newVirtualThreadPerTaskExecutor(), so that a BLOCK policy parks
+ * them cheaply; the drain loops can run on any executor.
+ *
+ * Submissions whose score does not exceed the cutoff published by the drain loop are rejected
+ * right away, without being enqueued. When a mailbox is full, the Overflow policy of the service
+ * either fails the submission right away (REJECT), or blocks the submitting thread until there is
+ * room (BLOCK).
+ *
+ * Futures are completed on the drain loop, so the dependent actions of a future should use the
+ * async methods of CompletableFuture rather than run on, and delay, the drain loop.
+ */
+public class IntakeService implements AutoCloseable {
+  // number of tasks a drain loop runs before yielding the executor thread
+  private static final int DRAIN_BATCH = 256;
+
+  /**
+   * The policies for the submissions to a full mailbox
+   */
+  public enum Overflow {
+    REJECT, // fail the submission with a RejectedExecutionException
+    BLOCK   // block the submitting thread until the mailbox has room
+  }
+
+  private final Executor executor;                          // runs the drain loops
+  private final int mailboxCapacity;                        // capacity of each mailbox
+  private final Overflow overflow;                          // policy for full mailboxes
+  private final ConcurrentHashMap<String, Mailbox> mailboxes; // mailbox of each position, by id
+  private volatile boolean closed;                          // whether submissions are refused
+
+  /**
+   * A task queued for the drain loop of a position
+   */
+  private static class Task<T> {
+    private final Function<OpenPosition, T> action;   // the action to run on the position
+    private final CompletableFuture<T> result;        // completed with the result of the action
+
+    private Task(Function<OpenPosition, T> action) {
+      this.action = action;
+      this.result = new CompletableFuture<>();
+    }
+
+    // runs the action on the position and completes the future with its result or exception;
+    // an Error is rethrown once the future is completed
+    private void run(OpenPosition position) {
+      try {
+        result.complete(action.apply(position));
+      } catch (Throwable e){
+        result.completeExceptionally(e);
+        if(e instanceof Error) throw (Error) e;
+      }
+    }
+  }
+
+  /**
+   * The mailbox and drain loop of a position
+   */
+  private class Mailbox implements Runnable {
+    private final OpenPosition position;             // only accessed by the drain loop
+    private final BlockingQueue<Task<?>> tasks;      // the submissions to the position
+    private final AtomicBoolean scheduled;           // whether the drain loop is running or queued
+    private volatile int cutoff;                     // cutoff score published by the drain loop
+
+    private Mailbox(OpenPosition position) {
+      this.position = position;
+      this.tasks = new ArrayBlockingQueue<>(mailboxCapacity);
+      this.scheduled = new AtomicBoolean();
+      this.cutoff = position.cutoffScore();
+    }
+
+    // the drain loop: runs a batch of tasks, then runs again later if more tasks arrived, even
+    // if a task threw an Error
+    @Override
+    public void run() {
+      try {
+        Task<?> task;
+        for(int i = 0; i < DRAIN_BATCH && (task = tasks.poll()) != null; i++){
+          try {
+            task.run(position);
+          } finally {
+            cutoff = position.cutoffScore();
+          }
+        }
+      } finally {
+        scheduled.set(false);
+        if(!tasks.isEmpty()) schedule();
+      }
+    }
+
+    // queues a task according to the overflow policy, and makes sure the drain loop will run
+    private <T> CompletableFuture<T> enqueue(Function<OpenPosition, T> action) {
+      if(closed)
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Service closed"));
+
+      Task<T> task = new Task<>(action);
+      if(overflow == Overflow.REJECT){
+        if(!tasks.offer(task))
+          return CompletableFuture.failedFuture(new RejectedExecutionException("Mailbox full"));
+      } else {
+        try {
+          tasks.put(task);
+        } catch (InterruptedException e){
+          Thread.currentThread().interrupt();
+          return CompletableFuture.failedFuture(new RejectedExecutionException("Interrupted", e));
+        }
+      }
+      schedule();
+      return task.result;
+    }
+
+    // starts the drain loop unless it is running or queued already
+    private void schedule() {
+      if(!scheduled.compareAndSet(false, true)) return;
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e){
+        //  the executor no longer runs anything: fail the waiting tasks rather than leave them
+        scheduled.set(false);
+        Task<?> task;
+        while((task = tasks.poll()) != null) task.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Creates a new intake service whose drain loops run on the given executor
+   *
+   * @param executor        the executor running the drain loops of the positions
+   * @param mailboxCapacity the number of submissions each position can have waiting
+   * @param overflow        the policy for the submissions to a full mailbox
+   * @throws NullPointerException     if executor or overflow is null
+   * @throws IllegalArgumentException with a descriptive error message if the mailbox capacity is
+   *                                  not a positive integer
+   */
+  public IntakeService(Executor executor, int mailboxCapacity, Overflow overflow) {
+    if(executor == null) throw new NullPointerException("Null Executor");
+    if(overflow == null) throw new NullPointerException("Null Overflow");
+    if(mailboxCapacity <= 0) throw new IllegalArgumentException("Invalid mailbox capacity");
+
+    this.executor = executor;
+    this.mailboxCapacity = mailboxCapacity;
+    this.overflow = overflow;
+    this.mailboxes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Opens a new position with the given id and capacity in this service.
+   *
+   * @param positionId the id of the position, also its name
+   * @param capacity   the number of vacancies of the position
+   * @throws NullPointerException     if positionId is null
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if a position has the same id
+   */
+  public void open(String positionId, int capacity) {
+    open(positionId, new OpenPosition(positionId, capacity));
+  }
+
+  /**
+   * Opens the given position under the given id in this service. From then on, the position is
+   * owned by its drain loop: it must only be accessed through query().
+   *
+   * @param positionId the id of the position
+   * @param position   the position, which must not be accessed from anywhere else
+   * @throws NullPointerException     if positionId or position is null
+   * @throws IllegalArgumentException with a descriptive error message if a position has the same
+   *                                  id
+   */
+  public void open(String positionId, OpenPosition position) {
+    if(position == null) throw new NullPointerException("Null OpenPosition");
+    if(mailboxes.putIfAbsent(positionId, new Mailbox(position)) != null)
+      throw new IllegalArgumentException("Duplicate position " + positionId);
+  }
+
+  /**
+   * Submits the given Application to the position with the given id. Applications whose score
+   * does not exceed the published cutoff of the position are rejected right away.
+   *
+   * @param positionId  the id of the position
+   * @param application the Application to submit
+   * @return a future completed with whether the Application was added to the position, or
+   *         failed with a RejectedExecutionException if the mailbox of the position was full
+   *         under the REJECT policy, or if this service is closed
+   * @throws NullPointerException   if the application is null
+   * @throws NoSuchElementException if the position id is not in this service
+   */
+  public CompletableFuture<Boolean> submit(String positionId, Application application) {
+    if(application == null) throw new NullPointerException("Null Application");
+    Mailbox mailbox = mailbox(positionId);
+    if(application.getScore() <= mailbox.cutoff) return CompletableFuture.completedFuture(false);
+    return mailbox.enqueue(position -> position.add(application));
+  }
+
+  /**
+   * Runs the given action on the position with the given id, in turn with its submissions. This
+   * is the only way to read or change a position once it is open in this service.
+   *
+   * @param positionId the id of the position
+   * @param action     the action to run on the position, which must not keep it
+   * @return a future completed with the result of the action, or failed with its exception, or
+   *         with a RejectedExecutionException as for submit()
+   * @throws NullPointerException   if the action is null
+   * @throws NoSuchElementException if the position id is not in this service
+   */
+  public <T> CompletableFuture<T> query(String positionId, Function<OpenPosition, T> action) {
+    if(action == null) throw new NullPointerException("Null action");
+    return mailbox(positionId).enqueue(action);
+  }
+
+  /**
+   * Returns the cutoff score of the position with the given id, as published by its drain loop
+   * after its last change. This never blocks.
+   *
+   * @param positionId the id of the position
+   * @return The score a new Application must exceed to be added to the position
+   * @throws NoSuchElementException if the position id is not in this service
+   * @see OpenPosition#cutoffScore()
+   */
+  public int cutoffScore(String positionId) {
+    return mailbox(positionId).cutoff;
+  }
+
+  /**
+   * Refuses the submissions and queries from now on. Those already queued still run.
+   */
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Helper method: Looks up the mailbox of the position with the given id.
+   *
+   * @param positionId the id of the position
+   * @return the mailbox of the position
+   * @throws NoSuchElementException if the position id is not in this service
+   */
+  private Mailbox mailbox(String positionId) {
+    Mailbox mailbox = mailboxes.get(positionId);
+    if(mailbox == null) throw new NoSuchElementException("No position " + positionId);
+    return mailbox;
+  }
+
+}
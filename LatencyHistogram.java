@@ -0,0 +1,145 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds, which many threads can record into at once. Like
+ * HdrHistogram, it splits every power of two into linear sub-buckets, here 8 of them: recording a
+ * value only increments the count of its bucket, found with a few bit operations, and the
+ * percentiles are read with a relative error of at most 12.5%. The whole range of long values
+ * fits in 488 buckets, so the histogram never needs resizing nor a highest trackable value.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;                    // log2 of the sub-buckets
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;     // sub-buckets per power of two
+  private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS; // number of buckets
+
+  private final AtomicLongArray counts; // number of values recorded in each bucket
+  private final LongAdder total;        // sum of the recorded values
+  private final LongAccumulator max;    // highest recorded value
+
+  /**
+   * Creates a new empty LatencyHistogram
+   */
+  public LatencyHistogram() {
+    counts = new AtomicLongArray(BUCKETS);
+    total = new LongAdder();
+    max = new LongAccumulator(Math::max, 0);
+  }
+
+  /**
+   * Records a latency in this histogram. Negative latencies are recorded as 0.
+   *
+   * @param nanos the latency to record, in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    counts.getAndIncrement(bucket(value));
+    total.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the number of latencies recorded in this histogram
+   *
+   * @return the number of recorded latencies
+   */
+  public long getCount() {
+    long count = 0;
+    for(int i = 0; i < BUCKETS; i++){
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the mean of the latencies recorded in this histogram
+   *
+   * @return the mean recorded latency in nanoseconds, or 0 if none was recorded
+   */
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) total.sum() / count;
+  }
+
+  /**
+   * Returns the highest latency recorded in this histogram
+   *
+   * @return the highest recorded latency in nanoseconds, or 0 if none was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the latency below or at which the given percentage of the recorded latencies are, as
+   * the highest value of its bucket: it exceeds the exact percentile by at most 12.5%.
+   *
+   * @param percentile a percentage in the 0 .. 100 range
+   * @return the latency at the given percentile in nanoseconds, or 0 if none was recorded
+   * @throws IllegalArgumentException if percentile is not in the 0 .. 100 range
+   */
+  public long getPercentile(double percentile) {
+    if(!(percentile >= 0 && percentile <= 100))
+      throw new IllegalArgumentException("Invalid percentile");
+
+    //  read the counts once, so that concurrent recording cannot make the rank unreachable
+    long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for(int i = 0; i < BUCKETS; i++){
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if(count == 0) return 0;
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    int i = 0;
+    while((seen += snapshot[i]) < rank) i++;
+    return Math.min(highestValue(i), getMax());
+  }
+
+  /**
+   * Returns a String representing this histogram: its count, mean, main percentiles and maximum
+   *
+   * @return a String representing this LatencyHistogram
+   */
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.0fns p50=%dns p99=%dns p99.9=%dns max=%dns", getCount(),
+        getMean(), getPercentile(50), getPercentile(99), getPercentile(99.9), getMax());
+  }
+
+  /**
+   * Helper method: Returns the bucket of a non-negative value. Values below SUB_BUCKETS have a
+   * bucket each; above, the bucket is given by the highest bit of the value and the
+   * SUB_BUCKET_BITS bits following it.
+   */
+  private static int bucket(long value) {
+    if(value < SUB_BUCKETS) return (int) value;
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Helper method: Returns the highest value of a bucket.
+   */
+  private static long highestValue(int bucket) {
+    if(bucket < SUB_BUCKETS) return bucket;
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+}
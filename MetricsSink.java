@@ -0,0 +1,45 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This interface models the destination of the metrics of open positions, such as an adapter to
+ * a monitoring system which scrapes them. OpenPositionMetrics.publish() calls it with the current
+ * value of every metric of a position.
+ */
+public interface MetricsSink {
+  /**
+   * Receives the current value of a counter, which only grows.
+   *
+   * @param position the name of the position the counter is about
+   * @param name     the name of the counter
+   * @param value    the current value of the counter
+   */
+  public void counter(String position, String name, long value);
+
+  /**
+   * Receives the current value of a gauge, which can go up and down.
+   *
+   * @param position the name of the position the gauge is about
+   * @param name     the name of the gauge
+   * @param value    the current value of the gauge
+   */
+  public void gauge(String position, String name, long value);
+
+  /**
+   * Receives a histogram of latencies. The histogram keeps recording after this call returns, so
+   * it should be read right away.
+   *
+   * @param position  the name of the position the latencies are about
+   * @param name      the name of the histogram
+   * @param histogram the histogram of latencies
+   */
+  public void histogram(String position, String name, LatencyHistogram histogram);
+}
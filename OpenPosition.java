@@ -8,6 +8,16 @@
 // Lecturer: Mouna Kacem
 //
 ///////////////////////////////////////////////////////////////////////////////
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An application handler of an open position using priority queue. Only saves a new Application
@@ -15,9 +25,68 @@
  * scores.
  */
 public class OpenPosition {
+  // score counts of the positions which never admitted an application, never written to, so
+  // that positions which stay empty do not allocate their own
+  private static final int[] NO_SCORE_COUNTS = new int[101];
+
   private String positionName;
-  private ApplicationQueue applications; // the priority queue of all applications
+  private PriorityQueueADT<Application> applications; // the priority queue of all applications
   private int capacity;                  // the number of vacancies
+  private IndexedApplicationQueue index; // applications, when indexed by email, or null
+
+  // running aggregates over the applications in the queue, updated on every admission/eviction
+  private int totalScore;                // the sum of the scores in the queue
+  private int highestScore;              // the highest score in the queue, if not empty
+  private int[] scoreCounts;             // the number of applications for each score 0 .. 100
+
+  private OpenPositionListener listener; // notified of the changes and rejections, may be null
+  private OpenPositionMetrics metrics;   // instrumentation of this position, or null
+
+  /**
+   * The listener of a position with several listeners, which notifies each of them in turn
+   */
+  private static class Listeners implements OpenPositionListener {
+    private final OpenPositionListener[] listeners; // the listeners, in the order they were added
+
+    private Listeners(OpenPositionListener[] listeners) {
+      this.listeners = listeners;
+    }
+
+    // returns the listener notifying the given ones: null, the only one, or their composition
+    private static OpenPositionListener of(List<OpenPositionListener> listeners) {
+      if(listeners.isEmpty()) return null;
+      if(listeners.size() == 1) return listeners.get(0);
+      return new Listeners(listeners.toArray(new OpenPositionListener[0]));
+    }
+
+    @Override
+    public void applicationAdmitted(OpenPosition position, Application application) {
+      for(OpenPositionListener listener : listeners){
+        listener.applicationAdmitted(position, application);
+      }
+    }
+
+    @Override
+    public void applicationEvicted(OpenPosition position, Application application) {
+      for(OpenPositionListener listener : listeners){
+        listener.applicationEvicted(position, application);
+      }
+    }
+
+    @Override
+    public void applicationRemoved(OpenPosition position, Application application) {
+      for(OpenPositionListener listener : listeners){
+        listener.applicationRemoved(position, application);
+      }
+    }
+
+    @Override
+    public void submissionRejected(OpenPosition position, String name, String email, int score) {
+      for(OpenPositionListener listener : listeners){
+        listener.submissionRejected(position, name, email, score);
+      }
+    }
+  }
 
   /**
    * Creates a new open position with the given capacity
@@ -35,6 +104,35 @@ public class OpenPosition {
     this.capacity = capacity;
 
     applications = new ApplicationQueue(capacity);
+    scoreCounts = NO_SCORE_COUNTS;
+  }
+
+  /**
+   * Creates a new open position with the given capacity, which keeps its applications in the
+   * given priority queue instead of the default ApplicationQueue. For instance, a
+   * BucketedApplicationQueue admits and evicts applications in constant time, and an
+   * IndexedApplicationQueue keeps a single application per email, which makes add() replace
+   * resubmissions and enables withdraw() and updateScore().
+   *
+   * @param capacity     the number of vacancies of this position
+   * @param applications an empty priority queue able to hold at least capacity applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if the given queue is null or not empty
+   */
+  public OpenPosition(String positionName, int capacity,
+                      PriorityQueueADT<Application> applications) {
+    //  verify the value of capacity and the provided queue
+    if(capacity <= 0 ) throw new IllegalArgumentException("Invalid Capacity");
+    if(applications == null || !applications.isEmpty())
+      throw new IllegalArgumentException("Invalid Applications Queue");
+
+    //  initialize the data fields appropriately
+    this.positionName = positionName;
+    this.capacity = capacity;
+    this.applications = applications;
+    if(applications instanceof IndexedApplicationQueue)
+      index = (IndexedApplicationQueue) applications;
+    scoreCounts = NO_SCORE_COUNTS;
   }
 
   /**
@@ -44,27 +142,364 @@ public class OpenPosition {
    */
   public String getPositionName() { return this.positionName; }
 
+  /**
+   * Gets the capacity of this position
+   *
+   * @return the number of vacancies of this position
+   */
+  public int getCapacity() { return this.capacity; }
+
+  /**
+   * Sets the listener notified whenever an Application is admitted to or evicted from this
+   * position, or a submission is rejected, replacing all the previous ones.
+   *
+   * @param listener the listener to notify, or null to stop notifying
+   */
+  public void setListener(OpenPositionListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Adds a listener notified whenever an Application is admitted to or evicted from this
+   * position, or a submission is rejected, after the listeners already added.
+   *
+   * @param listener the listener to notify
+   * @throws NullPointerException if listener is null
+   */
+  public void addListener(OpenPositionListener listener) {
+    if(listener == null) throw new NullPointerException("Null listener");
+    List<OpenPositionListener> listeners = new ArrayList<>(getListeners());
+    listeners.add(listener);
+    this.listener = Listeners.of(listeners);
+  }
+
+  /**
+   * Removes a listener added to this position, leaving the other listeners in place.
+   *
+   * @param listener the listener to stop notifying
+   * @return Whether the listener was notified by this position
+   */
+  public boolean removeListener(OpenPositionListener listener) {
+    List<OpenPositionListener> listeners = new ArrayList<>(getListeners());
+    if(!listeners.remove(listener)) return false;
+    this.listener = Listeners.of(listeners);
+    return true;
+  }
+
+  /**
+   * Gets the listeners notified of the changes of this position
+   *
+   * @return the listeners of this position, in the order they are notified
+   */
+  public List<OpenPositionListener> getListeners() {
+    if(listener == null) return List.of();
+    if(listener instanceof Listeners) return List.of(((Listeners) listener).listeners);
+    return List.of(listener);
+  }
+
+  /**
+   * Sets the metrics recording the activity of this position, replacing the previous ones.
+   *
+   * @param metrics the metrics to record into, or null to stop recording
+   */
+  public void setMetrics(OpenPositionMetrics metrics) {
+    this.metrics = metrics;
+    if(metrics != null) metrics.setCutoff(cutoffScore());
+  }
+
+  /**
+   * Gets the metrics recording the activity of this position
+   *
+   * @return the metrics of this position, or null if it has none
+   */
+  public OpenPositionMetrics getMetrics() {
+    return metrics;
+  }
+
   /**
    * Tries to add the given Application to the priority queue of this position.
    * return False when the new Application has a lower score than the lowest-scored Application
    * in the queue.
    *
+   * When the applications are indexed by email, an admitted Application whose email is already
+   * in the queue replaces the previous application of that email instead of evicting another
+   * one. A resubmission which is not admitted leaves the previous application in place.
+   *
    * @return Whether the given Application was added successfully
    */
   public boolean add(Application application) {
+    if(metrics == null) return offer(application);
+
+    boolean timed = metrics.sampleAdd();
+    long start = timed ? System.nanoTime() : 0;
+    boolean added = offer(application);
+    if(timed) metrics.recordAddLatency(System.nanoTime() - start);
+    metrics.recordAdd(added);
+    if(added) metrics.setCutoff(cutoffScore());
+    return added;
+  }
+
+  /**
+   * Helper method: Tries to add the given Application to the priority queue of this position.
+   *
+   * @param application the Application to add
+   * @return Whether the given Application was added successfully
+   * @see #add(Application)
+   */
+  private boolean offer(Application application) {
     //  if the queue is full, determine whether this application has a higher score than
     // the current lowest-scoring application; if not, do not add it
-    if(applications.size() == capacity) {
-      if(application.compareTo(applications.peek()) > 0){
-        applications.dequeue();
-        applications.enqueue(application);
+    if(applications.size() == capacity && application.compareTo(applications.peek()) <= 0){
+      recordRejection(application);
+      return false;
+    }
+
+    //  a resubmission takes the place of the previous application of its email
+    if(index != null){
+      Application previous = index.replace(application);
+      if(previous != null){
+        recordRemoval(previous);
+        recordAdmission(application);
         return true;
       }
-    } else if(applications.size() < capacity) {
+    }
+
+    if(applications.size() == capacity) {
+      recordEviction(applications.replaceTop(application));
+    } else {
       applications.enqueue(application);
-      return true;
     }
-    return false;
+    recordAdmission(application);
+    return true;
+  }
+
+  /**
+   * Tries to add an Application with the given name, email and score to this position. The score
+   * is compared with the cutoff first, so a rejected submission allocates nothing and is not
+   * validated: only the submissions which are admitted create their Application.
+   *
+   * @param name  name of the applicant
+   * @param email email of the applicant
+   * @param score score of the applicant
+   * @return Whether the Application was added successfully
+   * @throws IllegalArgumentException if the submission is admitted by its score, but is not a
+   *                                  valid Application
+   * @see #add(Application)
+   */
+  public boolean add(String name, String email, int score) {
+    if(!wouldAccept(score)){
+      if(metrics != null) metrics.recordRejection();
+      if(listener != null) listener.submissionRejected(this, name, email, score);
+      return false;
+    }
+    return add(new Application(name, email, score));
+  }
+
+  /**
+   * Checks whether an Application with the given score would be added to this position now,
+   * by comparing the score with the cutoff. The score is not validated.
+   *
+   * @param score a score
+   * @return Whether an Application with the given score would be added to this position
+   */
+  public boolean wouldAccept(int score) {
+    return score > cutoffScore();
+  }
+
+  /**
+   * Removes the Application with the given email from this position, in O(log N) time. The
+   * applications must be indexed by email.
+   *
+   * @param email the email of the Application to remove
+   * @return Whether an Application was removed
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   */
+  public boolean withdraw(String email) {
+    Application removed = index().remove(email);
+    if(removed == null) return false;
+    recordRemoval(removed);
+    if(metrics != null) metrics.setCutoff(cutoffScore());
+    return true;
+  }
+
+  /**
+   * Changes the score of the Application with the given email, in O(log N) time. The application
+   * keeps its place in this position whatever its new score, and its submission time. The
+   * applications must be indexed by email.
+   *
+   * @param email    the email of the Application to update
+   * @param newScore the new score of the Application, in the 0 .. 100 range
+   * @return Whether an Application was updated
+   * @throws IllegalArgumentException      if newScore is not in the 0 .. 100 range
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   */
+  public boolean updateScore(String email, int newScore) {
+    Application previous = index().get(email);
+    if(previous == null) return false;
+
+    Application updated = new Application(previous.getName(), email, newScore,
+        previous.getSubmittedAt());
+    recordRemoval(index.replace(updated));
+    recordAdmission(updated);
+    if(metrics != null) metrics.setCutoff(cutoffScore());
+    return true;
+  }
+
+  /**
+   * Tries to add all the given Applications to this position at once. This retains the same
+   * scores as calling add() on each of them, but in time linear in the number of applications
+   * (unless the applications are indexed by email, in which case add() is called on each):
+   * <ul>
+   *   <li>applications not above the current cutoff are dropped right away;</li>
+   *   <li>the score counts of the retained and new applications tell the lowest score kept,
+   *       without sorting anything (applications already retained keep ties at that score);</li>
+   *   <li>the retained applications below that score are evicted, and the new applications
+   *       above it are added in a single bulk load of the priority queue.</li>
+   * </ul>
+   *
+   * @param applications the Applications to add
+   * @return The number of the given Applications which were added to this position
+   * @throws NullPointerException if applications or one of its Applications is null
+   */
+  public int addAll(Collection<Application> applications) {
+    //  resubmissions must replace previous applications, so indexed queues add one at a time
+    if(index != null){
+      int added = 0;
+      for(Application application : applications){
+        if(add(application)) added++;
+      }
+      return added;
+    }
+
+    int added = offerAll(applications);
+    if(metrics != null){
+      metrics.recordAddAll(applications.size(), added);
+      metrics.setCutoff(cutoffScore());
+    }
+    return added;
+  }
+
+  /**
+   * Helper method: Tries to add all the given Applications to this position at once, when the
+   * applications are not indexed by email.
+   *
+   * @param applications the Applications to add
+   * @return The number of the given Applications which were added to this position
+   * @see #addAll(Collection)
+   */
+  private int offerAll(Collection<Application> applications) {
+    //  keep the applications above the cutoff, counting the scores of all the candidates
+    int cutoff = cutoffScore();
+    int[] counts = scoreCounts.clone();
+    List<Application> candidates = new ArrayList<>();
+    for(Application application : applications){
+      int score = application.getScore();
+      if(score > cutoff){
+        candidates.add(application);
+        counts[score]++;
+      } else {
+        recordRejection(application);
+      }
+    }
+
+    //  if everything fits, there is nothing to evict
+    if(this.applications.size() + candidates.size() <= capacity){
+      this.applications.enqueueAll(candidates);
+      for(Application application : candidates){
+        recordAdmission(application);
+      }
+      return candidates.size();
+    }
+
+    //  find the lowest score kept, and how many of the kept applications were already retained
+    int threshold = 100;
+    int above = 0;
+    int retainedAbove = 0;
+    while(above + counts[threshold] < capacity){
+      above += counts[threshold];
+      retainedAbove += scoreCounts[threshold];
+      threshold--;
+    }
+    int retainedAtThreshold = Math.min(scoreCounts[threshold], capacity - above);
+    int newAtThreshold = capacity - above - retainedAtThreshold;
+
+    //  the evicted applications are the lowest ones, so they leave from the root
+    int evicted = this.applications.size() - retainedAbove - retainedAtThreshold;
+    for(int i = 0; i < evicted; i++){
+      recordEviction(this.applications.dequeue());
+    }
+
+    //  bulk load the new applications which are kept
+    List<Application> admitted = new ArrayList<>(capacity - this.applications.size());
+    List<Application> rejected = listener == null ? null : new ArrayList<>();
+    for(Application application : candidates){
+      int score = application.getScore();
+      if(score > threshold || (score == threshold && newAtThreshold-- > 0)){
+        admitted.add(application);
+      } else if(rejected != null){
+        rejected.add(application);
+      }
+    }
+    this.applications.enqueueAll(admitted);
+    for(Application application : admitted){
+      recordAdmission(application);
+    }
+    if(rejected != null){
+      for(Application application : rejected){
+        recordRejection(application);
+      }
+    }
+    return admitted.size();
+  }
+
+  /**
+   * Tries to add all the Applications of the given stream to this position, processing the stream
+   * in parallel. Every worker of the stream keeps its own top applications in a separate position
+   * of the same capacity, so the workers never contend with each other. The separate positions are
+   * then merged together, and finally into this position.
+   *
+   * @param applications the Applications to add
+   * @return The number of Applications of the stream which were added to this position
+   * @throws NullPointerException if the stream or one of its Applications is null
+   */
+  public int addAll(Stream<Application> applications) {
+    OpenPosition merged = applications.parallel().collect(Collector.of(
+        () -> index == null ? new OpenPosition(positionName, capacity)
+            : new OpenPosition(positionName, capacity, new IndexedApplicationQueue(capacity)),
+        OpenPosition::add,
+        (left, right) -> {
+          left.addAll(right);
+          return left;
+        }));
+    return addAll(merged);
+  }
+
+  /**
+   * Tries to add all the Applications of the given spliterator to this position, processing them
+   * in parallel.
+   *
+   * @param applications the Applications to add
+   * @return The number of Applications which were added to this position
+   * @throws NullPointerException if the spliterator or one of its Applications is null
+   * @see #addAll(Stream)
+   */
+  public int addAll(Spliterator<Application> applications) {
+    return addAll(StreamSupport.stream(applications, true));
+  }
+
+  /**
+   * Helper method: Tries to add every Application of another position to this position.
+   *
+   * @param other the position whose Applications to add
+   * @return The number of Applications which were added to this position
+   */
+  private int addAll(OpenPosition other) {
+    int added = 0;
+    Iterator<Application> iterator = other.applications.unorderedIterator();
+    while(iterator.hasNext()){
+      if(add(iterator.next())) added++;
+    }
+    return added;
   }
 
   /**
@@ -74,25 +509,243 @@ public class OpenPosition {
    * scores.
    */
   public String getApplications() {
-    return applications.toString();
+    if(metrics == null) return applications.toString();
+
+    long start = System.nanoTime();
+    String result = applications.toString();
+    metrics.recordRead(this, "getApplications", applications.size(), System.nanoTime() - start);
+    return result;
+  }
+
+  /**
+   * Returns the score a new Application must exceed to be added to this position: the lowest
+   * score in the priority queue when it is full, and -1 while there are still vacancies.
+   *
+   * @return The score a new Application must exceed to be added to this position
+   */
+  public int cutoffScore() {
+    if(applications.size() < capacity) return -1;
+    return applications.peek().getScore();
+  }
+
+  /**
+   * Returns the k lowest-scored Applications in the priority queue, i.e. the applications closest
+   * to the cutoff. Only the first k applications of the ordered iteration are visited.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) lowest-scored Applications, in increasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   */
+  public List<Application> bottomK(int k) {
+    if(k < 0) throw new IllegalArgumentException("Invalid k");
+    long start = metrics == null ? 0 : System.nanoTime();
+
+    Application[] result = new Application[Math.min(k, applications.size())];
+    Iterator<Application> iterator = applications.iterator();
+    for(int i = 0; i < result.length; i++){
+      result[i] = iterator.next();
+    }
+    if(metrics != null)
+      metrics.recordRead(this, "bottomK", applications.size(), System.nanoTime() - start);
+    return Arrays.asList(result);
   }
 
   /**
-   * Returns the total score of Applications in the priority queue.
+   * Returns the k highest-scored Applications in the priority queue. The score counts tell which
+   * scores make the top k, so the applications are collected in a single pass that stops once k
+   * were found, and placed in order by score without any comparison.
+   *
+   * @param k the number of Applications to return
+   * @return The min(k, size) highest-scored Applications, in decreasing order of the scores
+   * @throws IllegalArgumentException if k is negative
+   */
+  public List<Application> topK(int k) {
+    if(k < 0) throw new IllegalArgumentException("Invalid k");
+    Application[] result = new Application[Math.min(k, applications.size())];
+    if(result.length == 0) return Arrays.asList(result);
+    long start = metrics == null ? 0 : System.nanoTime();
+
+    //  find the lowest score of the top k, and where each higher score starts in the result
+    int[] next = new int[101];
+    int threshold = 100;
+    int above = 0;
+    while(above + scoreCounts[threshold] < result.length){
+      next[threshold] = above;
+      above += scoreCounts[threshold];
+      threshold--;
+    }
+    next[threshold] = above;
+
+    //  collect every application above the threshold, and enough of those at the threshold
+    int found = 0;
+    Iterator<Application> iterator = applications.unorderedIterator();
+    while(found < result.length){
+      Application application = iterator.next();
+      int score = application.getScore();
+      if(score > threshold || (score == threshold && next[threshold] < result.length)){
+        result[next[score]++] = application;
+        found++;
+      }
+    }
+    if(metrics != null)
+      metrics.recordRead(this, "topK", applications.size(), System.nanoTime() - start);
+    return Arrays.asList(result);
+  }
+
+  /**
+   * Returns the total score of Applications in the priority queue. The total is kept up to date
+   * as applications are admitted and evicted, so this runs in constant time.
    *
    * @return The total score of Applications in the priority queue.
    */
   public int getTotalScore() {
-    //  calculate the total score of all applications currently in the queue
-    int totalScore = 0;
+    return totalScore;
+  }
 
-    ApplicationIterator iterator = new ApplicationIterator(applications);
+  /**
+   * Returns the number of Applications in the priority queue.
+   *
+   * @return The number of Applications in the priority queue.
+   */
+  public int getApplicationCount() {
+    return applications.size();
+  }
 
-    while(iterator.hasNext()){
-      totalScore += iterator.next().getScore();
+  /**
+   * Returns the lowest score of the Applications in the priority queue.
+   *
+   * @return The lowest score of the Applications in the priority queue.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getLowestScore() {
+    //  the root of the queue is the lowest-scoring application
+    if(applications.isEmpty()) throw new NoSuchElementException("No applications");
+    return applications.peek().getScore();
+  }
+
+  /**
+   * Returns the highest score of the Applications in the priority queue.
+   *
+   * @return The highest score of the Applications in the priority queue.
+   * @throws NoSuchElementException if this position has no applications
+   */
+  public int getHighestScore() {
+    if(applications.isEmpty()) throw new NoSuchElementException("No applications");
+    return highestScore;
+  }
+
+  /**
+   * Returns the number of Applications in the priority queue having the given score.
+   *
+   * @param score a score in the 0 .. 100 range
+   * @return The number of Applications in the priority queue having the given score.
+   * @throws IllegalArgumentException if score is not in the 0 .. 100 range
+   */
+  public int getScoreCount(int score) {
+    if(score < 0 || score > 100) throw new IllegalArgumentException("Invalid Score");
+    return scoreCounts[score];
+  }
+
+  /**
+   * Returns an Iterator over the Applications of this position in the internal order of its
+   * priority queue, e.g. the heap order of an ApplicationQueue. Adding them to an empty position
+   * in this order rebuilds the same queue.
+   *
+   * @return an Iterator over the Applications of this position, in no particular order
+   */
+  Iterator<Application> queueIterator() {
+    return applications.unorderedIterator();
+  }
+
+  /**
+   * Rejects an Application without offering it to the priority queue, because its score is known
+   * not to pass the cutoff. The rejection is counted in the metrics and reported to the listeners,
+   * as add() does for the Applications it rejects.
+   *
+   * @param application the rejected Application
+   */
+  void reject(Application application) {
+    if(metrics != null) metrics.recordRejection();
+    recordRejection(application);
+  }
+
+  /**
+   * Helper method: Updates the running aggregates and notifies the listener after the given
+   * Application was added to the priority queue.
+   *
+   * @param application the admitted Application
+   */
+  private void recordAdmission(Application application) {
+    int score = application.getScore();
+    totalScore += score;
+    if(scoreCounts == NO_SCORE_COUNTS) scoreCounts = new int[101];
+    if(scoreCounts[score]++ == 0 && (applications.size() == 1 || score > highestScore))
+      highestScore = score;
+    if(listener != null) listener.applicationAdmitted(this, application);
+  }
+
+  /**
+   * Helper method: Returns the priority queue of this position indexed by email.
+   *
+   * @return the indexed priority queue of this position
+   * @throws UnsupportedOperationException if the applications are not indexed by email
+   */
+  private IndexedApplicationQueue index() {
+    if(index == null)
+      throw new UnsupportedOperationException("Applications are not indexed by email");
+    return index;
+  }
+
+  /**
+   * Helper method: Updates the running aggregates and notifies the listener after the given
+   * Application was evicted from the priority queue to make room for a higher-scored one.
+   *
+   * @param application the evicted Application
+   */
+  private void recordEviction(Application application) {
+    removeFromAggregates(application);
+    if(metrics != null) metrics.recordEviction(this, application);
+    if(listener != null) listener.applicationEvicted(this, application);
+  }
+
+  /**
+   * Helper method: Updates the running aggregates and notifies the listener after the given
+   * Application was withdrawn from the priority queue or replaced by a newer application.
+   *
+   * @param application the removed Application
+   */
+  private void recordRemoval(Application application) {
+    removeFromAggregates(application);
+    if(listener != null) listener.applicationRemoved(this, application);
+  }
+
+  /**
+   * Helper method: Notifies the listener, if any, that the given Application was rejected.
+   *
+   * @param application the rejected Application
+   */
+  private void recordRejection(Application application) {
+    if(listener != null){
+      listener.submissionRejected(this, application.getName(), application.getEmail(),
+          application.getScore());
     }
+  }
 
-    return totalScore;
+  /**
+   * Helper method: Removes the given Application from the running aggregates. The new highest
+   * score, if needed, is found by scanning down the 101 score counts, which still takes constant
+   * time.
+   *
+   * @param application the Application removed from the priority queue
+   */
+  private void removeFromAggregates(Application application) {
+    int score = application.getScore();
+    totalScore -= score;
+    if(--scoreCounts[score] == 0 && score == highestScore) {
+      while(highestScore > 0 && scoreCounts[highestScore] == 0) {
+        highestScore--;
+      }
+    }
   }
 
 }
@@ -0,0 +1,795 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * This class implements quick benchmarks and load tests of the OpenPosition classes, which run
+ * without a build. Every benchmark runs a few warm-up rounds, so that the JIT compiler gets a
+ * chance to compile the measured code, then reports the median time per operation over the
+ * measured rounds. The benchmarks of the hot paths of OpenPosition and its priority queues, and
+ * of the cost of the metrics, are JMH benchmarks in the jmh module.
+ *
+ * Usage: java [-Dbench.capacities=100,10000] [-Dbench.inputs=1000000] OpenPositionBenchmark
+ * [benchmark ...], where each argument names a group of benchmarks to run. All the groups run
+ * when no argument is given. The system properties set the capacities and input sizes of the
+ * benchmarks which are parameterized by them.
+ */
+public class OpenPositionBenchmark {
+  private static final int WARMUP_ROUNDS = 5;   // rounds run before measuring
+  private static final int MEASURED_ROUNDS = 7; // rounds measured, of which the median is reported
+  private static volatile long sink;            // consumes results so the JIT cannot drop them
+
+  // capacities and input sizes of the parameterized benchmarks
+  private static final int[] CAPACITIES = intsProperty("bench.capacities", "100,10000,100000");
+  private static final int[] INPUTS = intsProperty("bench.inputs", "1000000");
+
+  /**
+   * Measures the parallel bulk intake of OpenPosition.addAll(Stream) with an increasing number of
+   * worker threads, against a sequential loop calling add().
+   */
+  public static void benchmarkParallelIntake() {
+    int capacity = 1000;
+    Application[] input = randomApplications(2_000_000, 300);
+
+    measure("OpenPosition.add loop", "capacity=" + capacity, input.length, () -> {
+      OpenPosition position = new OpenPosition("Bench", capacity);
+      for(Application application : input){
+        position.add(application);
+      }
+      return position.getTotalScore();
+    });
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    for(int threads = 1; ; threads = Math.min(2 * threads, cores)){
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      int workers = threads;
+      measure("OpenPosition.addAll(Stream)", "capacity=" + capacity + " threads=" + workers,
+          input.length, () -> {
+            OpenPosition position = new OpenPosition("Bench", capacity);
+            // a parallel stream started from a pool task runs in that pool
+            pool.submit(() -> position.addAll(Arrays.stream(input))).join();
+            return position.getTotalScore();
+          });
+      pool.shutdown();
+      if(threads == cores) break;
+    }
+  }
+
+  /**
+   * Measures a cold-start load of a large applicant pool into a fresh OpenPosition, with a loop
+   * calling add() against a single call to addAll(Collection).
+   */
+  public static void benchmarkBulkLoad() {
+    int capacity = 100_000;
+    List<Application> input = Arrays.asList(randomApplications(1_000_000, 300));
+
+    measure("OpenPosition.add loop", "capacity=" + capacity, input.size(), () -> {
+      OpenPosition position = new OpenPosition("Bench", capacity);
+      for(Application application : input){
+        position.add(application);
+      }
+      return position.getTotalScore();
+    });
+    measure("OpenPosition.addAll(Collection)", "capacity=" + capacity, input.size(), () -> {
+      OpenPosition position = new OpenPosition("Bench", capacity);
+      position.addAll(input);
+      return position.getTotalScore();
+    });
+  }
+
+  /**
+   * Measures the binary format of ApplicationCodec against the name:email:score text form of
+   * Application.toString(), encoding and decoding a full ApplicationQueue in heap order. The
+   * parameters report the size of both encodings.
+   */
+  public static void benchmarkCodec() {
+    for(int capacity : CAPACITIES){
+      ApplicationQueue queue = new ApplicationQueue(capacity);
+      for(Application application : randomApplications(capacity, 300)) queue.enqueue(application);
+
+      ByteBuffer binary = ByteBuffer.allocate(ApplicationCodec.encodedLength(queue));
+      ApplicationCodec.encode(queue, binary);
+      StringBuilder text = new StringBuilder();
+      for(Iterator<Application> it = queue.unorderedIterator(); it.hasNext(); ){
+        text.append(it.next()).append('\n');
+      }
+      String params = "capacity=" + capacity + " binary=" + binary.capacity() + "B text="
+          + text.length() + "B";
+
+      measure("ApplicationCodec.encode", params, capacity, () -> {
+        binary.clear();
+        ApplicationCodec.encode(queue, binary);
+        return binary.position();
+      });
+      measure("ApplicationCodec.decodeQueue", params, capacity, () -> {
+        binary.rewind();
+        return ApplicationCodec.decodeQueue(binary).size();
+      });
+      measure("text encode", params, capacity, () -> {
+        StringBuilder builder = new StringBuilder();
+        for(Iterator<Application> it = queue.unorderedIterator(); it.hasNext(); ){
+          builder.append(it.next()).append('\n');
+        }
+        return builder.length();
+      });
+      String encoded = text.toString();
+      measure("text decode", params, capacity, () -> {
+        ApplicationQueue decoded = new ApplicationQueue(capacity);
+        for(String line : encoded.split("\n")){
+          String[] fields = line.split(":");
+          decoded.enqueue(new Application(fields[0], fields[1], Integer.parseInt(fields[2])));
+        }
+        return decoded.size();
+      });
+    }
+  }
+
+  /**
+   * Measures loading a CSV file of every input size into a position of every capacity, with
+   * ApplicationLoader and with a loop reading every line into a String, splitting it and calling
+   * add(). The report of one load is printed before the measures.
+   */
+  public static void benchmarkLoader() {
+    for(int inputSize : INPUTS){
+      Path file;
+      try {
+        file = Files.createTempFile("applications", ".csv");
+        file.toFile().deleteOnExit();
+        StringBuilder csv = new StringBuilder();
+        for(Application application : randomApplications(inputSize, 300)){
+          csv.append(application.getName()).append(',').append(application.getEmail())
+              .append(',').append(application.getScore()).append('\n');
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+      } catch (IOException e){
+        throw new UncheckedIOException(e);
+      }
+
+      for(int capacity : CAPACITIES){
+        String params = "capacity=" + capacity + " input=" + inputSize;
+        ApplicationLoader loader = new ApplicationLoader(ApplicationLoader.Format.CSV);
+        try {
+          System.out.println("ApplicationLoader " + params + ": "
+              + loader.load(file, new OpenPosition("Bench", capacity)));
+        } catch (IOException e){
+          throw new UncheckedIOException(e);
+        }
+
+        measure("ApplicationLoader.load", params, inputSize, () -> {
+          OpenPosition position = new OpenPosition("Bench", capacity);
+          try {
+            return loader.load(file, position).getAccepted() + position.getTotalScore();
+          } catch (IOException e){
+            throw new UncheckedIOException(e);
+          }
+        });
+        measure("readAllLines+split+add", params, inputSize, () -> {
+          OpenPosition position = new OpenPosition("Bench", capacity);
+          try {
+            for(String line : Files.readAllLines(file)){
+              String[] fields = line.split(",");
+              position.add(new Application(fields[0], fields[1], Integer.parseInt(fields[2])));
+            }
+          } catch (IOException e){
+            throw new UncheckedIOException(e);
+          }
+          return position.getTotalScore();
+        });
+      }
+    }
+  }
+
+  /**
+   * Measures the IndexedApplicationQueue: the cost of the email index on OpenPosition.add(), and
+   * withdrawing an application then submitting it again, against rebuilding an ApplicationQueue
+   * without the withdrawn application as was needed before.
+   */
+  public static void benchmarkIndexed() {
+    for(int capacity : CAPACITIES){
+      Application[] input = randomApplications(INPUTS[0], 300);
+      String params = "capacity=" + capacity + " input=" + input.length;
+      measure("OpenPosition.add ApplicationQueue", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        for(Application application : input) position.add(application);
+        return position.getTotalScore();
+      });
+      measure("OpenPosition.add IndexedApplicationQueue", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity,
+            new IndexedApplicationQueue(capacity));
+        for(Application application : input) position.add(application);
+        return position.getTotalScore();
+      });
+
+      Application[] retained = randomApplications(capacity, 300);
+      OpenPosition indexed = new OpenPosition("Bench", capacity,
+          new IndexedApplicationQueue(capacity));
+      ApplicationQueue plain = new ApplicationQueue(capacity);
+      for(Application application : retained){
+        indexed.add(application);
+        plain.enqueue(application);
+      }
+      int calls = Math.max(1, 1_000_000 / capacity);
+      params = "capacity=" + capacity;
+      measure("withdraw+add IndexedApplicationQueue", params, calls, () -> {
+        long checksum = 0;
+        for(int i = 0; i < calls; i++){
+          Application application = retained[i % capacity];
+          indexed.withdraw(application.getEmail());
+          indexed.add(application);
+          checksum += indexed.getTotalScore();
+        }
+        return checksum;
+      });
+      measure("withdraw+add rebuilt ApplicationQueue", params, calls, () -> {
+        long checksum = 0;
+        ApplicationQueue queue = plain;
+        for(int i = 0; i < calls; i++){
+          String email = retained[i % capacity].getEmail();
+          List<Application> kept = new ArrayList<>(capacity);
+          Application withdrawn = null;
+          for(Iterator<Application> it = queue.unorderedIterator(); it.hasNext(); ){
+            Application application = it.next();
+            if(withdrawn == null && application.getEmail().equals(email)) withdrawn = application;
+            else kept.add(application);
+          }
+          queue = new ApplicationQueue(capacity);
+          queue.enqueueAll(kept);
+          queue.enqueue(withdrawn);
+          checksum += queue.size();
+        }
+        return checksum;
+      });
+    }
+  }
+
+  /**
+   * Measures submitting the fields of applications to a position for every capacity and input
+   * size, under uniformly random and decreasing (reject-heavy) scores: creating an Application
+   * for each and calling add(Application), against calling add(name, email, score).
+   */
+  public static void benchmarkAdmission() {
+    for(int inputSize : INPUTS){
+      Application[] random = randomApplications(inputSize, 300);
+      Application[] decreasing = random.clone();
+      Arrays.sort(decreasing, (a, b) -> b.getScore() - a.getScore());
+
+      for(int capacity : CAPACITIES){
+        String params = "capacity=" + capacity + " input=" + inputSize;
+        for(Application[] input : new Application[][] {random, decreasing}){
+          String distribution = input == random ? " uniform" : " reject-heavy";
+          String[] names = new String[inputSize];
+          String[] emails = new String[inputSize];
+          int[] scores = new int[inputSize];
+          for(int i = 0; i < inputSize; i++){
+            names[i] = input[i].getName();
+            emails[i] = input[i].getEmail();
+            scores[i] = input[i].getScore();
+          }
+
+          measure("OpenPosition.add(Application)" + distribution, params, inputSize, () -> {
+            OpenPosition position = new OpenPosition("Bench", capacity);
+            for(int i = 0; i < inputSize; i++){
+              position.add(new Application(names[i], emails[i], scores[i]));
+            }
+            return position.getTotalScore();
+          });
+          measure("OpenPosition.add(fields)" + distribution, params, inputSize, () -> {
+            OpenPosition position = new OpenPosition("Bench", capacity);
+            for(int i = 0; i < inputSize; i++){
+              position.add(names[i], emails[i], scores[i]);
+            }
+            return position.getTotalScore();
+          });
+        }
+      }
+    }
+  }
+
+  /**
+   * Measures the OpenPositionRegistry: the memory taken by quiet positions and by positions which
+   * received a single application, and submitting applications to 32 and 1024 positions at once,
+   * against looking each position up and calling add() in a loop.
+   */
+  public static void benchmarkRegistry() {
+    int count = 50_000;
+    for(int capacity : CAPACITIES){
+      long before = usedMemory();
+      OpenPositionRegistry registry = new OpenPositionRegistry();
+      for(int i = 0; i < count; i++) registry.open("position" + i, capacity);
+      long quiet = usedMemory();
+      for(int i = 0; i < count; i++){
+        registry.get("position" + i).add(new Application("app", "app@email.com", 50));
+      }
+      long used = usedMemory();
+      System.out.printf("%-40s %-36s %12d B/position quiet, %d B/position with one application%n",
+          "OpenPositionRegistry", "capacity=" + capacity + " positions=" + count,
+          (quiet - before) / count, (used - before) / count);
+      sink += registry.size();
+    }
+
+    OpenPositionRegistry registry = new OpenPositionRegistry();
+    String[] ids = new String[10_000];
+    for(int i = 0; i < ids.length; i++){
+      ids[i] = "position" + i;
+      registry.open(ids[i], 100);
+    }
+    Application[] input = randomApplications(100_000, 300);
+    Random random = new Random(300);
+    for(int fanOut : new int[] {32, 1024}){
+      String[][] targets = new String[256][fanOut];
+      for(String[] row : targets){
+        for(int j = 0; j < fanOut; j++) row[j] = ids[random.nextInt(ids.length)];
+      }
+      int submissions = input.length / fanOut * 32;
+      String params = "positions=" + ids.length + " fanOut=" + fanOut;
+
+      measure("lookup+add loop", params, (long) submissions * fanOut, () -> {
+        long checksum = 0;
+        for(int i = 0; i < submissions; i++){
+          for(String id : targets[i % targets.length]){
+            if(registry.get(id).add(input[i % input.length])) checksum++;
+          }
+        }
+        return checksum;
+      });
+      measure("OpenPositionRegistry.submit", params, (long) submissions * fanOut, () -> {
+        long checksum = 0;
+        for(int i = 0; i < submissions; i++){
+          for(boolean added : registry.submit(input[i % input.length], targets[i % targets.length]))
+            if(added) checksum++;
+        }
+        return checksum;
+      });
+    }
+  }
+
+  /**
+   * Measures the memory retained by postings which share their applicants: every posting receives
+   * its own Application objects for the same applicants, as when each submission is parsed again.
+   * ApplicationQueues keep every copy, while CompactApplicationQueues sharing one ApplicantTable
+   * keep each identity once. Also measures adding to positions of each kind.
+   */
+  public static void benchmarkCompact() {
+    int postings = 20;
+    int applicants = 50_000;
+    Random random = new Random(300);
+    int[][] scores = new int[postings][applicants];
+    for(int[] row : scores){
+      for(int i = 0; i < applicants; i++) row[i] = random.nextInt(101);
+    }
+
+    String memory = "postings=" + postings + " applicants=" + applicants;
+    System.out.printf("%-40s %-36s %12d B/retained application%n", "ApplicationQueue", memory,
+        retainedBytes(scores, () -> new ApplicationQueue(applicants)));
+    ApplicantTable table = new ApplicantTable();
+    System.out.printf("%-40s %-36s %12d B/retained application%n", "CompactApplicationQueue",
+        memory, retainedBytes(scores, () -> new CompactApplicationQueue(applicants, table)));
+    sink += table.size();
+
+    for(int capacity : CAPACITIES){
+      Application[] input = randomApplications(INPUTS[0], 300);
+      String params = "capacity=" + capacity + " inputs=" + input.length;
+      ApplicantTable shared = new ApplicantTable();
+      for(Application application : input)
+        shared.intern(application.getName(), application.getEmail());
+
+      measure("OpenPosition.add", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        for(Application application : input) position.add(application);
+        return position.getTotalScore();
+      });
+      measure("OpenPosition.add compact", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity,
+            new CompactApplicationQueue(capacity, shared));
+        for(Application application : input) position.add(application);
+        return position.getTotalScore();
+      });
+    }
+  }
+
+  /**
+   * Load-tests a single viral posting receiving submissions from many threads at once: locking
+   * the position around every add, as the request threads did, against ConcurrentOpenPosition and
+   * against IntakeService under both overflow policies. Reports the throughput and the latency
+   * percentiles of the submissions, until their result is known. Every load test runs once to
+   * warm up before it is measured.
+   */
+  public static void benchmarkIntake() {
+    int producers = 8;
+    Application[] input = randomApplications(INPUTS[0], 300);
+    for(int capacity : CAPACITIES){
+      String params = "capacity=" + capacity + " producers=" + producers;
+      for(int round = 0; round < 2; round++){
+        boolean print = round == 1;
+
+        OpenPosition locked = new OpenPosition("Bench", capacity);
+        ReentrantLock lock = new ReentrantLock();
+        loadTest("locked OpenPosition.add", params, input, producers, print,
+            (application, latencies) -> {
+              long start = System.nanoTime();
+              lock.lock();
+              try {
+                locked.add(application);
+              } finally {
+                lock.unlock();
+              }
+              latencies.record(System.nanoTime() - start);
+            }, () -> { });
+
+        ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Bench", capacity);
+        loadTest("ConcurrentOpenPosition.add", params, input, producers, print,
+            (application, latencies) -> {
+              long start = System.nanoTime();
+              concurrent.add(application);
+              latencies.record(System.nanoTime() - start);
+            }, () -> { });
+
+        for(IntakeService.Overflow overflow : IntakeService.Overflow.values()){
+          ExecutorService executor =
+              Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+          IntakeService service = new IntakeService(executor, 1024, overflow);
+          service.open("Bench", capacity);
+          LongAdder overloaded = new LongAdder();
+          loadTest("IntakeService.submit " + overflow, params, input, producers, print,
+              (application, latencies) -> {
+                long start = System.nanoTime();
+                service.submit("Bench", application).whenComplete((added, e) -> {
+                  latencies.record(System.nanoTime() - start);
+                  if(e != null) overloaded.increment();
+                });
+              }, () -> service.query("Bench", OpenPosition::getTotalScore).join());
+          if(print && overloaded.sum() > 0){
+            double percent = 100.0 * overloaded.sum() / input.length;
+            System.out.printf("%-40s %-36s %12.1f %% rejected as overloaded%n",
+                "IntakeService.submit " + overflow, params, percent);
+          }
+          executor.shutdown();
+        }
+      }
+    }
+  }
+
+  /**
+   * Load-tests a single posting receiving submissions from many threads at once, taking the lock
+   * for every add against combining the concurrent submissions into batches applied under a single
+   * acquisition of the lock. Also reports the average number of submissions per batch.
+   */
+  public static void benchmarkCombining() {
+    int producers = 8;
+    Application[] input = randomApplications(INPUTS[0], 300);
+    for(int capacity : CAPACITIES){
+      String params = "capacity=" + capacity + " producers=" + producers;
+      for(int round = 0; round < 2; round++){
+        boolean print = round == 1;
+
+        ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Bench", capacity);
+        loadTest("ConcurrentOpenPosition.add", params, input, producers, print,
+            (application, latencies) -> {
+              long start = System.nanoTime();
+              concurrent.add(application);
+              latencies.record(System.nanoTime() - start);
+            }, () -> { });
+
+        CombiningOpenPosition combining = new CombiningOpenPosition("Bench", capacity);
+        loadTest("CombiningOpenPosition.add", params, input, producers, print,
+            (application, latencies) -> {
+              long start = System.nanoTime();
+              combining.add(application);
+              latencies.record(System.nanoTime() - start);
+            }, () -> { });
+        if(print){
+          System.out.printf("%-40s %-36s %12.2f submissions/batch%n", "CombiningOpenPosition",
+              params, combining.getAverageBatchSize());
+        }
+      }
+    }
+  }
+
+  /**
+   * Measures keeping a position to the applications of the last time to live, with one submission
+   * per millisecond: ExpiringOpenPosition, which withdraws each application when it expires,
+   * against an OpenPosition rebuilt from the submissions of the window every tenth of the time to
+   * live, which only approximates the window.
+   */
+  public static void benchmarkExpiry() {
+    int timeToLive = 100_000;
+    Random random = new Random(300);
+    Application[] input = new Application[INPUTS[0]];
+    for(int i = 0; i < input.length; i++){
+      input[i] = new Application("app" + i, "app" + i + "@email.com", random.nextInt(101), i);
+    }
+
+    for(int capacity : CAPACITIES){
+      String params = "capacity=" + capacity + " ttl=" + timeToLive + "ms";
+
+      measure("ExpiringOpenPosition.add", params, input.length, () -> {
+        long[] clock = {0};
+        ExpiringOpenPosition position =
+            new ExpiringOpenPosition("Bench", capacity, timeToLive, () -> clock[0]);
+        for(int i = 0; i < input.length; i++){
+          clock[0] = i;
+          position.add(input[i]);
+        }
+        return position.getExpiredCount();
+      });
+      measure("OpenPosition.add + rebuild", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        for(int i = 0; i < input.length; i++){
+          if(i % (timeToLive / 10) == 0){
+            position = new OpenPosition("Bench", capacity);
+            position.addAll(Arrays.asList(input).subList(Math.max(0, i - timeToLive + 1), i));
+          }
+          position.add(input[i]);
+        }
+        return position.getTotalScore();
+      });
+    }
+  }
+
+  /**
+   * Measures the cost of publishing the events of a position: adding without a listener, against
+   * publishing into an OpenPositionEventStream, with no subscription and with one polled in
+   * batches every 1024 submissions, and against a listener queueing a new object per event. Also
+   * reports the bytes allocated per submission by the stream, which should be 0.
+   */
+  public static void benchmarkEvents() {
+    for(int capacity : CAPACITIES){
+      Application[] input = randomApplications(INPUTS[0], 300);
+      String params = "capacity=" + capacity + " inputs=" + input.length;
+
+      measure("OpenPosition.add", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        for(Application application : input) position.add(application);
+        return position.getTotalScore();
+      });
+      OpenPositionEventStream idle = new OpenPositionEventStream(4096);
+      measure("OpenPosition.add stream", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        position.setListener(idle);
+        for(Application application : input) position.add(application);
+        return position.getTotalScore();
+      });
+      OpenPositionEventStream stream = new OpenPositionEventStream(4096);
+      long[] checksum = {0};
+      OpenPositionEventStream.Subscription subscription =
+          stream.subscribe((event, endOfBatch) -> checksum[0] += event.getCutoff());
+      measure("OpenPosition.add stream polled", params, input.length, () -> {
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        position.setListener(stream);
+        for(int i = 0; i < input.length; i++){
+          position.add(input[i]);
+          if((i & 1023) == 1023) subscription.poll();
+        }
+        subscription.poll();
+        return position.getTotalScore() + checksum[0];
+      });
+      measure("OpenPosition.add queueing listener", params, input.length, () -> {
+        Queue<Object[]> queue = new ConcurrentLinkedQueue<>();
+        OpenPosition position = new OpenPosition("Bench", capacity);
+        position.setListener(new OpenPositionListener() {
+          @Override
+          public void applicationAdmitted(OpenPosition position, Application application) {
+            queue.add(new Object[] {"ADMITTED", application, position.cutoffScore()});
+          }
+
+          @Override
+          public void applicationEvicted(OpenPosition position, Application application) {
+            queue.add(new Object[] {"EVICTED", application, position.cutoffScore()});
+          }
+
+          @Override
+          public void submissionRejected(OpenPosition position, String name, String email,
+                                         int score) {
+            queue.add(new Object[] {"REJECTED", name, email, score, position.cutoffScore()});
+          }
+        });
+        for(int i = 0; i < input.length; i++){
+          position.add(input[i]);
+          if((i & 1023) == 1023) queue.clear();
+        }
+        return position.getTotalScore() + queue.size();
+      });
+
+      com.sun.management.ThreadMXBean threads =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      OpenPosition position = new OpenPosition("Bench", capacity);
+      position.setListener(stream);
+      for(int i = 0; i < input.length; i++){
+        position.add(input[i]);
+        if((i & 1023) == 1023) subscription.poll();
+      }
+      subscription.poll();
+      long before = threads.getCurrentThreadAllocatedBytes();
+      for(int i = 0; i < input.length; i++){
+        position.add(input[i]);
+        if((i & 1023) == 1023) subscription.poll();
+      }
+      subscription.poll();
+      long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+      System.out.printf("%-40s %-36s %14.2f B/op dropped=%d%n", "stream allocation", params,
+          (double) allocated / input.length, stream.getDroppedCount());
+    }
+  }
+
+  /**
+   * Helper method: Submits the given applications from the given number of threads at once, each
+   * taking its share in turn, and prints the throughput and latency percentiles.
+   *
+   * @param name      name of the load test
+   * @param params    parameters of the load test
+   * @param input     the applications to submit
+   * @param producers the number of submitting threads
+   * @param print     whether to print the results
+   * @param submit    submits an application and records its latency
+   * @param drain     waits until all the submissions are processed
+   */
+  private static void loadTest(String name, String params, Application[] input, int producers,
+      boolean print, BiConsumer<Application, LatencyHistogram> submit, Runnable drain) {
+    LatencyHistogram latencies = new LatencyHistogram();
+    Thread[] threads = new Thread[producers];
+    for(int t = 0; t < producers; t++){
+      int from = t;
+      threads[t] = new Thread(() -> {
+        for(int i = from; i < input.length; i += producers) submit.accept(input[i], latencies);
+      });
+    }
+
+    long start = System.nanoTime();
+    for(Thread thread : threads) thread.start();
+    try {
+      for(Thread thread : threads) thread.join();
+    } catch (InterruptedException e){
+      Thread.currentThread().interrupt();
+      return;
+    }
+    drain.run();
+    long elapsed = System.nanoTime() - start;
+
+    if(print){
+      System.out.printf("%-40s %-36s %14.0f ops/s p50=%dns p99=%dns max=%dns%n", name, params,
+          1e9 * input.length / elapsed, latencies.getPercentile(50), latencies.getPercentile(99),
+          latencies.getMax());
+    }
+  }
+
+  /**
+   * Helper method: Fills a position per row of scores, each with new Applications of the same
+   * applicants, and returns the memory retained by the positions per Application.
+   *
+   * @param scores the score of each applicant, for each posting
+   * @param queues creates the queue of each position
+   * @return the number of bytes retained per Application
+   */
+  private static long retainedBytes(int[][] scores,
+      Supplier<PriorityQueueADT<Application>> queues) {
+    int applicants = scores[0].length;
+    OpenPosition[] positions = new OpenPosition[scores.length];
+    long before = usedMemory();
+    for(int p = 0; p < scores.length; p++){
+      positions[p] = new OpenPosition("Bench" + p, applicants, queues.get());
+      for(int i = 0; i < applicants; i++){
+        positions[p].add(new Application("applicant " + i, "applicant" + i + "@email.com",
+            scores[p][i]));
+      }
+    }
+    long used = usedMemory();
+    sink += positions[0].getApplicationCount();
+    return (used - before) / ((long) scores.length * applicants);
+  }
+
+  /**
+   * Helper method: Returns the memory used by the heap after a garbage collection.
+   *
+   * @return the number of bytes used by the heap
+   */
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for(int i = 0; i < 3; i++) System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Helper method: Reads a comma-separated list of integers from a system property.
+   *
+   * @param name         name of the system property
+   * @param defaultValue value used when the property is not set
+   * @return the integers of the list
+   */
+  private static int[] intsProperty(String name, String defaultValue) {
+    return Arrays.stream(System.getProperty(name, defaultValue).split(","))
+        .mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+  }
+
+  /**
+   * Helper method: Creates the given number of Applications with uniformly random scores.
+   *
+   * @param count number of Applications to create
+   * @param seed  seed of the random scores
+   * @return an array of count random Applications
+   */
+  private static Application[] randomApplications(int count, long seed) {
+    Random random = new Random(seed);
+    Application[] applications = new Application[count];
+    for(int i = 0; i < count; i++){
+      applications[i] = new Application("app" + i, "app" + i + "@email.com", random.nextInt(101));
+    }
+    return applications;
+  }
+
+  /**
+   * Helper method: Runs the given round several times and prints the median time per operation.
+   *
+   * @param name       name of the measured operation
+   * @param params     parameters of the measured operation
+   * @param operations number of operations done by one round
+   * @param round      the code to measure, returning a value which depends on its work
+   */
+  private static void measure(String name, String params, long operations, LongSupplier round) {
+    for(int i = 0; i < WARMUP_ROUNDS; i++){
+      sink += round.getAsLong();
+    }
+
+    long[] times = new long[MEASURED_ROUNDS];
+    for(int i = 0; i < MEASURED_ROUNDS; i++){
+      long start = System.nanoTime();
+      sink += round.getAsLong();
+      times[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(times);
+
+    double nanosPerOperation = (double) times[MEASURED_ROUNDS / 2] / operations;
+    System.out.printf("%-40s %-36s %12.2f ns/op %14.0f ops/s%n", name, params,
+        nanosPerOperation, 1e9 / nanosPerOperation);
+  }
+
+  /**
+   * Driver method running the benchmarks named in the arguments, or all of them.
+   *
+   * @param args names of the benchmark groups to run, if any.
+   */
+  public static void main(String[] args) {
+    boolean all = args.length == 0;
+    if(all || Arrays.asList(args).contains("parallelIntake")) benchmarkParallelIntake();
+    if(all || Arrays.asList(args).contains("bulkLoad")) benchmarkBulkLoad();
+    if(all || Arrays.asList(args).contains("codec")) benchmarkCodec();
+    if(all || Arrays.asList(args).contains("loader")) benchmarkLoader();
+    if(all || Arrays.asList(args).contains("indexed")) benchmarkIndexed();
+    if(all || Arrays.asList(args).contains("admission")) benchmarkAdmission();
+    if(all || Arrays.asList(args).contains("registry")) benchmarkRegistry();
+    if(all || Arrays.asList(args).contains("compact")) benchmarkCompact();
+    if(all || Arrays.asList(args).contains("intake")) benchmarkIntake();
+    if(all || Arrays.asList(args).contains("combining")) benchmarkCombining();
+    if(all || Arrays.asList(args).contains("expiry")) benchmarkExpiry();
+    if(all || Arrays.asList(args).contains("events")) benchmarkEvents();
+  }
+
+}
@@ -0,0 +1,315 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stream of the events of open positions, which downstream systems consume on their own
+ * threads, e.g. to notify the candidates. It is an OpenPositionListener, added to each position
+ * with OpenPosition.addListener(), which publishes every admission, eviction, removal and
+ * rejection into a ring buffer of preallocated events. Publishing an event only overwrites the
+ * fields of its slot and advances a sequence number: it never allocates nor blocks the thread
+ * modifying the position.
+ *
+ * The events are published by a single producer: the positions of a stream must only be modified
+ * by one thread at a time, e.g. by sharing a single position or a single lock. Each subscription
+ * consumes every event, in order, through its own cursor: poll() hands all the events published
+ * since the previous call to its handler as one batch. When the slowest subscription is a whole
+ * ring behind, the producer drops the new events rather than wait, and counts them: the next
+ * published event carries the number of events dropped right before it, so that every
+ * subscription can detect the gap.
+ */
+public class OpenPositionEventStream implements OpenPositionListener {
+  /**
+   * The types of the events
+   */
+  public enum Type {
+    ADMITTED, // an application was added to the position
+    EVICTED,  // an application was removed to make room for a higher-scored one
+    REMOVED,  // an application was withdrawn, or replaced by a resubmission or a score update
+    REJECTED  // a submission was not added to the position
+  }
+
+  /**
+   * An event of a position, in a slot of the ring buffer. An event is only valid until the
+   * handler it was passed to returns, after which its slot is reused.
+   */
+  public static class Event {
+    private long sequence;            // sequence number of the event in the stream
+    private Type type;                // the type of the event
+    private OpenPosition position;    // the position of the event
+    private Application application;  // the application the event is about, null if REJECTED
+    private String name;              // name of the applicant
+    private String email;             // email of the applicant
+    private int score;                // score of the applicant
+    private int cutoff;               // the cutoff score of the position after the event
+    private long droppedBefore;       // number of events dropped right before the event
+
+    private Event() {
+    }
+
+    /**
+     * Returns the sequence number of this event, counting from 0 in its stream
+     *
+     * @return the sequence number of this event
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * Returns the type of this event
+     *
+     * @return the type of this event
+     */
+    public Type getType() { return type; }
+
+    /**
+     * Returns the position of this event
+     *
+     * @return the position the application was admitted to, evicted, removed or rejected from
+     */
+    public OpenPosition getPosition() { return position; }
+
+    /**
+     * Returns the application of this event
+     *
+     * @return the application admitted, evicted or removed, or null if the event is a rejection
+     */
+    public Application getApplication() { return application; }
+
+    /**
+     * Returns the name of the applicant of this event
+     *
+     * @return the name of the applicant
+     */
+    public String getName() { return name; }
+
+    /**
+     * Returns the email of the applicant of this event
+     *
+     * @return the email of the applicant
+     */
+    public String getEmail() { return email; }
+
+    /**
+     * Returns the score of the applicant of this event
+     *
+     * @return the score of the applicant
+     */
+    public int getScore() { return score; }
+
+    /**
+     * Returns the cutoff score of the position after this event
+     *
+     * @return the cutoff score of the position after this event
+     * @see OpenPosition#cutoffScore()
+     */
+    public int getCutoff() { return cutoff; }
+
+    /**
+     * Returns the number of events dropped right before this event, because a subscription was a
+     * whole ring behind. The dropped events have no sequence number, and no subscription sees
+     * them.
+     *
+     * @return the number of events dropped between the previous event and this one
+     */
+    public long getDroppedBefore() { return droppedBefore; }
+
+    /**
+     * Returns a String representing this event
+     *
+     * @return a String representing this event
+     */
+    @Override
+    public String toString() {
+      return sequence + " " + type + " " + position.getPositionName() + " " + name + ":" + email
+          + ":" + score + " cutoff=" + cutoff;
+    }
+  }
+
+  /**
+   * This interface models the handler of the events of a subscription
+   */
+  public interface Handler {
+    /**
+     * Handles an event. The event must not be kept after this method returns.
+     *
+     * @param event      the event
+     * @param endOfBatch whether this is the last event of the batch being handled
+     */
+    public void onEvent(Event event, boolean endOfBatch);
+  }
+
+  /**
+   * A subscription to the events of a stream, consumed by calling poll()
+   */
+  public class Subscription {
+    private final Handler handler;   // handles the events of this subscription
+    private final AtomicLong cursor; // sequence number of the last event handled
+
+    private Subscription(Handler handler, long cursor) {
+      this.handler = handler;
+      this.cursor = new AtomicLong(cursor);
+    }
+
+    /**
+     * Hands every event published since the previous call to the handler, as one batch. Only one
+     * thread at a time may poll a subscription.
+     *
+     * @return the number of events handled
+     */
+    public int poll() {
+      long last = published.get();
+      long next = cursor.get() + 1;
+      for(long sequence = next; sequence <= last; sequence++){
+        handler.onEvent(ring[(int) sequence & mask], sequence == last);
+        //  release each slot as soon as it is handled, so a long batch does not hold the ring
+        cursor.lazySet(sequence);
+      }
+      return (int) (last - next + 1);
+    }
+
+    /**
+     * Stops this subscription, whose events no longer hold the producer back.
+     */
+    public void cancel() {
+      unsubscribe(this);
+    }
+  }
+
+  private final Event[] ring;                   // the preallocated events
+  private final int mask;                       // ring.length - 1
+  private final AtomicLong published;           // sequence number of the last published event
+  private volatile Subscription[] subscriptions; // the subscriptions, copied on write
+  private long next;                            // sequence number of the next event, of producer
+  private long gate;                            // lowest cursor of the subscriptions, of producer
+  private final AtomicLong dropped;             // number of events dropped
+  private long droppedBefore;                   // events dropped since the last published one
+
+  /**
+   * Creates a new stream with room for the given number of events not yet handled
+   *
+   * @param capacity the number of events of the ring buffer, rounded up to a power of two
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or is larger than 2^30
+   */
+  public OpenPositionEventStream(int capacity) {
+    if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Invalid capacity");
+
+    int length = Integer.highestOneBit(capacity);
+    if(length < capacity) length <<= 1;
+    ring = new Event[length];
+    for(int i = 0; i < length; i++) ring[i] = new Event();
+    mask = length - 1;
+    published = new AtomicLong(-1);
+    dropped = new AtomicLong();
+    subscriptions = new Subscription[0];
+    gate = -1;
+  }
+
+  /**
+   * Subscribes the given handler to the events published from now on.
+   *
+   * @param handler the handler of the events
+   * @return the subscription, to poll for the events
+   * @throws NullPointerException if handler is null
+   */
+  public synchronized Subscription subscribe(Handler handler) {
+    if(handler == null) throw new NullPointerException("Null Handler");
+    Subscription subscription = new Subscription(handler, published.get());
+    Subscription[] updated = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+    updated[updated.length - 1] = subscription;
+    subscriptions = updated;
+    return subscription;
+  }
+
+  /**
+   * Returns the number of events dropped because a subscription was a whole ring behind. May be
+   * called from any thread, e.g. by a subscription comparing it to the gaps it detected.
+   *
+   * @return the number of dropped events
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  @Override
+  public void applicationAdmitted(OpenPosition position, Application application) {
+    publish(Type.ADMITTED, position, application, application.getName(), application.getEmail(),
+        application.getScore());
+  }
+
+  @Override
+  public void applicationEvicted(OpenPosition position, Application application) {
+    publish(Type.EVICTED, position, application, application.getName(), application.getEmail(),
+        application.getScore());
+  }
+
+  @Override
+  public void applicationRemoved(OpenPosition position, Application application) {
+    publish(Type.REMOVED, position, application, application.getName(), application.getEmail(),
+        application.getScore());
+  }
+
+  @Override
+  public void submissionRejected(OpenPosition position, String name, String email, int score) {
+    publish(Type.REJECTED, position, null, name, email, score);
+  }
+
+  /**
+   * Helper method: Publishes an event in the next slot, unless a subscription still has to handle
+   * the event in that slot, in which case the event is dropped and counted on the next event.
+   */
+  private void publish(Type type, OpenPosition position, Application application, String name,
+                       String email, int score) {
+    long sequence = next;
+    if(sequence - gate > ring.length){
+      //  refresh the cached gate from the cursors, only when the ring looks full
+      long lowest = sequence - 1;
+      for(Subscription subscription : subscriptions){
+        lowest = Math.min(lowest, subscription.cursor.get());
+      }
+      gate = lowest;
+      if(sequence - gate > ring.length){
+        droppedBefore++;
+        //  only the producer writes the counter, so an ordered store is enough for the readers
+        dropped.lazySet(dropped.get() + 1);
+        return;
+      }
+    }
+
+    Event event = ring[(int) sequence & mask];
+    event.sequence = sequence;
+    event.type = type;
+    event.position = position;
+    event.application = application;
+    event.name = name;
+    event.email = email;
+    event.score = score;
+    event.cutoff = position.cutoffScore();
+    event.droppedBefore = droppedBefore;
+    droppedBefore = 0;
+    next = sequence + 1;
+    published.lazySet(sequence);
+  }
+
+  /**
+   * Helper method: Removes a subscription.
+   */
+  private synchronized void unsubscribe(Subscription subscription) {
+    Subscription[] updated = new Subscription[subscriptions.length];
+    int count = 0;
+    for(Subscription other : subscriptions){
+      if(other != subscription) updated[count++] = other;
+    }
+    subscriptions = Arrays.copyOf(updated, count);
+  }
+
+}
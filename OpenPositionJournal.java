@@ -0,0 +1,488 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable storage for the applications of an OpenPosition, made of a checkpoint and a write-ahead
+ * log in a directory.
+ *
+ * The journal listens to its position and appends a record for every admission, eviction and
+ * removal to the log, which is memory-mapped: appending a record is a memory copy, and add()
+ * never waits for the disk. A background thread forces the mapped log to disk at a fixed interval
+ * (group commit), and sync() forces it on demand. A checkpoint writes the whole priority queue of
+ * the position to a compact file, then starts a new, empty generation of the log. Recovery loads
+ * the last checkpoint and replays only the log records written since: every admission, eviction
+ * and removal is replayed as recorded, rather than by adding the applications again, since the
+ * applications evicted among equal scores depend on how they were added.
+ *
+ * Log layout: a header (magic, version, generation) followed by records made of a checksum, a
+ * type, the generation, a length, and the Application encoded by ApplicationCodec. The checksum
+ * is a CRC32C of the rest of the record: a new generation writes over the records of the older
+ * ones, and the mapped pages may reach the disk in any order, so a record torn by a crash can
+ * mix new and old bytes, and replay stops at the first record whose checksum does not match.
+ * Records left over from an older generation are recognized by their generation, and the log is
+ * truncated after the last replayed record when it is opened, so that the records appended then
+ * never run into records left over from before the crash.
+ */
+public class OpenPositionJournal implements OpenPositionListener, Closeable {
+  private static final String LOG_FILE = "journal.log";          // name of the log file
+  private static final String CHECKPOINT_FILE = "checkpoint.bin"; // name of the checkpoint file
+  private static final int LOG_MAGIC = 0x4F504A4C;               // "OPJL"
+  private static final int CHECKPOINT_MAGIC = 0x4F50434B;        // "OPCK"
+  private static final int LOG_VERSION = 3;                      // version of the log format
+  private static final int CHECKPOINT_VERSION = 2;               // version of the checkpoints
+  private static final int HEADER_SIZE = 16;         // log magic, version and generation
+  private static final int RECORD_HEADER_SIZE = 13;  // checksum, type, generation and length
+  private static final int SEGMENT_SIZE = 64 << 20;  // size of each mapped region of the log
+  private static final byte ADMITTED = 1;            // record type of an admission
+  private static final byte EVICTED = 2;             // record type of an eviction
+  private static final byte REMOVED = 3;             // record type of a withdrawal or replacement
+
+  private final OpenPosition position;               // the position made durable
+  private final Path directory;                      // directory of the log and checkpoint
+  private final FileChannel log;                     // channel of the log file
+  private final ScheduledExecutorService flusher;    // forces the log at a fixed rate, or null
+  private final Object lock = new Object();          // guards all the fields below
+
+  private MappedByteBuffer segment;                  // mapped region of the log appended to
+  private List<MappedByteBuffer> unflushed;          // full regions not forced to disk yet
+  private long segmentStart;                         // offset of segment in the log file
+  private long generation;                           // generation of the last checkpoint
+  private boolean closed;                            // whether this journal was closed
+
+  /**
+   * Opens the journal in the given directory, creating it if needed, and recovers the content it
+   * holds into the given empty position. From then on, the journal records every admission and
+   * eviction of the position.
+   *
+   * @param directory           directory of the journal files
+   * @param position            an empty position, configured like the one which was journaled
+   * @param flushIntervalMillis interval between two forces of the log to disk, or 0 to only
+   *                            force it when sync() is called
+   * @return the opened journal
+   * @throws IllegalArgumentException if the position is not empty, or the interval is negative
+   * @throws IOException              if the journal files cannot be read or written, or are not
+   *                                  journal files
+   */
+  public static OpenPositionJournal open(Path directory, OpenPosition position,
+                                         long flushIntervalMillis) throws IOException {
+    if(position.getApplicationCount() != 0)
+      throw new IllegalArgumentException("Position not empty");
+    if(flushIntervalMillis < 0) throw new IllegalArgumentException("Invalid flush interval");
+    Files.createDirectories(directory);
+
+    OpenPositionJournal journal =
+        new OpenPositionJournal(directory, position, flushIntervalMillis);
+    position.addListener(journal);
+    return journal;
+  }
+
+  /**
+   * Creates a journal, recovering the checkpoint and the log of the directory into the position.
+   *
+   * @param directory           directory of the journal files
+   * @param position            the empty position to recover into
+   * @param flushIntervalMillis interval between two forces of the log to disk, or 0
+   * @throws IOException if the journal files cannot be read or written
+   */
+  private OpenPositionJournal(Path directory, OpenPosition position, long flushIntervalMillis)
+      throws IOException {
+    this.directory = directory;
+    this.position = position;
+
+    //  load the last checkpoint, then replay the log if it continues that checkpoint, and add
+    //  the applications left in the position at once
+    Map<String, List<Application>> applications = new LinkedHashMap<>();
+    generation = readCheckpoint(applications);
+    log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long end = replayLog(applications);
+    if(end < 0){
+      end = HEADER_SIZE;
+      log.truncate(end);
+      writeHeader(generation);
+    } else {
+      log.truncate(end);
+    }
+    List<Application> recovered = new ArrayList<>();
+    for(List<Application> same : applications.values()){
+      recovered.addAll(same);
+    }
+    position.addAll(recovered);
+
+    unflushed = new ArrayList<>();
+    segmentStart = end;
+    segment = log.map(FileChannel.MapMode.READ_WRITE, segmentStart, SEGMENT_SIZE);
+
+    //  start the group commits
+    if(flushIntervalMillis > 0){
+      flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-flusher-" + position.getPositionName());
+        thread.setDaemon(true);
+        return thread;
+      });
+      flusher.scheduleAtFixedRate(() -> {
+        try {
+          sync();
+        } catch (RuntimeException e){
+          // the journal was closed meanwhile
+        }
+      }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * Gets the position made durable by this journal
+   *
+   * @return the position of this journal
+   */
+  public OpenPosition getPosition() {
+    return position;
+  }
+
+  /**
+   * Appends an admission record to the log.
+   *
+   * @param position    the position the Application was added to
+   * @param application the added Application
+   * @throws UncheckedIOException if the log cannot be extended
+   */
+  @Override
+  public void applicationAdmitted(OpenPosition position, Application application) {
+    append(ADMITTED, application);
+  }
+
+  /**
+   * Appends an eviction record to the log.
+   *
+   * @param position    the position the Application was removed from
+   * @param application the removed Application
+   * @throws UncheckedIOException if the log cannot be extended
+   */
+  @Override
+  public void applicationEvicted(OpenPosition position, Application application) {
+    append(EVICTED, application);
+  }
+
+  /**
+   * Appends a removal record to the log.
+   *
+   * @param position    the position the Application was removed from
+   * @param application the removed Application
+   * @throws UncheckedIOException if the log cannot be extended
+   */
+  @Override
+  public void applicationRemoved(OpenPosition position, Application application) {
+    append(REMOVED, application);
+  }
+
+  /**
+   * Forces every record appended so far to disk. This is what the background thread does at a
+   * fixed interval; the caller of add() never does it.
+   *
+   * @throws IllegalStateException if this journal is closed
+   */
+  public void sync() {
+    List<MappedByteBuffer> regions;
+    synchronized(lock){
+      if(closed) throw new IllegalStateException("Journal is closed");
+      regions = unflushed;
+      regions.add(segment);
+      unflushed = new ArrayList<>();
+    }
+    //  force outside of the lock, so that appends are not blocked by the disk
+    for(MappedByteBuffer region : regions){
+      region.force();
+    }
+  }
+
+  /**
+   * Writes a checkpoint of the position, then starts a new generation of the log, so that
+   * recovery no longer replays the records written until now. The checkpoint is written to a
+   * temporary file, forced to disk and renamed over the previous one, so a crash leaves either
+   * the previous or the new checkpoint, each with the log records that follow it.
+   *
+   * This reads the priority queue of the position, so it must be called from the thread which
+   * modifies the position (or while holding the lock guarding it).
+   *
+   * @throws IOException           if the checkpoint cannot be written
+   * @throws IllegalStateException if this journal is closed
+   */
+  public void checkpoint() throws IOException {
+    long next = generation + 1;
+
+    //  encode the priority queue of the position, in its internal order so that recovery
+    //  rebuilds the very same queue
+    List<Application> applications = new ArrayList<>(position.getApplicationCount());
+    for(Iterator<Application> iterator = position.queueIterator(); iterator.hasNext(); ){
+      applications.add(iterator.next());
+    }
+    int length = 24;
+    for(Application application : applications){
+      length += ApplicationCodec.encodedLength(application);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    buffer.putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_VERSION).putLong(next)
+        .putInt(position.getCapacity()).putInt(applications.size());
+    for(Application application : applications){
+      ApplicationCodec.encode(application, buffer);
+    }
+    buffer.flip();
+
+    //  write it durably, then atomically replace the previous checkpoint
+    Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+    try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+      while(buffer.hasRemaining()){
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+
+    //  start the new generation of the log from its beginning
+    synchronized(lock){
+      if(closed) throw new IllegalStateException("Journal is closed");
+      generation = next;
+      writeHeader(next);
+      unflushed = new ArrayList<>();
+      segmentStart = HEADER_SIZE;
+      segment = log.map(FileChannel.MapMode.READ_WRITE, segmentStart, SEGMENT_SIZE);
+    }
+  }
+
+  /**
+   * Stops the background flushes, forces the log to disk and closes the journal. The position
+   * stops being journaled, and no longer notifies this journal.
+   *
+   * @throws IOException if the log cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if(flusher != null){
+      flusher.shutdown();
+      try {
+        flusher.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e){
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized(lock){
+      if(closed) return;
+    }
+    sync();
+    synchronized(lock){
+      closed = true;
+    }
+    //  leave the other listeners of the position in place
+    position.removeListener(this);
+    log.close();
+  }
+
+  /**
+   * Helper method: Appends a record to the mapped log, mapping a new region when the current one
+   * is full. The Application is encoded straight into the mapped region, and the checksum of the
+   * record is computed from it.
+   *
+   * @param type        type of the record
+   * @param application Application of the record
+   */
+  private void append(byte type, Application application) {
+    int length = RECORD_HEADER_SIZE + ApplicationCodec.encodedLength(application);
+
+    synchronized(lock){
+      if(closed) throw new IllegalStateException("Journal is closed");
+      if(segment.remaining() < length){
+        try {
+          unflushed.add(segment);
+          segmentStart += segment.position();
+          segment = log.map(FileChannel.MapMode.READ_WRITE, segmentStart,
+              Math.max(SEGMENT_SIZE, length));
+        } catch (IOException e){
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      int at = segment.position();
+      segment.put(at + 4, type);
+      segment.putInt(at + 5, (int) generation);
+      segment.putInt(at + 9, length - RECORD_HEADER_SIZE);
+      segment.position(at + RECORD_HEADER_SIZE);
+      ApplicationCodec.encode(application, segment);
+      segment.putInt(at, checksum(segment, at, length));
+    }
+  }
+
+  /**
+   * Helper method: Loads the applications of the checkpoint of the directory, if any, in the
+   * internal order of its priority queue.
+   *
+   * @param applications the recovered applications, by identity
+   * @return the generation of the checkpoint, or 0 if there is none
+   * @throws IOException if the checkpoint cannot be read or is not a valid checkpoint
+   */
+  private long readCheckpoint(Map<String, List<Application>> applications) throws IOException {
+    Path path = directory.resolve(CHECKPOINT_FILE);
+    if(!Files.exists(path)) return 0;
+
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+      if(buffer.getInt() != CHECKPOINT_MAGIC || buffer.getInt() != CHECKPOINT_VERSION)
+        throw new IOException("Invalid checkpoint " + path);
+      long checkpointGeneration = buffer.getLong();
+      buffer.getInt(); // capacity of the checkpointed position
+      int count = buffer.getInt();
+
+      for(int i = 0; i < count; i++){
+        Application application = ApplicationCodec.decode(buffer);
+        applications.computeIfAbsent(identity(application), key -> new ArrayList<>(1))
+            .add(application);
+      }
+      return checkpointGeneration;
+    } catch (BufferUnderflowException | IllegalArgumentException e){
+      throw new IOException("Invalid checkpoint " + path, e);
+    }
+  }
+
+  /**
+   * Helper method: Replays the log records of the current generation onto the recovered
+   * applications: an admission adds its application, and an eviction or a removal removes the
+   * application with the same identity. Replay stops at the first record which is incomplete,
+   * does not match its checksum, or belongs to another generation.
+   *
+   * @param applications the recovered applications, by identity
+   * @return the offset following the last replayed record, or -1 if the log does not continue
+   *         the current generation
+   * @throws IOException if the log cannot be read or is not a journal log
+   */
+  private long replayLog(Map<String, List<Application>> applications) throws IOException {
+    long fileSize = log.size();
+    if(fileSize < HEADER_SIZE) return -1;
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while(header.hasRemaining()){
+      log.read(header, header.position());
+    }
+    header.flip();
+    if(header.getInt() != LOG_MAGIC || header.getInt() != LOG_VERSION)
+      throw new IOException("Invalid journal log " + directory.resolve(LOG_FILE));
+    if(header.getLong() != generation) return -1;
+
+    long offset = HEADER_SIZE;
+    long windowStart = offset;
+    ByteBuffer window = ByteBuffer.allocate(0);
+    while(offset + RECORD_HEADER_SIZE <= fileSize){
+      //  read the record header, mapping a new window if it is not in the current one
+      int at = (int) (offset - windowStart);
+      if(at + RECORD_HEADER_SIZE > window.limit()){
+        windowStart = offset;
+        window = log.map(FileChannel.MapMode.READ_ONLY, offset,
+            Math.min(fileSize - offset, SEGMENT_SIZE));
+        at = 0;
+      }
+      byte type = window.get(at + 4);
+      if(type != ADMITTED && type != EVICTED && type != REMOVED) break;
+      if(window.getInt(at + 5) != (int) generation) break;
+      int length = RECORD_HEADER_SIZE + window.getInt(at + 9);
+      if(length <= RECORD_HEADER_SIZE || offset + length > fileSize) break;
+
+      //  read the whole record, and replay it
+      if(at + length > window.limit()){
+        windowStart = offset;
+        window = log.map(FileChannel.MapMode.READ_ONLY, offset,
+            Math.min(fileSize - offset, Math.max(SEGMENT_SIZE, length)));
+        at = 0;
+      }
+      if(window.getInt(at) != checksum(window, at, length)) break;
+      try {
+        Application application = ApplicationCodec.decode(
+            window.slice(at + RECORD_HEADER_SIZE, length - RECORD_HEADER_SIZE));
+        String identity = identity(application);
+        if(type == ADMITTED){
+          applications.computeIfAbsent(identity, key -> new ArrayList<>(1)).add(application);
+        } else {
+          List<Application> same = applications.get(identity);
+          if(same != null){
+            same.remove(same.size() - 1);
+            if(same.isEmpty()) applications.remove(identity);
+          }
+        }
+      } catch (BufferUnderflowException | IllegalArgumentException e){
+        break;
+      }
+      offset += length;
+    }
+    return offset;
+  }
+
+  /**
+   * Helper method: Returns the identity of an Application in the log, made of all its encoded
+   * fields. Applications with the same identity cannot be told apart.
+   *
+   * @param application an Application
+   * @return the identity of the Application
+   */
+  private static String identity(Application application) {
+    return application.getScore() + ":" + application.getEmail() + ":" + application.getName();
+  }
+
+  /**
+   * Helper method: Computes the checksum of a record, over all its bytes but the checksum itself.
+   *
+   * @param buffer the buffer holding the record
+   * @param at     index of the record in the buffer
+   * @param length length of the record
+   * @return the CRC32C of the record
+   */
+  private static int checksum(ByteBuffer buffer, int at, int length) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(at + 4, length - 4));
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Helper method: Writes the header of the log for the given generation and forces it to disk.
+   *
+   * @param headerGeneration generation of the log
+   * @throws IOException if the header cannot be written
+   */
+  private void writeHeader(long headerGeneration) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(LOG_MAGIC).putInt(LOG_VERSION).putLong(headerGeneration).flip();
+    while(header.hasRemaining()){
+      log.write(header, header.position());
+    }
+    log.force(false);
+  }
+
+}
@@ -0,0 +1,60 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This interface models a listener notified of the changes to the applications of an
+ * OpenPosition. The methods are called on the thread modifying the position, after its priority
+ * queue was updated, so they should return quickly and must not modify the position.
+ */
+public interface OpenPositionListener {
+  /**
+   * Called after an Application was added to the priority queue of a position.
+   *
+   * @param position    the position the Application was added to
+   * @param application the added Application
+   */
+  public void applicationAdmitted(OpenPosition position, Application application);
+
+  /**
+   * Called after an Application was removed from the priority queue of a position to make room
+   * for a higher-scored one. When a single add() both evicts and admits, the eviction is notified
+   * first.
+   *
+   * @param position    the position the Application was removed from
+   * @param application the removed Application
+   */
+  public void applicationEvicted(OpenPosition position, Application application);
+
+  /**
+   * Called after an Application was removed from the priority queue of a position because it was
+   * withdrawn, or replaced by a resubmission or a score update. When a replacement happens, the
+   * removal is notified before the admission of the new Application. Does nothing by default.
+   *
+   * @param position    the position the Application was removed from
+   * @param application the removed Application
+   */
+  public default void applicationRemoved(OpenPosition position, Application application) {
+  }
+
+  /**
+   * Called after a submission was rejected by a position because its score did not exceed the
+   * cutoff. The submission is given by its fields, since a rejected submission made through
+   * OpenPosition.add(String, String, int) has no Application. Does nothing by default.
+   *
+   * @param position the position which rejected the submission
+   * @param name     name of the applicant
+   * @param email    email of the applicant
+   * @param score    score of the applicant
+   */
+  public default void submissionRejected(OpenPosition position, String name, String email,
+                                         int score) {
+  }
+}
@@ -0,0 +1,307 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The instrumentation of an open position, set with OpenPosition.setMetrics() or
+ * ConcurrentOpenPosition.setMetrics(). A position without metrics only pays a null check on its
+ * paths; with metrics, it records:
+ * <ul>
+ *   <li>the number of applications accepted, rejected and evicted, in striped counters which
+ *       threads can increment without contending;</li>
+ *   <li>its cutoff score, as a gauge updated after every change;</li>
+ *   <li>the latency of add(Application), percolation included, and of the reads which
+ *       visit the applications (getApplications, topK and bottomK) in LatencyHistograms;</li>
+ *   <li>a JFR event for every eviction, and for every read slower than a threshold, when a flight
+ *       recording enables them.</li>
+ * </ul>
+ *
+ * Submissions rejected by the score alone, such as those of add(String, String, int) or the lock
+ * free rejections of ConcurrentOpenPosition, are counted but not timed. Applications dropped by the
+ * workers of addAll(Stream) before they reach the position are not counted.
+ *
+ * Reading the clock twice can cost more than add() itself, so the latency of add() can be
+ * sampled: the metrics then time a random 1 in addSampling calls, and still count all of them.
+ */
+public class OpenPositionMetrics {
+  // duration from which a read is reported by a SlowReadEvent, by default
+  public static final long DEFAULT_SLOW_READ_NANOS = 1_000_000;
+
+  // types of the JFR events, checked before creating an event so that none is allocated unless a
+  // recording enables it
+  private static final EventType EVICTION_EVENTS = EventType.getEventType(EvictionEvent.class);
+  private static final EventType SLOW_READ_EVENTS = EventType.getEventType(SlowReadEvent.class);
+
+  private final LongAdder accepted;            // number of accepted applications
+  private final LongAdder rejected;            // number of rejected applications
+  private final LongAdder evicted;             // number of evicted applications
+  private volatile int cutoff;                 // cutoff score of the position, last time it changed
+  private final LatencyHistogram addLatency;   // latencies of add(Application)
+  private final LatencyHistogram readLatency;  // latencies of the reads of the applications
+  private final long slowReadNanos;            // duration from which a read is reported
+  private final int addSampling;               // one in addSampling adds is timed
+
+  /**
+   * The JFR event of an eviction
+   */
+  @Name("OpenPosition.Eviction")
+  @Label("Application Evicted")
+  @Category("Open Position")
+  @Description("An application was evicted from a full position by a higher-scored one")
+  @StackTrace(false)
+  static class EvictionEvent extends Event {
+    @Label("Position")
+    String position;
+
+    @Label("Email")
+    String email;
+
+    @Label("Score")
+    int score;
+  }
+
+  /**
+   * The JFR event of a slow read of the applications
+   */
+  @Name("OpenPosition.SlowRead")
+  @Label("Slow Read")
+  @Category("Open Position")
+  @Description("A read of the applications of a position took longer than its threshold")
+  static class SlowReadEvent extends Event {
+    @Label("Position")
+    String position;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Applications")
+    int applications;
+
+    @Label("Read Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long readTime;
+  }
+
+  /**
+   * Creates new metrics timing every add, and reporting the reads slower than
+   * DEFAULT_SLOW_READ_NANOS
+   */
+  public OpenPositionMetrics() {
+    this(DEFAULT_SLOW_READ_NANOS, 1);
+  }
+
+  /**
+   * Creates new metrics timing every add, and reporting the reads slower than the given duration
+   *
+   * @param slowReadNanos the duration from which a read is reported, in nanoseconds
+   * @throws IllegalArgumentException if slowReadNanos is negative
+   */
+  public OpenPositionMetrics(long slowReadNanos) {
+    this(slowReadNanos, 1);
+  }
+
+  /**
+   * Creates new metrics timing a random 1 in addSampling adds, and reporting the reads slower
+   * than the given duration
+   *
+   * @param slowReadNanos the duration from which a read is reported, in nanoseconds
+   * @param addSampling   the average number of adds per timed add
+   * @throws IllegalArgumentException if slowReadNanos is negative, or addSampling is not a
+   *                                  positive integer
+   */
+  public OpenPositionMetrics(long slowReadNanos, int addSampling) {
+    if(slowReadNanos < 0) throw new IllegalArgumentException("Invalid threshold");
+    if(addSampling <= 0) throw new IllegalArgumentException("Invalid sampling");
+
+    accepted = new LongAdder();
+    rejected = new LongAdder();
+    evicted = new LongAdder();
+    cutoff = -1;
+    addLatency = new LatencyHistogram();
+    readLatency = new LatencyHistogram();
+    this.slowReadNanos = slowReadNanos;
+    this.addSampling = addSampling;
+  }
+
+  /**
+   * Returns the number of applications accepted by the position
+   *
+   * @return the number of accepted applications
+   */
+  public long getAccepted() {
+    return accepted.sum();
+  }
+
+  /**
+   * Returns the number of applications rejected by the position
+   *
+   * @return the number of rejected applications
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * Returns the number of applications evicted from the position by higher-scored ones
+   *
+   * @return the number of evicted applications
+   */
+  public long getEvicted() {
+    return evicted.sum();
+  }
+
+  /**
+   * Returns the cutoff score of the position, as of its last change
+   *
+   * @return the cutoff score of the position
+   * @see OpenPosition#cutoffScore()
+   */
+  public int getCutoff() {
+    return cutoff;
+  }
+
+  /**
+   * Returns the histogram of the latencies of add(Application), as sampled
+   *
+   * @return the histogram of the latencies of add(Application)
+   */
+  public LatencyHistogram getAddLatency() {
+    return addLatency;
+  }
+
+  /**
+   * Returns the histogram of the latencies of the reads of the applications
+   *
+   * @return the histogram of the latencies of getApplications, topK and bottomK
+   */
+  public LatencyHistogram getReadLatency() {
+    return readLatency;
+  }
+
+  /**
+   * Sends the current value of every metric to the given sink.
+   *
+   * @param position the name of the position of these metrics
+   * @param sink     the sink to send the metrics to
+   */
+  public void publish(String position, MetricsSink sink) {
+    sink.counter(position, "accepted", getAccepted());
+    sink.counter(position, "rejected", getRejected());
+    sink.counter(position, "evicted", getEvicted());
+    sink.gauge(position, "cutoff", getCutoff());
+    sink.histogram(position, "add.latency", addLatency);
+    sink.histogram(position, "read.latency", readLatency);
+  }
+
+  /**
+   * Tells whether the next add(Application) should be timed.
+   *
+   * @return true for a random 1 in addSampling calls
+   */
+  boolean sampleAdd() {
+    return addSampling == 1 || ThreadLocalRandom.current().nextInt(addSampling) == 0;
+  }
+
+  /**
+   * Records an add(Application).
+   *
+   * @param added whether the application was accepted
+   */
+  void recordAdd(boolean added) {
+    if(added) accepted.increment();
+    else rejected.increment();
+  }
+
+  /**
+   * Records the latency of an add(Application).
+   *
+   * @param nanos the latency of the call, in nanoseconds
+   */
+  void recordAddLatency(long nanos) {
+    addLatency.record(nanos);
+  }
+
+  /**
+   * Records applications offered together, of which the given number were accepted.
+   *
+   * @param offered the number of applications offered
+   * @param added   the number of those accepted
+   */
+  void recordAddAll(int offered, int added) {
+    accepted.add(added);
+    rejected.add(offered - added);
+  }
+
+  /**
+   * Records an application rejected by its score alone.
+   */
+  void recordRejection() {
+    rejected.increment();
+  }
+
+  /**
+   * Records an eviction, and reports it to JFR when a recording enables it. No event is created
+   * otherwise.
+   *
+   * @param position    the position the application was evicted from
+   * @param application the evicted application
+   */
+  void recordEviction(OpenPosition position, Application application) {
+    evicted.increment();
+    if(EVICTION_EVENTS.isEnabled()){
+      EvictionEvent event = new EvictionEvent();
+      event.position = position.getPositionName();
+      event.email = application.getEmail();
+      event.score = application.getScore();
+      event.commit();
+    }
+  }
+
+  /**
+   * Records the latency of a read, and reports it to JFR if it is slow and a recording enables it.
+   *
+   * @param position     the position which was read
+   * @param operation    the name of the read
+   * @param applications the number of applications of the position
+   * @param nanos        the latency of the read, in nanoseconds
+   */
+  void recordRead(OpenPosition position, String operation, int applications, long nanos) {
+    readLatency.record(nanos);
+    if(nanos < slowReadNanos || !SLOW_READ_EVENTS.isEnabled()) return;
+    SlowReadEvent event = new SlowReadEvent();
+    if(event.shouldCommit()){
+      event.position = position.getPositionName();
+      event.operation = operation;
+      event.applications = applications;
+      event.readTime = nanos;
+      event.commit();
+    }
+  }
+
+  /**
+   * Updates the cutoff gauge.
+   *
+   * @param cutoff the new cutoff score of the position
+   */
+  void setCutoff(int cutoff) {
+    this.cutoff = cutoff;
+  }
+
+}
@@ -0,0 +1,185 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * A thread-safe registry of many open positions, keyed by their id, to which an application can
+ * be submitted for several positions at once.
+ *
+ * Every position is a ConcurrentOpenPosition, so submissions to different positions never contend,
+ * and submissions below the cutoff of a position do not even lock it. A position which received no
+ * application holds no array of applications and no score counts, so a registry can keep tens of
+ * thousands of positions, most of them quiet, in little memory.
+ *
+ * Submitting an application to many positions fans out in parallel over the common fork-join
+ * pool; small fan-outs, for which handing work to other threads would cost more than the
+ * submissions themselves, are done on the calling thread. Queries across all the positions use
+ * the parallel bulk operations of ConcurrentHashMap in the same way.
+ */
+public class OpenPositionRegistry {
+  // number of positions from which a submission fans out in parallel
+  private static final int PARALLEL_FAN_OUT = 256;
+  // number of positions from which a query runs in parallel
+  private static final long PARALLEL_QUERY = 4096;
+
+  private final ConcurrentHashMap<String, ConcurrentOpenPosition> positions; // positions by id
+
+  /**
+   * Creates a new empty registry
+   */
+  public OpenPositionRegistry() {
+    positions = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Opens a new position with the given id and capacity in this registry.
+   *
+   * @param positionId the id of the position, also its name
+   * @param capacity   the number of vacancies of the position
+   * @return the new position
+   * @throws NullPointerException     if positionId is null
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if a position has the same id
+   */
+  public ConcurrentOpenPosition open(String positionId, int capacity) {
+    ConcurrentOpenPosition position = new ConcurrentOpenPosition(positionId, capacity);
+    if(positions.putIfAbsent(positionId, position) != null)
+      throw new IllegalArgumentException("Duplicate position " + positionId);
+    return position;
+  }
+
+  /**
+   * Removes the position with the given id from this registry.
+   *
+   * @param positionId the id of the position
+   * @return the removed position, or null if there was none with this id
+   */
+  public ConcurrentOpenPosition close(String positionId) {
+    return positions.remove(positionId);
+  }
+
+  /**
+   * Returns the position with the given id
+   *
+   * @param positionId the id of the position
+   * @return the position with the given id, or null if there is none
+   */
+  public ConcurrentOpenPosition get(String positionId) {
+    return positions.get(positionId);
+  }
+
+  /**
+   * Returns the number of positions in this registry
+   *
+   * @return the number of positions in this registry
+   */
+  public int size() {
+    return positions.size();
+  }
+
+  /**
+   * Submits the given Application to every given position, in parallel when there are many.
+   *
+   * @param application the Application to submit
+   * @param positionIds the ids of the positions to submit it to
+   * @return for each position id, in order, whether the Application was added to that position
+   * @throws NullPointerException   if the application is null
+   * @throws NoSuchElementException if a position id is not in this registry, in which case the
+   *                                Application was not submitted anywhere
+   */
+  public boolean[] submit(Application application, String... positionIds) {
+    if(application == null) throw new NullPointerException("Null Application");
+    ConcurrentOpenPosition[] targets = resolve(positionIds);
+
+    boolean[] added = new boolean[targets.length];
+    if(targets.length < PARALLEL_FAN_OUT){
+      for(int i = 0; i < targets.length; i++){
+        added[i] = targets[i].add(application);
+      }
+    } else {
+      IntStream.range(0, targets.length).parallel()
+          .forEach(i -> added[i] = targets[i].add(application));
+    }
+    return added;
+  }
+
+  /**
+   * Returns the current cutoff score of each given position. This never blocks.
+   *
+   * @param positionIds the ids of the positions
+   * @return for each position id, in order, the cutoff score of that position
+   * @throws NoSuchElementException if a position id is not in this registry
+   * @see ConcurrentOpenPosition#cutoffScore()
+   */
+  public int[] cutoffScores(String... positionIds) {
+    ConcurrentOpenPosition[] targets = resolve(positionIds);
+    int[] cutoffs = new int[targets.length];
+    for(int i = 0; i < targets.length; i++){
+      cutoffs[i] = targets[i].cutoffScore();
+    }
+    return cutoffs;
+  }
+
+  /**
+   * Returns the current cutoff score of every position of this registry. This never blocks.
+   *
+   * @return the cutoff score of every position, by id
+   * @see ConcurrentOpenPosition#cutoffScore()
+   */
+  public Map<String, Integer> cutoffScores() {
+    Map<String, Integer> cutoffs = new HashMap<>(2 * positions.size());
+    positions.forEach((id, position) -> cutoffs.put(id, position.cutoffScore()));
+    return cutoffs;
+  }
+
+  /**
+   * Returns the total score of the applications of all the positions of this registry. Each
+   * position is read atomically, but the positions are read one after the other.
+   *
+   * @return the sum of the total scores of all the positions
+   */
+  public long getTotalScore() {
+    return positions.reduceValuesToLong(PARALLEL_QUERY, ConcurrentOpenPosition::getTotalScore, 0,
+        Long::sum);
+  }
+
+  /**
+   * Returns the number of applications of all the positions of this registry. Each position is
+   * read atomically, but the positions are read one after the other.
+   *
+   * @return the sum of the application counts of all the positions
+   */
+  public long getApplicationCount() {
+    return positions.reduceValuesToLong(PARALLEL_QUERY,
+        ConcurrentOpenPosition::getApplicationCount, 0, Long::sum);
+  }
+
+  /**
+   * Helper method: Looks up the positions with the given ids.
+   *
+   * @param positionIds the ids of the positions
+   * @return the positions, in the order of their ids
+   * @throws NoSuchElementException if a position id is not in this registry
+   */
+  private ConcurrentOpenPosition[] resolve(String... positionIds) {
+    ConcurrentOpenPosition[] targets = new ConcurrentOpenPosition[positionIds.length];
+    for(int i = 0; i < positionIds.length; i++){
+      targets[i] = positions.get(positionIds[i]);
+      if(targets[i] == null) throw new NoSuchElementException("No position " + positionIds[i]);
+    }
+    return targets;
+  }
+
+}
@@ -8,7 +8,37 @@
 // Lecturer: Mouna Kacem
 //
 ///////////////////////////////////////////////////////////////////////////////
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * This class implements unit test methods to check the correctness of Application,
@@ -164,6 +194,47 @@ public class OpenPositionTester {
     if(smallest.compareTo(middle) > 0) return false;
     if(middle.compareTo(largest) >0) return false;
 
+    if(iterator.hasNext()) return false;
+
+    // iterating must not modify the queue
+    if(queue.size() != 3 || queue.peek() != app3) return false;
+
+    // iterate over a queue which is not full, with many duplicate scores
+    Random random = new Random(300);
+    ApplicationQueue bigQueue = new ApplicationQueue(500);
+    int expectedTotal = 0;
+    for(int i = 0; i < 400; i++){
+      int score = random.nextInt(101);
+      expectedTotal += score;
+      bigQueue.enqueue(new Application("app" + i, "m@email.com", score));
+    }
+    int count = 0;
+    int previous = -1;
+    for(Application a : bigQueue){
+      if(a.getScore() < previous) return false;
+      previous = a.getScore();
+      count++;
+    }
+    if(count != 400) return false;
+
+    // the unordered iterator visits every application once
+    int total = 0;
+    for(Iterator<Application> it = bigQueue.unorderedIterator(); it.hasNext(); ){
+      total += it.next().getScore();
+    }
+    if(total != expectedTotal) return false;
+
+    // modifying the queue during the iteration must be detected
+    Iterator<Application> failing = bigQueue.iterator();
+    failing.next();
+    bigQueue.dequeue();
+    try {
+      failing.next();
+      return false;
+    } catch (ConcurrentModificationException e){
+      // Passed
+    }
+
     return true;
   }
 
@@ -253,6 +324,162 @@ public class OpenPositionTester {
     return true;
   }
 
+  /**
+   * This method tests and makes use of the replaceTop() method in the ApplicationQueue class.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testReplaceTop() {
+    ApplicationQueue queue = new ApplicationQueue(4);
+    Application app1 = new Application("app1", "m@email.com", 10);
+    Application app2 = new Application("app2", "m@email.com", 20);
+    Application app3 = new Application("app3", "m@email.com", 5);
+    Application app4 = new Application("app4", "m@email.com", 15);
+    Application app5 = new Application("app5", "m@email.com", 30);
+
+    // replacing the top of an empty queue should fail
+    try {
+      queue.replaceTop(app1);
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+
+    queue.enqueue(app1);
+    queue.enqueue(app2);
+    queue.enqueue(app3);
+    queue.enqueue(app4);
+
+    // a null replacement should fail without modifying the queue
+    try {
+      queue.replaceTop(null);
+      return false;
+    } catch (NullPointerException e){
+      // Passed
+    }
+    if(queue.size() != 4 || queue.peek() != app3) return false;
+
+    // the root is returned and the replacement sinks to its place
+    if(queue.replaceTop(app5) != app3) return false;
+    if(queue.size() != 4 || queue.peek() != app1) return false;
+    if(queue.dequeue() != app1) return false;
+    if(queue.dequeue() != app4) return false;
+    if(queue.dequeue() != app2) return false;
+    if(queue.dequeue() != app5) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of ApplicationQueues with an arity higher than 2, by running
+   * the same random operations on them and on a binary ApplicationQueue.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationQueueArity() {
+    try {
+      ApplicationQueue queue = new ApplicationQueue(3, 1);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    try {
+      ApplicationQueue queue = new ApplicationQueue(3, 65);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    int[] arities = {3, 4, 8, 64};
+    for(int arity : arities){
+      ApplicationQueue queue = new ApplicationQueue(100, arity);
+      ApplicationQueue reference = new ApplicationQueue(100);
+      Random random = new Random(300);
+      for(int i = 0; i < 5000; i++){
+        Application application = new Application("app" + i, "m@email.com", random.nextInt(101));
+        int operation = random.nextInt(3);
+        if(operation == 0 && reference.size() < 100){
+          queue.enqueue(application);
+          reference.enqueue(application);
+        } else if(operation == 1 && !reference.isEmpty()){
+          if(queue.dequeue().getScore() != reference.dequeue().getScore()) return false;
+        } else if(!reference.isEmpty()){
+          if(queue.replaceTop(application).getScore()
+              != reference.replaceTop(application).getScore()) return false;
+        }
+        if(!reference.isEmpty() && queue.peek().getScore() != reference.peek().getScore())
+          return false;
+      }
+
+      // the ordered iteration visits every application in order
+      List<Application> bulk = new ArrayList<>();
+      while(queue.size() + bulk.size() < 100){
+        bulk.add(new Application("bulk", "m@email.com", random.nextInt(101)));
+      }
+      queue.enqueueAll(bulk);
+      int count = 0;
+      int previous = -1;
+      for(Application a : queue){
+        if(a.getScore() < previous) return false;
+        previous = a.getScore();
+        count++;
+      }
+      if(count != 100) return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the deepCopy() and snapshot() methods in the
+   * ApplicationQueue class.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testDeepCopyAndSnapshot() {
+    ApplicationQueue queue = new ApplicationQueue(5);
+    Application app1 = new Application("app1", "m@email.com", 10);
+    Application app2 = new Application("app2", "m@email.com", 20);
+    Application app3 = new Application("app3", "m@email.com", 5);
+    queue.enqueue(app1);
+    queue.enqueue(app2);
+    queue.enqueue(app3);
+
+    // a copy of a queue which is not full has the same content, and is independent
+    ApplicationQueue copy = queue.deepCopy();
+    if(copy.size() != 3 || !copy.toString().equals(queue.toString())) return false;
+    copy.enqueue(new Application("app4", "m@email.com", 1));
+    if(queue.size() != 3 || queue.peek() != app3) return false;
+
+    // a snapshot keeps its content while the queue changes
+    ApplicationQueue snapshot = queue.snapshot();
+    String before = snapshot.toString();
+    queue.dequeue();
+    queue.replaceTop(new Application("app5", "m@email.com", 50));
+    queue.enqueue(new Application("app6", "m@email.com", 0));
+    if(!snapshot.toString().equals(before) || snapshot.size() != 3) return false;
+    if(snapshot.peek() != app3 || queue.peek().getScore() != 0) return false;
+
+    // a snapshot cannot be modified, but its copies can
+    try {
+      snapshot.enqueue(app1);
+      return false;
+    } catch (UnsupportedOperationException e){
+      // Passed
+    }
+    try {
+      snapshot.dequeue();
+      return false;
+    } catch (UnsupportedOperationException e){
+      // Passed
+    }
+    if(snapshot.snapshot() != snapshot) return false;
+    ApplicationQueue snapshotCopy = snapshot.deepCopy();
+    if(snapshotCopy.dequeue() != app3 || snapshot.size() != 3) return false;
+
+    return true;
+  }
+
   /**
    * This method tests and makes use of the common methods (isEmpty(), size(), peek())
    * in the ApplicationQueue class.
@@ -355,6 +582,1705 @@ public class OpenPositionTester {
     return true;
   }
 
+  /**
+   * This method tests and makes use of the running aggregates of the OpenPosition class.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOpenPositionStats() {
+    OpenPosition op = new OpenPosition("Name", 3);
+
+    // verify the aggregates of an empty position
+    if(op.getTotalScore() != 0 || op.getApplicationCount() != 0) return false;
+    try {
+      op.getLowestScore();
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+    try {
+      op.getHighestScore();
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+
+    // verify the aggregates while the position fills up
+    op.add(new Application("app1", "m@email.com", 40));
+    op.add(new Application("app2", "m@email.com", 90));
+    op.add(new Application("app3", "m@email.com", 40));
+    if(op.getTotalScore() != 170 || op.getApplicationCount() != 3) return false;
+    if(op.getLowestScore() != 40 || op.getHighestScore() != 90) return false;
+    if(op.getScoreCount(40) != 2 || op.getScoreCount(90) != 1) return false;
+
+    // verify the aggregates after evictions
+    op.add(new Application("app4", "m@email.com", 95));
+    op.add(new Application("app5", "m@email.com", 10));
+    if(op.getTotalScore() != 225 || op.getApplicationCount() != 3) return false;
+    if(op.getLowestScore() != 40 || op.getHighestScore() != 95) return false;
+    if(op.getScoreCount(40) != 1 || op.getScoreCount(10) != 0) return false;
+
+    // the highest score drops when its only application is evicted
+    OpenPosition single = new OpenPosition("Name", 1);
+    single.add(new Application("app1", "m@email.com", 60));
+    single.add(new Application("app2", "m@email.com", 70));
+    if(single.getHighestScore() != 70 || single.getTotalScore() != 70) return false;
+
+    try {
+      op.getScoreCount(101);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the topK(), bottomK() and cutoffScore() methods of the
+   * OpenPosition class, with both the default and the bucketed queue.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testTopAndBottomK() {
+    OpenPosition[] positions = {new OpenPosition("Name", 50),
+        new OpenPosition("Name", 50, new BucketedApplicationQueue(50))};
+
+    for(OpenPosition op : positions){
+      if(op.cutoffScore() != -1 || !op.topK(5).isEmpty()) return false;
+
+      Random random = new Random(300);
+      for(int i = 0; i < 200; i++){
+        op.add(new Application("app" + i, "m@email.com", random.nextInt(101)));
+      }
+      if(op.cutoffScore() != op.getLowestScore()) return false;
+
+      // bottomK matches the beginning of the ordered listing
+      String[] lines = op.getApplications().split("\n");
+      List<Application> bottom = op.bottomK(10);
+      if(bottom.size() != 10) return false;
+      for(int i = 0; i < 10; i++){
+        if(!bottom.get(i).toString().equals(lines[i])) return false;
+      }
+
+      // topK returns the highest scores in decreasing order
+      List<Application> top = op.topK(10);
+      if(top.size() != 10) return false;
+      for(int i = 0; i < 10; i++){
+        int expected = Integer.parseInt(lines[lines.length - 1 - i].split(":")[2]);
+        if(top.get(i).getScore() != expected) return false;
+      }
+
+      // asking for more than the size returns everything
+      if(op.topK(80).size() != 50 || op.bottomK(80).size() != 50) return false;
+      if(op.topK(50).get(49).getScore() != op.getLowestScore()) return false;
+      if(!op.bottomK(0).isEmpty()) return false;
+
+      try {
+        op.topK(-1);
+        return false;
+      } catch (IllegalArgumentException e){
+        // Passed
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the ConcurrentOpenPosition class, by adding the same
+   * applications from several threads and sequentially, and comparing the results.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testConcurrentOpenPosition() {
+    ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Name", 100);
+    OpenPosition sequential = new OpenPosition("Name", 100);
+    if(concurrent.cutoffScore() != -1) return false;
+
+    Application[] applications = new Application[20000];
+    Random random = new Random(300);
+    for(int i = 0; i < applications.length; i++){
+      applications[i] = new Application("app" + i, "m@email.com", random.nextInt(101));
+      sequential.add(applications[i]);
+    }
+
+    // add the applications from 4 threads, each taking every 4th application
+    Thread[] threads = new Thread[4];
+    for(int t = 0; t < threads.length; t++){
+      final int first = t;
+      threads[t] = new Thread(() -> {
+        for(int i = first; i < applications.length; i += threads.length){
+          concurrent.add(applications[i]);
+        }
+      });
+      threads[t].start();
+    }
+    try {
+      for(Thread thread : threads){
+        thread.join();
+      }
+    } catch (InterruptedException e){
+      return false;
+    }
+
+    // the same scores are retained, whatever the interleaving
+    if(concurrent.getApplicationCount() != 100) return false;
+    if(concurrent.getTotalScore() != sequential.getTotalScore()) return false;
+    if(concurrent.cutoffScore() != sequential.cutoffScore()) return false;
+    if(concurrent.getHighestScore() != sequential.getHighestScore()) return false;
+
+    // a submission below the cutoff is rejected
+    if(concurrent.add(new Application("late", "m@email.com", concurrent.cutoffScore())))
+      return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the parallel addAll(Stream) method of the OpenPosition
+   * class, by comparing it with sequential calls to add().
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testParallelAddAll() {
+    OpenPosition parallel = new OpenPosition("Name", 100);
+    OpenPosition sequential = new OpenPosition("Name", 100);
+
+    Application[] applications = new Application[20000];
+    Random random = new Random(300);
+    for(int i = 0; i < applications.length; i++){
+      applications[i] = new Application("app" + i, "m@email.com", random.nextInt(101));
+      sequential.add(applications[i]);
+    }
+
+    if(parallel.addAll(Arrays.stream(applications)) != 100) return false;
+    if(parallel.getTotalScore() != sequential.getTotalScore()) return false;
+    if(parallel.cutoffScore() != sequential.cutoffScore()) return false;
+
+    // adding the same applications again through a spliterator admits none of them
+    if(parallel.addAll(Arrays.spliterator(applications)) != 0) return false;
+    if(parallel.getTotalScore() != sequential.getTotalScore()) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the addAll(Collection) method of the OpenPosition class,
+   * and of the enqueueAll() method of the ApplicationQueue class.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testBatchAddAll() {
+    // enqueueAll keeps the queue unchanged when it fails
+    ApplicationQueue queue = new ApplicationQueue(3);
+    Application app1 = new Application("app1", "m@email.com", 10);
+    Application app2 = new Application("app2", "m@email.com", 20);
+    Application app3 = new Application("app3", "m@email.com", 5);
+    queue.enqueue(app1);
+    try {
+      queue.enqueueAll(Arrays.asList(app2, null));
+      return false;
+    } catch (NullPointerException e){
+      // Passed
+    }
+    try {
+      queue.enqueueAll(Arrays.asList(app2, app3, app1));
+      return false;
+    } catch (IllegalStateException e){
+      // Passed
+    }
+    if(queue.size() != 1 || queue.peek() != app1) return false;
+    queue.enqueueAll(Arrays.asList(app2, app3));
+    if(queue.dequeue() != app3 || queue.dequeue() != app1 || queue.dequeue() != app2) return false;
+
+    // batches retain the same scores as sequential adds, full or not, with the default or the
+    // bucketed queue
+    Random random = new Random(300);
+    OpenPosition[] batched = {new OpenPosition("Name", 200),
+        new OpenPosition("Name", 200, new BucketedApplicationQueue(200))};
+    OpenPosition sequential = new OpenPosition("Name", 200);
+    int[] batchSizes = {50, 100, 1000, 10, 5000, 0};
+    for(int batchSize : batchSizes){
+      List<Application> batch = new ArrayList<>();
+      for(int i = 0; i < batchSize; i++){
+        batch.add(new Application("app" + i, "m@email.com", 40 + random.nextInt(61)));
+      }
+      for(Application application : batch){
+        sequential.add(application);
+      }
+      for(OpenPosition op : batched){
+        op.addAll(batch);
+        if(op.getApplicationCount() != sequential.getApplicationCount()) return false;
+        if(op.getTotalScore() != sequential.getTotalScore()) return false;
+        for(int score = 0; score <= 100; score++){
+          if(op.getScoreCount(score) != sequential.getScoreCount(score)) return false;
+        }
+        if(op.getLowestScore() != sequential.getLowestScore()) return false;
+        if(op.getHighestScore() != sequential.getHighestScore()) return false;
+        int previous = -1;
+        for(Application a : op.bottomK(200)){
+          if(a.getScore() < previous) return false;
+          previous = a.getScore();
+        }
+      }
+    }
+
+    // ties at the cutoff are not admitted, and the count of admissions is reported
+    OpenPosition op = new OpenPosition("Name", 2);
+    if(op.addAll(Arrays.asList(app1, app2, app3)) != 2) return false;
+    if(op.addAll(Arrays.asList(app1, new Application("app4", "m@email.com", 30))) != 1)
+      return false;
+    if(op.getTotalScore() != 50) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the BucketedApplicationQueue class, alone and as the
+   * queue of an OpenPosition.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testBucketedApplicationQueue() {
+    // create a BucketedApplicationQueue with 0 capacity (should fail)
+    try {
+      BucketedApplicationQueue queue = new BucketedApplicationQueue(0);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    } catch (Exception e){
+      return false;
+    }
+
+    BucketedApplicationQueue queue = new BucketedApplicationQueue(3);
+    Application app1 = new Application("app1", "m@email.com", 10);
+    Application app2 = new Application("app2", "m@email.com", 100);
+    Application app3 = new Application("app3", "m@email.com", 0);
+    Application app4 = new Application("app4", "m@email.com", 64);
+
+    // verify the methods' behaviors on an empty queue
+    if(!queue.isEmpty()) return false;
+    try {
+      queue.peek();
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+
+    // fill the queue, then try to exceed its capacity
+    queue.enqueue(app1);
+    queue.enqueue(app2);
+    queue.enqueue(app3);
+    if(queue.size() != 3 || queue.peek() != app3) return false;
+    try {
+      queue.enqueue(app4);
+      return false;
+    } catch (IllegalStateException e){
+      // Passed
+    }
+
+    // verify the listing is sorted and dequeue gives the lowest scores first
+    if(!queue.toString().equals("app3:m@email.com:0\napp1:m@email.com:10\n" +
+            "app2:m@email.com:100\n")) return false;
+    if(queue.dequeue() != app3) return false;
+    queue.enqueue(app4);
+    if(queue.dequeue() != app1) return false;
+    if(queue.dequeue() != app4) return false;
+    if(queue.dequeue() != app2) return false;
+    if(!queue.isEmpty()) return false;
+
+    // an OpenPosition built with a bucketed queue behaves like the default one
+    OpenPosition op = new OpenPosition("Name", 2, new BucketedApplicationQueue(2));
+    if(!op.add(app1) || !op.add(app4)) return false;
+    if(op.add(app3)) return false;
+    if(!op.add(app2)) return false;
+    if(!op.getApplications().equals("app4:m@email.com:64\napp2:m@email.com:100\n"))
+      return false;
+    if(op.getTotalScore() != 164) return false;
+
+    // a non-empty queue cannot be used to build an OpenPosition
+    try {
+      BucketedApplicationQueue used = new BucketedApplicationQueue(2);
+      used.enqueue(app1);
+      new OpenPosition("Name", 2, used);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the PackedApplicationQueue class, by running the same
+   * random operations on it and on an ApplicationQueue.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testPackedApplicationQueue() {
+    try {
+      PackedApplicationQueue queue = new PackedApplicationQueue(0);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    PackedApplicationQueue packed = new PackedApplicationQueue(64);
+    ApplicationQueue reference = new ApplicationQueue(64);
+    try {
+      packed.peek();
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+
+    Random random = new Random(300);
+    for(int i = 0; i < 5000; i++){
+      Application application = new Application("app" + i, "m@email.com", random.nextInt(101));
+      int operation = random.nextInt(3);
+      if(operation == 0 && reference.size() < 64){
+        packed.enqueue(application);
+        reference.enqueue(application);
+      } else if(operation == 1 && !reference.isEmpty()){
+        if(packed.dequeue().getScore() != reference.dequeue().getScore()) return false;
+      } else if(!reference.isEmpty()){
+        if(packed.replaceTop(application).getScore()
+            != reference.replaceTop(application).getScore()) return false;
+      }
+      if(packed.size() != reference.size()) return false;
+      if(!reference.isEmpty() && packed.peek().getScore() != reference.peek().getScore())
+        return false;
+    }
+
+    // the ordered iteration is sorted and complete, and bulk loads keep the heap condition
+    packed.enqueueAll(Arrays.asList(new Application("bulk1", "m@email.com", 0),
+        new Application("bulk2", "m@email.com", 100)));
+    int count = 0;
+    int previous = -1;
+    for(Application a : packed){
+      if(a.getScore() < previous) return false;
+      previous = a.getScore();
+      count++;
+    }
+    if(count != packed.size() || packed.peek().getScore() != 0) return false;
+
+    // an OpenPosition built with a packed queue behaves like the default one
+    OpenPosition op = new OpenPosition("Name", 3, new PackedApplicationQueue(3));
+    Application app1 = new Application("app1", "email@gmail.com", 1);
+    Application app2 = new Application("app2", "email@gmail.com", 9);
+    Application app3 = new Application("app3", "email@gmail.com", 6);
+    Application app4 = new Application("app4", "email@gmail.com", 4);
+    Application app5 = new Application("app5", "email@gmail.com", 20);
+    if(!op.add(app2) || !op.add(app3) || !op.add(app4) || op.add(app1) || !op.add(app5))
+      return false;
+    if(!op.getApplications().equals("app3:email@gmail.com:6\napp2:email@gmail.com:9\n" +
+        "app5:email@gmail.com:20\n")) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the OpenPositionJournal class, by recovering positions from
+   * the journal of another one, with and without a checkpoint.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOpenPositionJournal() {
+    Path directory = null;
+    try {
+      directory = Files.createTempDirectory("journal");
+      Random random = new Random(300);
+
+      // journal a position, without any checkpoint
+      OpenPositionJournal journal = OpenPositionJournal.open(directory,
+          new OpenPosition("Name", 50), 10);
+      OpenPosition original = journal.getPosition();
+      for(int i = 0; i < 1000; i++){
+        original.add(new Application("app" + i, "m" + i + "@email.com", random.nextInt(101)));
+      }
+      journal.close();
+
+      OpenPositionJournal recovered = OpenPositionJournal.open(directory,
+          new OpenPosition("Name", 50), 0);
+      if(!sortedApplications(recovered.getPosition()).equals(sortedApplications(original)))
+        return false;
+
+      // checkpoint, then keep adding to the recovered position
+      recovered.checkpoint();
+      OpenPosition position = recovered.getPosition();
+      for(int i = 0; i < 1000; i++){
+        position.add(new Application("new" + i, "n" + i + "@email.com", random.nextInt(101)));
+      }
+      recovered.sync();
+      List<String> expected = sortedApplications(position);
+      recovered.close();
+
+      // recovery loads the checkpoint and replays the rest of the log
+      OpenPositionJournal again = OpenPositionJournal.open(directory,
+          new OpenPosition("Name", 50), 0);
+      if(!sortedApplications(again.getPosition()).equals(expected)) return false;
+      if(again.getPosition().getTotalScore() != position.getTotalScore()) return false;
+      again.close();
+
+      // a position which is not empty cannot be recovered into
+      OpenPosition used = new OpenPosition("Name", 50);
+      used.add(new Application("app", "m@email.com", 1));
+      try {
+        OpenPositionJournal.open(directory, used, 0);
+        return false;
+      } catch (IllegalArgumentException e){
+        // Passed
+      }
+
+      // a record torn by a crash is not replayed, even over a valid record of an older generation:
+      // generation 0 records A admitted, B admitted, A removed and B removed, all of the same
+      // length, then generation 1 records C admitted over the first one, and a torn append writes
+      // its generation and length over the second, which would admit B again
+      Path torn = Files.createTempDirectory("journal");
+      try {
+        try(OpenPositionJournal journaled = OpenPositionJournal.open(torn,
+            new OpenPosition("Torn", 2, new IndexedApplicationQueue(2)), 0)){
+          journaled.getPosition().add(new Application("a", "a@email.com", 50));
+          journaled.getPosition().add(new Application("b", "b@email.com", 60));
+          journaled.getPosition().withdraw("a@email.com");
+          journaled.getPosition().withdraw("b@email.com");
+          journaled.checkpoint();
+          journaled.getPosition().add(new Application("c", "c@email.com", 10));
+        }
+        int length = ApplicationCodec.encodedLength(new Application("b", "b@email.com", 60));
+        try(FileChannel log = FileChannel.open(torn.resolve("journal.log"),
+            StandardOpenOption.WRITE)){
+          ByteBuffer header = ByteBuffer.allocate(8).putInt(1).putInt(length);
+          header.flip();
+          log.write(header, 16 + (13 + length) + 5);
+        }
+        try(OpenPositionJournal replayed = OpenPositionJournal.open(torn,
+            new OpenPosition("Torn", 2, new IndexedApplicationQueue(2)), 0)){
+          if(!replayed.getPosition().getApplications().equals("c:c@email.com:10\n"))
+            return false;
+          replayed.getPosition().add(new Application("d", "d@email.com", 40));
+        }
+        try(OpenPositionJournal replayed = OpenPositionJournal.open(torn,
+            new OpenPosition("Torn", 2, new IndexedApplicationQueue(2)), 0)){
+          if(!replayed.getPosition().getApplications().equals(
+              "c:c@email.com:10\nd:d@email.com:40\n")) return false;
+        }
+      } finally {
+        deleteRecursively(torn);
+      }
+
+      // evictions among equal scores are replayed as recorded, whether by add() or addAll()
+      for(int seed = 0; seed < 200; seed++){
+        Path ties = Files.createTempDirectory("journal");
+        try {
+          random = new Random(seed);
+          OpenPosition tied = new OpenPosition("Ties", 6);
+          try(OpenPositionJournal journaled = OpenPositionJournal.open(ties, tied, 0)){
+            for(int i = 0; i < 30; ){
+              if(random.nextBoolean()){
+                journaled.getPosition().add(
+                    new Application("a" + i, "a@email.com", random.nextInt(4)));
+                i++;
+              } else {
+                List<Application> batch = new ArrayList<>();
+                for(int j = random.nextInt(5); j >= 0; j--, i++){
+                  batch.add(new Application("a" + i, "a@email.com", random.nextInt(4)));
+                }
+                journaled.getPosition().addAll(batch);
+              }
+            }
+          }
+          try(OpenPositionJournal replayed =
+              OpenPositionJournal.open(ties, new OpenPosition("Ties", 6), 0)){
+            if(!sortedApplications(replayed.getPosition()).equals(sortedApplications(tied)))
+              return false;
+          }
+        } finally {
+          deleteRecursively(ties);
+        }
+      }
+    } catch (IOException e){
+      return false;
+    } finally {
+      deleteRecursively(directory);
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the ApplicationCodec class, by encoding and decoding
+   * Applications and ApplicationQueues.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationCodec() {
+    // Applications round-trip, including non-ASCII names and a name of more than 127 bytes
+    String longName = "x".repeat(200);
+    Application[] applications = {new Application("app1", "m@email.com", 0),
+        new Application("Zo\u00eb \u00c5sa \u4e2d\uD83D\uDE00", "z:o@email.com", 100),
+        new Application(longName, "l@email.com", 42)};
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    for(Application a : applications){
+      ApplicationCodec.encode(a, buffer);
+    }
+    if(buffer.position() != ApplicationCodec.encodedLength(applications[0])
+        + ApplicationCodec.encodedLength(applications[1])
+        + ApplicationCodec.encodedLength(applications[2])) return false;
+    buffer.flip();
+    for(Application a : applications){
+      Application decoded = ApplicationCodec.decode(buffer);
+      if(!decoded.getName().equals(a.getName()) || !decoded.getEmail().equals(a.getEmail())
+          || decoded.getScore() != a.getScore()) return false;
+    }
+    if(buffer.hasRemaining()) return false;
+
+    // ApplicationQueues round-trip in heap order, from heap and direct buffers
+    Random random = new Random(300);
+    ApplicationQueue queue = new ApplicationQueue(50, 4);
+    for(int i = 0; i < 40; i++){
+      queue.enqueue(new Application("app" + i, "m" + i + "@email.com", random.nextInt(101)));
+    }
+    for(ByteBuffer b : new ByteBuffer[] {ByteBuffer.allocate(ApplicationCodec.encodedLength(queue)),
+        ByteBuffer.allocateDirect(ApplicationCodec.encodedLength(queue))}){
+      ApplicationCodec.encode(queue, b);
+      if(b.hasRemaining()) return false;
+      b.flip();
+      ApplicationQueue decoded = ApplicationCodec.decodeQueue(b);
+      if(decoded.size() != queue.size() || decoded.arity() != 4 || decoded.capacity() != 50
+          || !decoded.toString().equals(queue.toString())) return false;
+      for(int i = 0; i < queue.size(); i++){
+        if(!decoded.get(i).getName().equals(queue.get(i).getName())) return false;
+      }
+      decoded.enqueue(new Application("new", "n@email.com", 0));
+      if(decoded.peek().getScore() != 0) return false;
+    }
+
+    // corrupted input is rejected
+    ByteBuffer encoded = ByteBuffer.allocate(ApplicationCodec.encodedLength(queue));
+    ApplicationCodec.encode(queue, encoded);
+    encoded.put(0, (byte) (ApplicationCodec.VERSION + 1)).flip();
+    try {
+      ApplicationCodec.decodeQueue(encoded);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    encoded.put(0, (byte) ApplicationCodec.VERSION).limit(encoded.limit() - 1).rewind();
+    try {
+      ApplicationCodec.decodeQueue(encoded);
+      return false;
+    } catch (BufferUnderflowException e){
+      // Passed
+    }
+    // a corrupted size is rejected before the heap is allocated
+    ByteBuffer corrupted = ByteBuffer.allocate(ApplicationCodec.encodedLength(queue));
+    ApplicationCodec.encode(queue, corrupted);
+    corrupted.putInt(2, Integer.MAX_VALUE).putInt(6, Integer.MAX_VALUE - 1).flip();
+    try {
+      ApplicationCodec.decodeQueue(corrupted);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    corrupted.putInt(6, (corrupted.limit() - 10) / 3 + 1).rewind();
+    try {
+      ApplicationCodec.decodeQueue(corrupted);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    // so is an arity above the highest one of ApplicationQueue
+    encoded.limit(encoded.capacity()).put(1, (byte) (ApplicationQueue.MAX_ARITY + 1)).rewind();
+    try {
+      ApplicationCodec.decodeQueue(encoded);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    Application[] unordered = {new Application("a", "a@email.com", 5),
+        new Application("b", "b@email.com", 1)};
+    try {
+      ApplicationQueue.fromHeap(unordered, 2, 2, 2);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the ApplicationLoader class, by loading CSV and JSONL files
+   * with small buffers and batches, and checking the counts of the report.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationLoader() {
+    Path csvFile = null;
+    Path jsonlFile = null;
+    try {
+      // a CSV file with a header, CRLF line ends, blank and malformed lines, and no final newline
+      Random random = new Random(300);
+      StringBuilder csv = new StringBuilder("name,email,score\r\n");
+      OpenPosition expected = new OpenPosition("Name", 20);
+      for(int i = 0; i < 500; i++){
+        int score = random.nextInt(101);
+        csv.append("Doe, J").append(i).append(",j").append(i).append("@email.com, ")
+            .append(score).append("\r\n");
+        expected.add(new Application("Doe, J" + i, "j" + i + "@email.com", score));
+        if(i % 100 == 0){
+          csv.append("\n  \nbad line\nx,no-at.com,5\n,e@email.com,5\nx,e@email.com,101\n");
+        }
+      }
+      csv.append("last,l@email.com,100");
+      expected.add(new Application("last", "l@email.com", 100));
+      csvFile = Files.createTempFile("applications", ".csv");
+      Files.write(csvFile, csv.toString().getBytes(StandardCharsets.UTF_8));
+
+      OpenPosition position = new OpenPosition("Name", 20);
+      ApplicationLoader.Report report = new ApplicationLoader(ApplicationLoader.Format.CSV, 16, 3)
+          .load(csvFile, position);
+      if(report.getRecords() != 501 + 20 || report.getMalformed() != 20) return false;
+      if(report.getAccepted() + report.getRejected() != 501) return false;
+      if(position.getTotalScore() != expected.getTotalScore()
+          || position.cutoffScore() != expected.cutoffScore()) return false;
+      if(position.getApplications().indexOf("Doe, J") < 0) return false;
+
+      // a JSONL file with members in any order, escapes and non-ASCII names
+      String jsonl = "{\"name\": \"Zo\u00eb\", \"email\": \"z@email.com\", \"score\": 90}\n"
+          + "{\"score\":80,\"id\":7,\"email\":\"a\\u0040email.com\",\"name\":\"A \\\"Q\\\"\"}\n"
+          + "{\"name\":\"low\",\"email\":\"l@email.com\",\"score\":1}\n"
+          + "{\"name\":\"bad\",\"email\":\"b@email.com\",\"score\":\"90\"}\n"
+          + "{\"name\":\"bad\",\"email\":\"b@email.com\",\"score\":90.5}\n"
+          + "{\"name\":\"bad\",\"score\":90}\n"
+          + "not json\n";
+      jsonlFile = Files.createTempFile("applications", ".jsonl");
+      Files.write(jsonlFile, jsonl.getBytes(StandardCharsets.UTF_8));
+      position = new OpenPosition("Name", 2);
+      report = new ApplicationLoader(ApplicationLoader.Format.JSONL).load(jsonlFile, position);
+      if(report.getRecords() != 7 || report.getAccepted() != 2 || report.getRejected() != 1
+          || report.getMalformed() != 4) return false;
+      if(!position.getApplications().equals("A \"Q\":a@email.com:80\nZo\u00eb:z@email.com:90\n"))
+        return false;
+    } catch (IOException e){
+      return false;
+    } finally {
+      deleteRecursively(csvFile);
+      deleteRecursively(jsonlFile);
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the IndexedApplicationQueue class, and of the resubmission,
+   * withdraw() and updateScore() of an OpenPosition using it.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testIndexedApplicationQueue() {
+    // random operations, checked against a map of the applications by email
+    Random random = new Random(300);
+    IndexedApplicationQueue queue = new IndexedApplicationQueue(64);
+    HashMap<String, Application> reference = new HashMap<>();
+    for(int step = 0; step < 5000; step++){
+      String email = "m" + random.nextInt(100) + "@email.com";
+      Application app = new Application("app" + step, email, random.nextInt(101));
+      int operation = random.nextInt(4);
+      if(operation == 0 && reference.size() < 64 && !reference.containsKey(email)){
+        queue.enqueue(app);
+        reference.put(email, app);
+      } else if(operation == 1){
+        if(queue.remove(email) != reference.remove(email)) return false;
+      } else if(operation == 2){
+        if(queue.replace(app) != reference.get(email)) return false;
+        if(reference.containsKey(email)) reference.put(email, app);
+      } else if(operation == 3 && !reference.isEmpty()){
+        Application lowest = queue.dequeue();
+        if(reference.remove(lowest.getEmail()) != lowest) return false;
+      }
+      if(queue.size() != reference.size() || queue.get(email) != reference.get(email))
+        return false;
+    }
+    int previous = -1;
+    int count = 0;
+    for(Application a : queue){
+      if(a.getScore() < previous || reference.get(a.getEmail()) != a) return false;
+      previous = a.getScore();
+      count++;
+    }
+    if(count != reference.size()) return false;
+    try {
+      queue.enqueue(new Application("dup", queue.peek().getEmail(), 1));
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    // resubmissions replace the previous application instead of taking another place
+    OpenPosition op = new OpenPosition("Name", 3, new IndexedApplicationQueue(3));
+    op.add(new Application("a", "a@email.com", 10));
+    op.add(new Application("b", "b@email.com", 20));
+    op.add(new Application("c", "c@email.com", 30));
+    if(!op.add(new Application("a2", "a@email.com", 40))) return false;
+    if(op.add(new Application("b2", "b@email.com", 5))) return false; // not admitted: b stays
+    if(!op.getApplications().equals("b:b@email.com:20\nc:c@email.com:30\na2:a@email.com:40\n"))
+      return false;
+    if(op.getTotalScore() != 90 || op.getHighestScore() != 40) return false;
+
+    // withdraw() and updateScore() keep the aggregates and the cutoff up to date
+    if(!op.withdraw("a@email.com") || op.withdraw("a@email.com")) return false;
+    if(op.cutoffScore() != -1 || op.getTotalScore() != 50 || op.getHighestScore() != 30)
+      return false;
+    if(!op.updateScore("c@email.com", 1) || op.updateScore("x@email.com", 1)) return false;
+    if(op.getLowestScore() != 1 || op.getHighestScore() != 20 || op.getTotalScore() != 21)
+      return false;
+    if(op.addAll(Arrays.asList(new Application("d", "d@email.com", 50),
+        new Application("c3", "c@email.com", 60))) != 2) return false;
+    if(!op.getApplications().equals("b:b@email.com:20\nd:d@email.com:50\nc3:c@email.com:60\n"))
+      return false;
+
+    // positions which are not indexed do not support them
+    try {
+      new OpenPosition("Name", 3).withdraw("a@email.com");
+      return false;
+    } catch (UnsupportedOperationException e){
+      // Passed
+    }
+
+    // the journal replays withdrawals and replacements
+    Path directory = null;
+    try {
+      directory = Files.createTempDirectory("journal");
+      OpenPositionJournal journal = OpenPositionJournal.open(directory,
+          new OpenPosition("Name", 10, new IndexedApplicationQueue(10)), 0);
+      OpenPosition journaled = journal.getPosition();
+      for(int i = 0; i < 200; i++){
+        String email = "m" + random.nextInt(20) + "@email.com";
+        if(random.nextInt(4) == 0) journaled.withdraw(email);
+        else journaled.add(new Application("app" + i, email, random.nextInt(101)));
+      }
+      journal.close();
+      OpenPositionJournal recovered = OpenPositionJournal.open(directory,
+          new OpenPosition("Name", 10, new IndexedApplicationQueue(10)), 0);
+      if(recovered.getPosition().getTotalScore() != journaled.getTotalScore()
+          || recovered.getPosition().getApplicationCount() != journaled.getApplicationCount())
+        return false;
+      for(Application a : journaled.topK(10)){
+        if(!recovered.getPosition().topK(10).toString().contains(a.toString())) return false;
+      }
+      recovered.close();
+    } catch (IOException e){
+      return false;
+    } finally {
+      deleteRecursively(directory);
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests the add(name, email, score) and wouldAccept() methods of OpenPosition and
+   * ConcurrentOpenPosition, which only validate and create the admitted Applications.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testAddByFields() {
+    OpenPosition op = new OpenPosition("Name", 2);
+    ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Name", 2);
+    if(!op.wouldAccept(0) || !concurrent.wouldAccept(0)) return false;
+    if(!op.add("a", "a@email.com", 10) || !op.add("b", "b@email.com", 20)) return false;
+    if(!concurrent.add("a", "a@email.com", 10) || !concurrent.add("b", "b@email.com", 20))
+      return false;
+    if(op.wouldAccept(10) || !op.wouldAccept(11) || concurrent.wouldAccept(10)
+        || !concurrent.wouldAccept(11)) return false;
+
+    // rejected submissions are not validated, admitted ones are
+    if(op.add(null, "invalid", 5) || concurrent.add(null, "invalid", 5)) return false;
+    try {
+      op.add("c", "invalid", 50);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    try {
+      concurrent.add("c", "c@email.com", 101);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    if(!op.add("c", "c@email.com", 30) || !concurrent.add("c", "c@email.com", 30)) return false;
+    if(!op.getApplications().equals("b:b@email.com:20\nc:c@email.com:30\n")
+        || !concurrent.getApplications().equals(op.getApplications())) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the OpenPositionRegistry class, by submitting applications
+   * to a few and to many of its positions, and querying all of them.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOpenPositionRegistry() {
+    OpenPositionRegistry registry = new OpenPositionRegistry();
+    String[] ids = new String[20000];
+    for(int i = 0; i < ids.length; i++){
+      ids[i] = "position" + i;
+      registry.open(ids[i], 1 + i % 5);
+    }
+    if(registry.size() != ids.length || registry.get("position7") == null) return false;
+    try {
+      registry.open("position7", 3);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    // a small fan-out, then a parallel one over 1000 positions
+    boolean[] added = registry.submit(new Application("a", "a@email.com", 50), "position0",
+        "position1");
+    if(added.length != 2 || !added[0] || !added[1]) return false;
+    String[] many = Arrays.copyOfRange(ids, 0, 1000);
+    added = registry.submit(new Application("b", "b@email.com", 40), many);
+    for(int i = 0; i < many.length; i++){
+      // position0 has a single vacancy, already taken by a higher score
+      if(added[i] != (i != 0)) return false;
+    }
+    if(registry.getApplicationCount() != 1001 || registry.getTotalScore() != 100 + 999 * 40)
+      return false;
+
+    // cutoffs, of a few positions and of all of them
+    int[] cutoffs = registry.cutoffScores("position0", "position1", "position5", "position9999");
+    if(!Arrays.equals(cutoffs, new int[] {50, 40, 40, -1})) return false;
+    Map<String, Integer> allCutoffs = registry.cutoffScores();
+    if(allCutoffs.size() != ids.length || allCutoffs.get("position5") != 40) return false;
+
+    // an unknown position fails the whole submission
+    try {
+      registry.submit(new Application("c", "c@email.com", 90), "position2", "unknown");
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+    if(registry.get("position2").getTotalScore() != 40) return false;
+    if(registry.close("position2") == null || registry.get("position2") != null) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the ApplicantTable and CompactApplicationQueue classes, by
+   * sharing a table between queues and checking the Applications read back from them.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testCompactApplicationQueue() {
+    // identities are interned once, across several arenas, and read back unchanged
+    ApplicantTable table = new ApplicantTable();
+    int[] handles = new int[30000];
+    for(int i = 0; i < handles.length; i++){
+      handles[i] = table.intern("applicant \u00e9\u4e2d " + i, "a" + i + "@email.com");
+    }
+    for(int i = 0; i < handles.length; i += 7){
+      if(table.intern("applicant \u00e9\u4e2d " + i, "a" + i + "@email.com") != handles[i])
+        return false;
+      if(!table.getName(handles[i]).equals("applicant \u00e9\u4e2d " + i)
+          || !table.getEmail(handles[i]).equals("a" + i + "@email.com")) return false;
+    }
+    if(table.size() != handles.length || table.memoryBytes() < 1 << 20) return false;
+    if(table.intern("applicant \u00e9\u4e2d 1", "other@email.com") == handles[1]) return false;
+    if(!table.toApplication(handles[1], 7, 5).toString().equals("applicant \u00e9\u4e2d 1:"
+        + "a1@email.com:7") || table.toApplication(handles[1], 7, 5).getSubmittedAt() != 5)
+      return false;
+
+    // identities are removed with their last reference, and their arenas are reused, so a table
+    // whose identities keep changing does not keep growing
+    for(int i = 0; i < handles.length; i++){
+      table.release(handles[i]);
+      if(i % 7 == 0) table.release(handles[i]);
+    }
+    if(table.size() != 1) return false;
+    long memory = 0;
+    for(int round = 0; round < 10; round++){
+      for(int i = 0; i < handles.length; i++){
+        handles[i] = table.intern("round " + round + " " + i, "o" + i + "@email.com");
+      }
+      if(round == 0) memory = table.memoryBytes();
+      if(table.memoryBytes() > 3 * memory) return false;
+      if(!table.getEmail(handles[9]).equals("o9@email.com")) return false;
+      for(int handle : handles) table.release(handle);
+    }
+    try {
+      table.release(handles[0]);
+      return false;
+    } catch (IllegalStateException e){
+      // Passed
+    }
+
+    // an identity too long for an arena is rejected, and the table keeps working
+    try {
+      table.intern("x".repeat(2 << 20), "x@email.com");
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+    int handle = table.intern("x", "x@email.com");
+    if(!table.getName(handle).equals("x") || table.size() != 2) return false;
+
+    // random operations, checked against the scores of a java.util.PriorityQueue
+    Random random = new Random(300);
+    CompactApplicationQueue queue = new CompactApplicationQueue(100, table);
+    PriorityQueue<Integer> reference = new PriorityQueue<>();
+    for(int step = 0; step < 3000; step++){
+      int operation = random.nextInt(3);
+      Application app = new Application("app" + step % 50, "m" + step % 50 + "@email.com",
+          random.nextInt(101));
+      if(operation == 0 && reference.size() < 100){
+        queue.enqueue(app);
+        reference.add(app.getScore());
+      } else if(operation == 1 && !reference.isEmpty()){
+        if(queue.dequeue().getScore() != reference.poll()) return false;
+      } else if(operation == 2 && !reference.isEmpty()){
+        Application removed = queue.replaceTop(app);
+        if(removed.getScore() != reference.poll()) return false;
+        reference.add(app.getScore());
+      }
+      if(!reference.isEmpty() && queue.peek().getScore() != reference.peek()) return false;
+    }
+    int previous = -1;
+    int count = 0;
+    for(Application a : queue){
+      if(a.getScore() < previous || !a.getEmail().startsWith("m")) return false;
+      previous = a.getScore();
+      count++;
+    }
+    if(count != reference.size()) return false;
+
+    // the root read before a dequeue is not returned for the applicant given its handle next
+    CompactApplicationQueue reused = new CompactApplicationQueue(2);
+    reused.enqueue(new Application("Alice", "alice@x.com", 50));
+    if(!reused.peek().getName().equals("Alice")) return false;
+    reused.dequeue();
+    reused.enqueue(new Application("Carol", "carol@x.com", 50));
+    if(!reused.peek().getName().equals("Carol")
+        || !reused.toString().equals("Carol:carol@x.com:50\n")) return false;
+    reused.enqueue(new Application("Dave", "dave@x.com", 60));
+    if(!reused.replaceTop(new Application("Erin", "erin@x.com", 50)).getName().equals("Carol")
+        || !reused.peek().getName().equals("Erin")) return false;
+
+    // positions sharing a table store each applicant once, and behave like the default ones
+    ApplicantTable shared = new ApplicantTable();
+    OpenPosition first = new OpenPosition("First", 3, new CompactApplicationQueue(3, shared));
+    OpenPosition second = new OpenPosition("Second", 3, new CompactApplicationQueue(3, shared));
+    OpenPosition expected = new OpenPosition("Expected", 3);
+    for(int i = 0; i < 6; i++){
+      Application app = new Application("app" + i, "m" + i + "@email.com", (i * 37) % 101);
+      first.add(app);
+      second.add(new Application("app" + i, "m" + i + "@email.com", (i * 37) % 101));
+      expected.add(app);
+    }
+    if(shared.size() != 3) return false;
+    if(!first.getApplications().equals(expected.getApplications())
+        || !second.getApplications().equals(expected.getApplications())) return false;
+    if(first.addAll(Arrays.asList(new Application("x", "x@email.com", 100),
+        new Application("y", "y@email.com", 99))) != 2 || first.getHighestScore() != 100)
+      return false;
+
+    // submission times are kept by each queue, and an applicant who applied to several positions
+    // at different times is stored once; positions used from several threads share a table
+    int identities = shared.size();
+    CompactApplicationQueue timed = new CompactApplicationQueue(3, shared);
+    CompactApplicationQueue later = new CompactApplicationQueue(2, shared);
+    timed.enqueue(new Application("u", "u@email.com", 9));
+    timed.enqueue(new Application("t", "t@email.com", 5, 1234));
+    later.enqueue(new Application("t", "t@email.com", 5, 5678));
+    if(shared.size() != identities + 2 || timed.peek().getSubmittedAt() != 1234
+        || later.peek().getSubmittedAt() != 5678) return false;
+    timed.enqueueAll(Arrays.asList(new Application("v", "v@email.com", 1, 42)));
+    if(timed.dequeue().getSubmittedAt() != 42 || timed.dequeue().getSubmittedAt() != 1234
+        || timed.peek().getSubmittedAt() != Application.NO_TIME) return false;
+    later.clear();
+    Thread[] threads = new Thread[4];
+    CompactApplicationQueue[] queues = new CompactApplicationQueue[threads.length];
+    boolean[] valid = new boolean[threads.length];
+    for(int t = 0; t < threads.length; t++){
+      int from = t;
+      queues[t] = new CompactApplicationQueue(50, shared);
+      threads[t] = new Thread(() -> {
+        OpenPosition position = new OpenPosition("Thread", 50, queues[from]);
+        Random scores = new Random(from);
+        valid[from] = true;
+        for(int i = 0; i < 20000; i++){
+          int n = scores.nextInt(500);
+          position.add(new Application("app" + n, "m" + n + "@email.com", n % 101, n));
+          Application lowest = queues[from].peek();
+          int id = Integer.parseInt(lowest.getName().substring(3));
+          if(!lowest.getEmail().equals("m" + id + "@email.com") || lowest.getScore() != id % 101
+              || lowest.getSubmittedAt() != id) valid[from] = false;
+        }
+      });
+      threads[t].start();
+    }
+    try {
+      for(Thread thread : threads) thread.join();
+    } catch (InterruptedException e){
+      return false;
+    }
+    for(int t = 0; t < threads.length; t++){
+      if(!valid[t]) return false;
+      queues[t].clear();
+    }
+    timed.clear();
+    if(shared.size() != identities || !queues[0].isEmpty()) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the OpenPositionMetrics and LatencyHistogram classes, by
+   * checking the counters, gauge, histograms and JFR events recorded by instrumented positions.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOpenPositionMetrics() {
+    // percentiles are exact for small values, and at most 12.5% above otherwise
+    LatencyHistogram histogram = new LatencyHistogram();
+    if(histogram.getCount() != 0 || histogram.getPercentile(99) != 0) return false;
+    for(long value = 1; value <= 1000; value++) histogram.record(value);
+    histogram.record(-5);
+    if(histogram.getCount() != 1001 || histogram.getMax() != 1000) return false;
+    if(histogram.getPercentile(0) != 0 || histogram.getPercentile(100) != 1000) return false;
+    long median = histogram.getPercentile(50);
+    if(median < 500 || median > 500 * 1.125) return false;
+    histogram.record(Long.MAX_VALUE);
+    if(histogram.getPercentile(100) != Long.MAX_VALUE) return false;
+    try {
+      histogram.getPercentile(101);
+      return false;
+    } catch (IllegalArgumentException e){
+      // Passed
+    }
+
+    // counters and the cutoff gauge follow add, addAll, withdraw and the fast rejections
+    OpenPositionMetrics metrics = new OpenPositionMetrics(0);
+    OpenPosition position = new OpenPosition("Metrics", 2, new IndexedApplicationQueue(2));
+    position.setMetrics(metrics);
+    if(position.getMetrics() != metrics || metrics.getCutoff() != -1) return false;
+    position.add(new Application("a", "a@email.com", 50));
+    position.add(new Application("b", "b@email.com", 60));
+    if(metrics.getCutoff() != 50) return false;
+    position.add(new Application("c", "c@email.com", 70));
+    position.add(new Application("d", "d@email.com", 10));
+    position.add("e", "e@email.com", 20);
+    if(metrics.getAccepted() != 3 || metrics.getRejected() != 2 || metrics.getEvicted() != 1)
+      return false;
+    if(metrics.getCutoff() != 60 || metrics.getAddLatency().getCount() != 4) return false;
+    position.withdraw("b@email.com");
+    if(metrics.getCutoff() != -1) return false;
+
+    OpenPositionMetrics bulkMetrics = new OpenPositionMetrics();
+    OpenPosition bulk = new OpenPosition("Bulk", 3);
+    bulk.setMetrics(bulkMetrics);
+    bulk.addAll(Arrays.asList(new Application("a", "a@email.com", 10),
+        new Application("b", "b@email.com", 20), new Application("c", "c@email.com", 30),
+        new Application("d", "d@email.com", 40), new Application("e", "e@email.com", 5)));
+    if(bulkMetrics.getAccepted() != 3 || bulkMetrics.getRejected() != 2
+        || bulkMetrics.getCutoff() != 20) return false;
+
+    OpenPositionMetrics sampled = new OpenPositionMetrics(0, 64);
+    OpenPosition sampledPosition = new OpenPosition("Sampled", 10);
+    sampledPosition.setMetrics(sampled);
+    for(int i = 0; i < 2000; i++){
+      sampledPosition.add(new Application("a", "a@email.com", i % 101));
+    }
+    if(sampled.getAccepted() + sampled.getRejected() != 2000
+        || sampled.getAddLatency().getCount() >= 1000) return false;
+
+    ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Concurrent", 1);
+    OpenPositionMetrics concurrentMetrics = new OpenPositionMetrics();
+    concurrent.setMetrics(concurrentMetrics);
+    concurrent.add(new Application("a", "a@email.com", 50));
+    concurrent.add(new Application("b", "b@email.com", 40));
+    concurrent.add("c", "c@email.com", 30);
+    if(concurrent.getMetrics() != concurrentMetrics || concurrentMetrics.getAccepted() != 1
+        || concurrentMetrics.getRejected() != 2) return false;
+
+    // the sink receives every metric
+    Map<String, Long> published = new HashMap<>();
+    metrics.publish("Metrics", new MetricsSink() {
+      @Override
+      public void counter(String name, String metric, long value) {
+        published.put(name + "." + metric, value);
+      }
+
+      @Override
+      public void gauge(String name, String metric, long value) {
+        published.put(name + "." + metric, value);
+      }
+
+      @Override
+      public void histogram(String name, String metric, LatencyHistogram latencies) {
+        published.put(name + "." + metric, latencies.getCount());
+      }
+    });
+    if(published.size() != 6 || published.get("Metrics.accepted") != 3
+        || published.get("Metrics.evicted") != 1 || published.get("Metrics.cutoff") != -1
+        || published.get("Metrics.add.latency") != 4) return false;
+
+    // evictions and slow reads are reported to a flight recording which enables them
+    try (Recording recording = new Recording()) {
+      recording.enable("OpenPosition.Eviction");
+      recording.enable("OpenPosition.SlowRead");
+      recording.start();
+      position.add(new Application("f", "f@email.com", 80));
+      position.add(new Application("g", "g@email.com", 90));
+      position.topK(2);
+      recording.stop();
+
+      Path file = Files.createTempFile("metrics", ".jfr");
+      recording.dump(file);
+      int evictions = 0;
+      int slowReads = 0;
+      for(RecordedEvent event : RecordingFile.readAllEvents(file)){
+        String type = event.getEventType().getName();
+        if(type.equals("OpenPosition.Eviction") && event.getInt("score") == 70) evictions++;
+        if(type.equals("OpenPosition.SlowRead") && event.getString("operation").equals("topK"))
+          slowReads++;
+      }
+      Files.delete(file);
+      if(evictions != 1 || slowReads != 1 || metrics.getReadLatency().getCount() != 1)
+        return false;
+    } catch (IOException e){
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the IntakeService class, by draining its mailboxes on a
+   * hand-run executor, then under concurrent submissions.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testIntakeService() {
+    // the drain loop only runs when the executor runs it, and completes the futures
+    List<Runnable> pending = new ArrayList<>();
+    IntakeService service = new IntakeService(pending::add, 2, IntakeService.Overflow.REJECT);
+    service.open("Position", 1);
+    CompletableFuture<Boolean> first = service.submit("Position", new Application("a",
+        "a@email.com", 50));
+    CompletableFuture<Boolean> second = service.submit("Position", new Application("b",
+        "b@email.com", 40));
+    CompletableFuture<Boolean> third = service.submit("Position", new Application("c",
+        "c@email.com", 60));
+    if(first.isDone() || second.isDone() || pending.size() != 1) return false;
+    if(!third.isCompletedExceptionally()) return false;
+    runAll(pending);
+    if(!first.join() || second.join() || service.cutoffScore("Position") != 50) return false;
+
+    // submissions below the published cutoff are rejected without queueing
+    if(service.submit("Position", new Application("d", "d@email.com", 30)).getNow(true)
+        || !pending.isEmpty()) return false;
+    CompletableFuture<String> applications = service.query("Position",
+        OpenPosition::getApplications);
+    CompletableFuture<Boolean> failed = service.query("Position", p -> p.withdraw("a@email.com"));
+    runAll(pending);
+    if(!applications.join().equals("a:a@email.com:50\n")) return false;
+    try {
+      failed.join();
+      return false;
+    } catch (CompletionException e){
+      if(!(e.getCause() instanceof UnsupportedOperationException)) return false;
+    }
+    try {
+      service.submit("Missing", new Application("a", "a@email.com", 50));
+      return false;
+    } catch (NoSuchElementException e){
+      // Passed
+    }
+    service.close();
+    if(!service.submit("Position", new Application("e", "e@email.com", 90))
+        .isCompletedExceptionally()) return false;
+
+    // a full mailbox blocks the submitting thread under the BLOCK policy
+    IntakeService blocking = new IntakeService(pending::add, 1, IntakeService.Overflow.BLOCK);
+    blocking.open("Position", 5);
+    blocking.submit("Position", new Application("a", "a@email.com", 50));
+    Thread producer = new Thread(() -> blocking.submit("Position",
+        new Application("b", "b@email.com", 60)));
+    producer.start();
+    try {
+      while(producer.getState() != Thread.State.WAITING) Thread.sleep(1);
+      while(producer.isAlive() || !pending.isEmpty()){
+        runAll(pending);
+        producer.join(1);
+      }
+    } catch (InterruptedException e){
+      return false;
+    }
+    CompletableFuture<Integer> count = blocking.query("Position",
+        OpenPosition::getApplicationCount);
+    runAll(pending);
+    if(count.join() != 2 || blocking.cutoffScore("Position") != -1) return false;
+
+    // an executor which refuses the drain loop fails the submission
+    IntakeService refused = new IntakeService(task -> {
+      throw new RejectedExecutionException();
+    }, 4, IntakeService.Overflow.REJECT);
+    refused.open("Position", 1);
+    if(!refused.submit("Position", new Application("a", "a@email.com", 50))
+        .isCompletedExceptionally()) return false;
+
+    // an Error thrown by a task fails its future, and the mailbox keeps draining
+    IntakeService erring = new IntakeService(pending::add, 4, IntakeService.Overflow.REJECT);
+    erring.open("Position", 1);
+    CompletableFuture<Boolean> error = erring.query("Position", p -> {
+      throw new AssertionError("drain");
+    });
+    CompletableFuture<Boolean> after = erring.submit("Position",
+        new Application("a", "a@email.com", 50));
+    try {
+      pending.remove(0).run();
+      return false;
+    } catch (AssertionError e){
+      // Passed
+    }
+    if(!error.isCompletedExceptionally() || pending.size() != 1) return false;
+    runAll(pending);
+    if(!after.join() || erring.cutoffScore("Position") != 50) return false;
+
+    // concurrent submissions keep the same applications as sequential adds
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    IntakeService concurrent = new IntakeService(executor, 64, IntakeService.Overflow.BLOCK);
+    concurrent.open("Position", 50);
+    OpenPosition expected = new OpenPosition("Expected", 50);
+    Application[] input = new Application[4000];
+    Random random = new Random(300);
+    for(int i = 0; i < input.length; i++){
+      input[i] = new Application("app" + i, "app" + i + "@email.com", random.nextInt(101));
+      expected.add(input[i]);
+    }
+    List<CompletableFuture<Boolean>> results = new ArrayList<>();
+    Thread[] producers = new Thread[4];
+    for(int t = 0; t < producers.length; t++){
+      int from = t;
+      producers[t] = new Thread(() -> {
+        for(int i = from; i < input.length; i += producers.length){
+          CompletableFuture<Boolean> result = concurrent.submit("Position", input[i]);
+          synchronized(results){
+            results.add(result);
+          }
+        }
+      });
+      producers[t].start();
+    }
+    try {
+      for(Thread thread : producers) thread.join();
+      CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+      if(concurrent.query("Position", OpenPosition::getTotalScore).get()
+          != expected.getTotalScore()) return false;
+    } catch (InterruptedException | ExecutionException e){
+      return false;
+    } finally {
+      executor.shutdown();
+    }
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the CombiningOpenPosition class, alone and under
+   * concurrent submissions.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testCombiningOpenPosition() {
+    // from a single thread, it behaves like an OpenPosition
+    CombiningOpenPosition position = new CombiningOpenPosition("Combining", 2);
+    OpenPosition expected = new OpenPosition("Expected", 2);
+    Random random = new Random(300);
+    for(int i = 0; i < 200; i++){
+      Application application = new Application("app" + i, "app" + i + "@email.com",
+          random.nextInt(101));
+      if(position.add(application) != expected.add(application)) return false;
+      if(position.cutoffScore() != expected.cutoffScore()) return false;
+    }
+    if(!position.getApplications().equals(expected.getApplications())
+        || position.getAverageBatchSize() != 1) return false;
+    if(position.add("low", "low@email.com", position.cutoffScore())) return false;
+
+    // concurrent submissions keep the highest scores, and each thread gets its own results
+    CombiningOpenPosition concurrent = new CombiningOpenPosition("Concurrent", 100);
+    OpenPosition sequential = new OpenPosition("Sequential", 100);
+    Application[] input = new Application[20000];
+    for(int i = 0; i < input.length; i++){
+      input[i] = new Application("app" + i, "app" + i + "@email.com", random.nextInt(101));
+      sequential.add(input[i]);
+    }
+    Thread[] threads = new Thread[4];
+    int[] accepted = new int[threads.length];
+    for(int t = 0; t < threads.length; t++){
+      int from = t;
+      threads[t] = new Thread(() -> {
+        for(int i = from; i < input.length; i += threads.length){
+          if(concurrent.add(input[i])) accepted[from]++;
+        }
+      });
+      threads[t].start();
+    }
+    try {
+      for(Thread thread : threads) thread.join();
+    } catch (InterruptedException e){
+      return false;
+    }
+    if(concurrent.getTotalScore() != sequential.getTotalScore()
+        || concurrent.getApplicationCount() != 100) return false;
+    if(Arrays.stream(accepted).sum() < 100 || concurrent.getAverageBatchSize() < 1) return false;
+    if(concurrent.topK(1).get(0).getScore() != sequential.getHighestScore()) return false;
+
+    // what the position throws for a request combined by another thread is thrown to its submitter
+    CountDownLatch gate = new CountDownLatch(1);
+    CombiningOpenPosition failing = new CombiningOpenPosition("Failing", 10,
+        new ApplicationQueue(10) {
+          @Override
+          public void enqueue(Application o) {
+            if(o.getEmail().startsWith("bad")) throw new IllegalStateException("bad");
+            try {
+              if(o.getEmail().startsWith("gate")) gate.await();
+            } catch (InterruptedException e){
+              Thread.currentThread().interrupt();
+            }
+            super.enqueue(o);
+          }
+        });
+    Object[] results = new Object[3];
+    String[] emails = {"gate@email.com", "bad@email.com", "good@email.com"};
+    for(int t = 0; t < threads.length - 1; t++){
+      int index = t;
+      threads[t] = new Thread(() -> {
+        try {
+          results[index] = failing.add(new Application("a" + index, emails[index], 50));
+        } catch (RuntimeException e){
+          results[index] = e;
+        }
+      });
+    }
+    try {
+      threads[0].start();
+      while(threads[0].getState() != Thread.State.WAITING) Thread.sleep(1);
+      for(int t = 1; t < 3; t++){
+        threads[t].start();
+        while(threads[t].getState() != Thread.State.WAITING) Thread.sleep(1);
+      }
+      gate.countDown();
+      for(int t = 0; t < 3; t++) threads[t].join();
+    } catch (InterruptedException e){
+      return false;
+    }
+    if(!Boolean.TRUE.equals(results[0]) || !Boolean.TRUE.equals(results[2])
+        || !(results[1] instanceof IllegalStateException)) return false;
+    if(failing.getApplicationCount() != 2 || failing.getAverageBatchSize() != 1.5
+        || failing.bottomK(1).get(0).getScore() != 50 || failing.getHighestScore() != 50)
+      return false;
+
+    // the requests a combiner rejects, below the cutoff or after the first rejected one, are
+    // counted and reported like the rejections of the position: while the gate is admitted, the
+    // published cutoff lets 20 and 30 in though the cutoff becomes 45, then 48 is rejected by the
+    // position, and 47 after it
+    CountDownLatch admitting = new CountDownLatch(1);
+    CombiningOpenPosition counted = new CombiningOpenPosition("Counted", 2,
+        new ApplicationQueue(2) {
+          @Override
+          public void enqueue(Application o) {
+            try {
+              if(o.getEmail().startsWith("gate")) admitting.await();
+            } catch (InterruptedException e){
+              Thread.currentThread().interrupt();
+            }
+            super.enqueue(o);
+          }
+        });
+    counted.setMetrics(new OpenPositionMetrics());
+    List<String> rejections = new ArrayList<>();
+    counted.addListener(new OpenPositionListener() {
+      @Override
+      public void applicationAdmitted(OpenPosition position, Application application) {
+      }
+
+      @Override
+      public void applicationEvicted(OpenPosition position, Application application) {
+      }
+
+      @Override
+      public void submissionRejected(OpenPosition position, String name, String email,
+                                     int score) {
+        rejections.add(email);
+      }
+    });
+    counted.add(new Application("x", "x@email.com", 45));
+    int[] scores = {50, 60, 20, 30, 48, 47};
+    boolean[] outcomes = new boolean[scores.length];
+    Thread[] submitters = new Thread[scores.length];
+    for(int t = 0; t < submitters.length; t++){
+      int index = t;
+      String email = (t == 0 ? "gate" : "s" + scores[t]) + "@email.com";
+      submitters[t] = new Thread(
+          () -> outcomes[index] = counted.add(new Application("s", email, scores[index])));
+    }
+    try {
+      for(Thread submitter : submitters){
+        submitter.start();
+        while(submitter.getState() != Thread.State.WAITING) Thread.sleep(1);
+      }
+      admitting.countDown();
+      for(Thread submitter : submitters) submitter.join();
+    } catch (InterruptedException e){
+      return false;
+    }
+    if(!Arrays.equals(outcomes, new boolean[] {true, true, false, false, false, false}))
+      return false;
+    rejections.sort(null);
+    if(counted.getMetrics().getAccepted() != 3 || counted.getMetrics().getRejected() != 4
+        || !rejections.equals(Arrays.asList("s20@email.com", "s30@email.com", "s47@email.com",
+        "s48@email.com")) || counted.getAverageBatchSize() != 7.0 / 3) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the TimerWheel and ExpiringOpenPosition classes, by
+   * advancing them through time with a hand-set clock.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testExpiringOpenPosition() {
+    // every item fires once, not before its deadline, and at the latest on the tick after it
+    Random random = new Random(300);
+    TimerWheel<long[]> wheel = new TimerWheel<>(10, 5);
+    List<long[]> items = new ArrayList<>();
+    for(int i = 0; i < 5000; i++){
+      long[] item = {random.nextInt(i % 10 == 0 ? 200_000_000 : 100_000), 0};
+      items.add(item);
+      wheel.schedule(item, item[0]);
+    }
+    long now = 5;
+    int fired = 0;
+    while(wheel.size() > 0){
+      now += random.nextInt(now > 200_000 ? 50_000_000 : 300);
+      long time = now;
+      fired += wheel.advance(time, item -> item[1]++);
+      for(long[] item : items){
+        if(item[1] > 1 || (item[1] == 1 && item[0] > time)) return false;
+        if(item[1] == 0 && item[0] <= time - 10) return false;
+      }
+    }
+    if(fired != items.size()) return false;
+    if(wheel.advance(now + 1_000_000, item -> { }) != 0) return false;
+
+    // applications are withdrawn once their time to live elapsed, which lowers the cutoff
+    long[] clock = {0};
+    ExpiringOpenPosition position = new ExpiringOpenPosition("Expiring", 2, 1000, () -> clock[0]);
+    position.add(new Application("a", "a@email.com", 90));
+    clock[0] = 500;
+    position.add(new Application("b", "b@email.com", 80, 500));
+    if(position.add(new Application("c", "c@email.com", 70)) || position.cutoffScore() != 80)
+      return false;
+    clock[0] = 999;
+    if(position.getApplicationCount() != 2 || position.getExpiredCount() != 0) return false;
+    clock[0] = 1000;
+    if(position.cutoffScore() != -1 || position.getExpiredCount() != 1
+        || !position.getApplications().equals("b:b@email.com:80\n")) return false;
+
+    // expired submissions are rejected, and evicted or replaced applications do not expire twice
+    if(position.add(new Application("d", "d@email.com", 99, 0))) return false;
+    if(!position.add(new Application("c", "c@email.com", 70))) return false;
+    clock[0] = 1200;
+    if(!position.add(new Application("e", "e@email.com", 95))) return false;
+    if(!position.add(new Application("b", "b@email.com", 85, 1200))) return false;
+    clock[0] = 2100;
+    if(position.getApplicationCount() != 2 || position.getExpiredCount() != 1) return false;
+    clock[0] = 2200;
+    if(position.getApplicationCount() != 0 || position.getExpiredCount() != 3) return false;
+
+    return true;
+  }
+
+  /**
+   * This method tests and makes use of the OpenPositionEventStream class, by consuming the events
+   * of a position in batches, from the same thread and from another one.
+   *
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOpenPositionEventStream() {
+    // admissions, evictions and rejections are published in order, with the cutoff after each
+    OpenPositionEventStream stream = new OpenPositionEventStream(3);
+    List<String> handled = new ArrayList<>();
+    OpenPositionEventStream.Subscription subscription = stream.subscribe(
+        (event, endOfBatch) -> handled.add(event.getType() + " " + event.getEmail() + " "
+            + event.getCutoff() + (endOfBatch ? " end" : "")));
+    OpenPosition position = new OpenPosition("Stream", 2);
+    position.setListener(stream);
+    position.add(new Application("a", "a@email.com", 50));
+    position.add(new Application("b", "b@email.com", 60));
+    position.add("c", "c@email.com", 40);
+    if(subscription.poll() != 3 || !handled.equals(Arrays.asList("ADMITTED a@email.com -1",
+        "ADMITTED b@email.com 50", "REJECTED c@email.com 50 end"))) return false;
+    if(subscription.poll() != 0) return false;
+
+    // once the ring is full, new events are dropped until the subscription catches up
+    handled.clear();
+    position.add(new Application("d", "d@email.com", 70));
+    position.add(new Application("e", "e@email.com", 10));
+    position.add("f", "f@email.com", 20);
+    if(stream.getDroppedCount() != 0) return false;
+    position.add("g", "g@email.com", 30);
+    if(stream.getDroppedCount() != 1 || subscription.poll() != 4) return false;
+    if(!handled.equals(Arrays.asList("EVICTED a@email.com 60", "ADMITTED d@email.com 60",
+        "REJECTED e@email.com 60", "REJECTED f@email.com 60 end"))) return false;
+
+    // a late subscription only sees the later events, and a cancelled one no longer holds the ring
+    List<String> late = new ArrayList<>();
+    OpenPositionEventStream.Subscription other = stream.subscribe((event, endOfBatch) -> late.add(
+        event.getSequence() + " " + event.getScore() + " " + (event.getApplication() == null) + " "
+            + event.getDroppedBefore()));
+    position.add("h", "h@email.com", 55);
+    subscription.cancel();
+    for(int i = 0; i < 10; i++) position.add("i", "i@email.com", 0);
+    if(other.poll() != 4 || !late.get(0).equals("7 55 true 1")
+        || !late.get(3).equals("10 0 true 0") || stream.getDroppedCount() != 8) return false;
+
+    // the next published event tells the subscriptions how many events were dropped before it
+    position.add("m", "m@email.com", 0);
+    if(other.poll() != 1 || !late.get(4).equals("11 0 true 7") || stream.getDroppedCount() != 8)
+      return false;
+
+    // a stream and a journal added to the same position both see its changes, and closing the
+    // journal leaves the stream in place
+    OpenPositionEventStream shared = new OpenPositionEventStream(16);
+    List<String> streamed = new ArrayList<>();
+    OpenPositionEventStream.Subscription sharing = shared.subscribe(
+        (event, endOfBatch) -> streamed.add(event.getType() + " " + event.getEmail()));
+    Path directory = null;
+    try {
+      directory = Files.createTempDirectory("stream-journal");
+      OpenPosition journaled = new OpenPosition("Shared", 1);
+      journaled.addListener(shared);
+      OpenPositionJournal journal = OpenPositionJournal.open(directory, journaled, 0);
+      if(!journaled.getListeners().equals(Arrays.asList(shared, journal))) return false;
+      journaled.add(new Application("j", "j@email.com", 40));
+      journaled.add(new Application("k", "k@email.com", 80));
+      journal.close();
+      if(!journaled.getListeners().equals(Arrays.asList(shared))) return false;
+      journaled.add(new Application("l", "l@email.com", 90));
+      if(sharing.poll() != 5 || !streamed.equals(Arrays.asList("ADMITTED j@email.com",
+          "EVICTED j@email.com", "ADMITTED k@email.com", "EVICTED k@email.com",
+          "ADMITTED l@email.com"))) return false;
+
+      // the journal recorded the changes made while it was added, and only those
+      OpenPosition recovered = new OpenPosition("Shared", 1);
+      try(OpenPositionJournal reopened = OpenPositionJournal.open(directory, recovered, 0)){
+        if(!sortedApplications(reopened.getPosition()).equals(
+            Arrays.asList(new Application("k", "k@email.com", 80).toString()))) return false;
+      }
+      if(!recovered.getListeners().isEmpty() || journaled.removeListener(journal)) return false;
+    } catch (IOException e){
+      return false;
+    } finally {
+      deleteRecursively(directory);
+    }
+
+    // a consumer thread polling while the position changes sees every event exactly once, in
+    // order, and detects every gap left by the dropped events that it reads from its own thread
+    OpenPositionEventStream concurrent = new OpenPositionEventStream(64);
+    long[] consumed = {0, -1, 0};
+    boolean[] ordered = {true};
+    OpenPositionEventStream.Subscription consumer = concurrent.subscribe((event, endOfBatch) -> {
+      if(event.getSequence() <= consumed[1]) ordered[0] = false;
+      consumed[0]++;
+      consumed[1] = event.getSequence();
+      consumed[2] += event.getDroppedBefore();
+      if(consumed[2] > concurrent.getDroppedCount()) ordered[0] = false;
+    });
+    boolean[] done = {false};
+    Thread thread = new Thread(() -> {
+      while(true){
+        boolean finished;
+        synchronized(done){
+          finished = done[0];
+        }
+        if(consumer.poll() == 0 && finished) return;
+      }
+    });
+    thread.start();
+    OpenPosition busy = new OpenPosition("Busy", 100);
+    busy.setListener(concurrent);
+    Random random = new Random(300);
+    int events = 0;
+    for(int i = 0; i < 50_000; i++){
+      boolean wasFull = busy.getApplicationCount() == 100;
+      boolean added = busy.add("n" + i, i + "@email.com", random.nextInt(101));
+      events += added && wasFull ? 2 : 1;
+    }
+    synchronized(done){
+      done[0] = true;
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e){
+      return false;
+    }
+    //  once the consumer caught up, one more event carries the count of any trailing drops
+    boolean wasFull = busy.getApplicationCount() == 100;
+    events += busy.add("last", "last@email.com", 100) && wasFull ? 2 : 1;
+    consumer.poll();
+    if(!ordered[0] || consumed[0] + concurrent.getDroppedCount() != events
+        || consumed[2] != concurrent.getDroppedCount()) return false;
+
+    return true;
+  }
+
+  /**
+   * Helper method: Returns the Applications of a position, one per line as in getApplications(),
+   * sorted so that positions holding the same Applications compare equal whatever the order of
+   * their equal scores.
+   *
+   * @param position the position
+   * @return the sorted Applications of the position
+   */
+  private static List<String> sortedApplications(OpenPosition position) {
+    List<String> lines = new ArrayList<>(Arrays.asList(position.getApplications().split("\n")));
+    lines.sort(null);
+    return lines;
+  }
+
+  /**
+   * Helper method: Deletes the given file or directory with all its content, if it exists. The
+   * temporary files are best-effort: a file which cannot be deleted is left in place.
+   *
+   * @param path the file or directory to delete, or null
+   */
+  private static void deleteRecursively(Path path) {
+    if(path == null) return;
+    try(Stream<Path> paths = Files.walk(path)){
+      paths.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    } catch (IOException | UncheckedIOException e){
+      // left for the system to clean up
+    }
+  }
+
+  /**
+   * Helper method: Runs the given tasks, and the tasks they add to the list, until it is empty.
+   *
+   * @param tasks the tasks to run
+   */
+  private static void runAll(List<Runnable> tasks) {
+    while(!tasks.isEmpty()) tasks.remove(0).run();
+  }
+
   /**
    * This method calls all the test methods defined and implemented in your OpenPositionTester class.
    *
@@ -362,8 +2288,17 @@ public class OpenPositionTester {
    */
   public static boolean runAllTests() {
     return testApplication() && testApplicationIterator()
-            && testEnqueueDequeue() && testCommonMethods()
-            && testOpenPosition();
+            && testEnqueueDequeue() && testReplaceTop() && testApplicationQueueArity()
+            && testDeepCopyAndSnapshot() && testCommonMethods()
+            && testOpenPosition() && testOpenPositionStats() && testTopAndBottomK()
+            && testConcurrentOpenPosition() && testParallelAddAll() && testBatchAddAll()
+            && testBucketedApplicationQueue() && testPackedApplicationQueue()
+            && testOpenPositionJournal() && testApplicationCodec() && testApplicationLoader()
+            && testIndexedApplicationQueue() && testAddByFields()
+            && testOpenPositionRegistry() && testCompactApplicationQueue()
+            && testOpenPositionMetrics() && testIntakeService()
+            && testCombiningOpenPosition() && testExpiringOpenPosition()
+            && testOpenPositionEventStream();
   }
 
   /**
@@ -0,0 +1,294 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-based heap implementation of a priority queue containing Applications, which orders
+ * primitive keys instead of Application references. Each Application is stored once in a slot of
+ * a side table, and the min-heap is an array of longs holding the score of an Application in the
+ * high 32 bits and its slot in the low 32 bits. Percolating through the heap therefore compares
+ * packed longs in a single contiguous array, and the Applications themselves are only touched
+ * when they are added or removed. Applications with the same score are ordered by slot.
+ */
+public class PackedApplicationQueue implements PriorityQueueADT<Application> {
+  private long[] keys;             // array min-heap of (score << 32 | slot) keys
+  private Application[] slots;     // side table of the applications, indexed by slot
+  private int[] freeSlots;         // stack of the unused slots
+  private int freeCount;           // number of unused slots in freeSlots
+  private int size;                // size of this priority queue
+  private int modCount;            // number of structural modifications, checked by the iterators
+
+  /**
+   * Creates a new empty PackedApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this PackedApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public PackedApplicationQueue(int capacity) {
+    //  verify the capacity
+    if(capacity <= 0) throw new IllegalArgumentException("Invalid capacity");
+
+    //  initialize fields appropriately, so that the lowest slots are used first
+    keys = new long[capacity];
+    slots = new Application[capacity];
+    freeSlots = new int[capacity];
+    for(int i = 0; i < capacity; i++){
+      freeSlots[i] = capacity - 1 - i;
+    }
+    freeCount = capacity;
+    size = 0;
+  }
+
+  /**
+   * Checks whether this PackedApplicationQueue is empty
+   *
+   * @return {@code true} if this PackedApplicationQueue is empty
+   */
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the size of this PackedApplicationQueue
+   *
+   * @return the size of this PackedApplicationQueue
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Stores the given Application in a free slot and adds its key to the heap.
+   *
+   * @param o Application to add to this PackedApplicationQueue
+   * @throws NullPointerException if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not full
+    if(size == keys.length) throw new IllegalStateException("PackedApplicationQueue is full");
+
+    //  store the application, then percolate its key up to restore the heap condition
+    modCount++;
+    int slot = freeSlots[--freeCount];
+    slots[slot] = o;
+    percolateUp(size++, key(o, slot));
+  }
+
+  /**
+   * Adds all the given Applications to this PackedApplicationQueue, then rebuilds the heap
+   * bottom-up in linear time. This PackedApplicationQueue is left unchanged if an exception is
+   * thrown.
+   *
+   * @param applications Applications to add to this PackedApplicationQueue
+   * @throws NullPointerException  if applications or one of its Applications is null
+   * @throws IllegalStateException with a descriptive error message if this queue does not have
+   *                               room for all the applications
+   */
+  @Override
+  public void enqueueAll(Collection<? extends Application> applications) {
+    //  verify the applications and that the queue has room for all of them
+    if(applications.size() > keys.length - size)
+      throw new IllegalStateException("PackedApplicationQueue is full");
+    for(Application o : applications){
+      if(o == null) throw new NullPointerException("Null Application");
+    }
+
+    //  store the applications and append their keys, then heapify
+    modCount++;
+    for(Application o : applications){
+      int slot = freeSlots[--freeCount];
+      slots[slot] = o;
+      keys[size++] = key(o, slot);
+    }
+    for(int i = size / 2 - 1; i >= 0; i--){
+      percolateDown(i, keys[i]);
+    }
+  }
+
+  /**
+   * Removes and returns the Application with the lowest score, whose key is at the root of the
+   * heap, and frees its slot.
+   *
+   * @return the Application in this PackedApplicationQueue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty PackedApplicationQueue");
+
+    //  free the slot of the root, then move the last key to the root and percolate it down
+    modCount++;
+    int slot = (int) keys[0];
+    Application returnApp = slots[slot];
+    slots[slot] = null;
+    freeSlots[freeCount++] = slot;
+
+    size--;
+    if(size > 0) percolateDown(0, keys[size]);
+
+    return returnApp;
+  }
+
+  /**
+   * Replaces the Application with the lowest score by the given Application. The new Application
+   * takes over the slot of the removed one, and its key is percolated down from the root.
+   *
+   * @param o Application to add to this PackedApplicationQueue
+   * @return the removed Application, having the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    //  verify the application
+    if(o == null) throw new NullPointerException("Null Application");
+
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Empty PackedApplicationQueue");
+
+    //  reuse the slot of the root for the new application
+    modCount++;
+    int slot = (int) keys[0];
+    Application returnApp = slots[slot];
+    slots[slot] = o;
+    percolateDown(0, key(o, slot));
+
+    return returnApp;
+  }
+
+  /**
+   * Returns the Application with the lowest score, whose key is at the root of the heap.
+   *
+   * @return the Application in this PackedApplicationQueue with the smallest score
+   * @throws NoSuchElementException if this PackedApplicationQueue is empty
+   */
+  @Override
+  public Application peek() {
+    //  verify that the queue is not empty
+    if(isEmpty()) throw new NoSuchElementException("Queue is empty");
+    return slots[(int) keys[0]];
+  }
+
+  /**
+   * Returns a String representing this PackedApplicationQueue, where each element (application)
+   * of the queue is listed on a separate line, in order from the lowest score to the highest score.
+   *
+   * @return a String representing this PackedApplicationQueue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator for this PackedApplicationQueue which proceeds from the lowest-scored to
+   * the highest-scored Application in the queue. It walks the live heap with an IndexFrontier
+   * that compares the indices by their keys. Modifying the queue during the iteration makes the
+   * iterator fail.
+   *
+   * @return an Iterator for this PackedApplicationQueue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return new IndexFrontier(size, 2, () -> modCount, (a, b) -> Long.compare(keys[a], keys[b]),
+        index -> slots[(int) keys[index]]);
+  }
+
+  /**
+   * Returns an Iterator over the Applications of this PackedApplicationQueue in heap order, which
+   * is not sorted by score.
+   *
+   * @return an unordered Iterator for this PackedApplicationQueue
+   */
+  @Override
+  public Iterator<Application> unorderedIterator() {
+    return new Iterator<Application>() {
+      private int index = 0;                      // index of the next key to return
+      private int expectedModCount = modCount;    // modCount of the queue when iteration started
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Application next() {
+        if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        if (!hasNext())
+          throw new NoSuchElementException("No more elements in this iteration");
+        return slots[(int) keys[index++]];
+      }
+    };
+  }
+
+  /**
+   * Helper method: Percolates the given key down the heap, starting from the hole at index i.
+   *
+   * @param i   index of the hole the key starts from
+   * @param key key to place in the heap
+   */
+  private void percolateDown(int i, long key) {
+    int child;
+    while((child = 2 * i + 1) < size){
+      if(child + 1 < size && keys[child + 1] < keys[child]) child++;
+      if(key <= keys[child]) break;
+      keys[i] = keys[child];
+      i = child;
+    }
+    keys[i] = key;
+  }
+
+  /**
+   * Helper method: Percolates the given key up the heap, starting from the hole at index i.
+   *
+   * @param i   index of the hole the key starts from
+   * @param key key to place in the heap
+   */
+  private void percolateUp(int i, long key) {
+    while(i > 0){
+      int parent = (i - 1) / 2;
+      if(keys[parent] <= key) break;
+      keys[i] = keys[parent];
+      i = parent;
+    }
+    keys[i] = key;
+  }
+
+  /**
+   * Helper method: Returns the heap key of an Application stored in the given slot.
+   *
+   * @param o    an Application
+   * @param slot the slot of o
+   * @return the score of o in the high 32 bits, and slot in the low 32 bits
+   */
+  private static long key(Application o, int slot) {
+    return ((long) o.getScore() << 32) | slot;
+  }
+
+}
@@ -8,15 +8,18 @@
 // Lecturer: Mouna Kacem
 //
 ///////////////////////////////////////////////////////////////////////////////
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
- * This interface models the priority queue abstract data type
+ * This interface models the priority queue abstract data type. Iterating over a priority queue
+ * visits its elements in order from the front (highest priority) to the back.
  *
  * @param <T> type parameter bounded by the Comparable interface. Represents the type of elements
  *            stored in this priority queue.
  */
-public interface PriorityQueueADT<T extends Comparable<T>> {
+public interface PriorityQueueADT<T extends Comparable<T>> extends Iterable<T> {
   /**
    * Checks if this priority queue is empty.
    *
@@ -40,6 +43,21 @@ public interface PriorityQueueADT<T extends Comparable<T>> {
    */
   public void enqueue(T element);
 
+  /**
+   * Adds all the given elements to the priority queue. Implementations may override this to load
+   * many elements faster than one enqueue() call per element, which is what this default does.
+   *
+   * @param elements to be added to this queue
+   * @throws NullPointerException  if elements or one of its elements is null
+   * @throws IllegalStateException with a descriptive error message if this priority queue does
+   *                               not have room for all the elements
+   */
+  public default void enqueueAll(Collection<? extends T> elements) {
+    for(T element : elements){
+      enqueue(element);
+    }
+  }
+
   /**
    * Returns and removes the element at the front (aka root position) of this queue (the element
    * having the highest priority).
@@ -57,4 +75,27 @@ public interface PriorityQueueADT<T extends Comparable<T>> {
    * @throws NoSuchElementException with a descriptive error message if this queue is empty
    */
   public T peek();
+
+  /**
+   * Replaces the element at the front (aka root position) of this queue with the given element,
+   * in a single step. This is equivalent to a dequeue() followed by an enqueue(element), but never
+   * requires any free room in the queue.
+   *
+   * @param element to be added to this queue
+   * @return the removed element
+   * @throws NullPointerException   if element is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  public T replaceTop(T element);
+
+  /**
+   * Returns an iterator over the elements of this queue in no particular order. Implementations
+   * may override this with a traversal cheaper than the ordered iterator(), which is what this
+   * default returns.
+   *
+   * @return an iterator over the elements of this queue
+   */
+  public default Iterator<T> unorderedIterator() {
+    return iterator();
+  }
 }
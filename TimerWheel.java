@@ -0,0 +1,161 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel, which fires items once their deadline has passed. Time is cut into
+ * ticks of a fixed number of milliseconds. The first wheel has a slot for each of the next 64
+ * ticks; each following wheel has 64 slots of 64 times as many ticks as the previous one. An item
+ * is put in the slot of its deadline in the finest wheel which reaches that far, in constant time.
+ * As time advances, the items of the slot of a coarser wheel are moved down to a finer wheel when
+ * that slot comes up, and the items of the slot of the first wheel fire.
+ *
+ * Scheduling and firing an item therefore take constant time, whatever the number of items, and
+ * advancing the wheel takes time proportional to the ticks elapsed and the items moved or fired.
+ * Advancing an empty wheel takes constant time. Items cannot be cancelled: their owner should
+ * ignore those which no longer apply when they fire.
+ *
+ * @param <T> the type of the scheduled items
+ */
+public class TimerWheel<T> {
+  private static final int SLOT_BITS = 6;                // log2 of the slots of each wheel
+  private static final int SLOTS = 1 << SLOT_BITS;       // slots of each wheel
+  private static final int WHEELS = 4;                   // number of wheels
+
+  private final long tickMillis;    // milliseconds per tick
+  private final Entry<T>[] slots;   // lists of the entries of each slot, wheel after wheel
+  private long currentTick;         // last tick processed
+  private int size;                 // number of scheduled entries
+
+  /**
+   * A scheduled item, in the list of its slot
+   */
+  private static class Entry<T> {
+    private final T item;            // the item to fire
+    private final long deadlineTick; // the tick at which to fire it
+    private Entry<T> next;           // next entry of the same slot, or null
+
+    private Entry(T item, long deadlineTick) {
+      this.item = item;
+      this.deadlineTick = deadlineTick;
+    }
+  }
+
+  /**
+   * Creates a new empty TimerWheel
+   *
+   * @param tickMillis the duration of a tick in milliseconds, to which deadlines are rounded up
+   * @param nowMillis  the current time in milliseconds
+   * @throws IllegalArgumentException if tickMillis is not a positive integer
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public TimerWheel(long tickMillis, long nowMillis) {
+    if(tickMillis <= 0) throw new IllegalArgumentException("Invalid tick");
+    this.tickMillis = tickMillis;
+    this.slots = (Entry<T>[]) new Entry[WHEELS * SLOTS];
+    this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+  }
+
+  /**
+   * Returns the number of items scheduled in this wheel
+   *
+   * @return the number of scheduled items
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Schedules the given item to fire at the given time, rounded up to the next tick. An item
+   * whose deadline has already passed fires on the next tick.
+   *
+   * @param item           the item to fire
+   * @param deadlineMillis the time from which to fire the item, in milliseconds
+   */
+  public void schedule(T item, long deadlineMillis) {
+    long deadlineTick = Math.max(-Math.floorDiv(-deadlineMillis, tickMillis), currentTick + 1);
+    insert(new Entry<>(item, deadlineTick));
+    size++;
+  }
+
+  /**
+   * Advances this wheel to the given time, and passes every item whose deadline has passed to the
+   * given action, in order of their deadline ticks.
+   *
+   * @param nowMillis the current time in milliseconds
+   * @param fire      the action to run on each item which fires
+   * @return the number of items which fired
+   */
+  public int advance(long nowMillis, Consumer<? super T> fire) {
+    long nowTick = Math.floorDiv(nowMillis, tickMillis);
+    int fired = 0;
+    while(currentTick < nowTick){
+      //  with nothing scheduled, there is no need to go through the ticks
+      if(size == 0){
+        currentTick = nowTick;
+        break;
+      }
+      long tick = ++currentTick;
+
+      //  at the start of a rotation of a wheel, move down the next slot of the coarser wheel
+      for(int wheel = 1; wheel < WHEELS && (tick & mask(wheel)) == 0; wheel++){
+        int index = wheel * SLOTS + slot(tick, wheel);
+        Entry<T> entry = slots[index];
+        slots[index] = null;
+        while(entry != null){
+          Entry<T> next = entry.next;
+          insert(entry);
+          entry = next;
+        }
+      }
+
+      //  fire the slot of this tick in the first wheel
+      int index = slot(tick, 0);
+      Entry<T> entry = slots[index];
+      slots[index] = null;
+      while(entry != null){
+        size--;
+        fired++;
+        fire.accept(entry.item);
+        entry = entry.next;
+      }
+    }
+    return fired;
+  }
+
+  /**
+   * Helper method: Puts an entry in the slot of its deadline tick, in the finest wheel which
+   * reaches that far, or the coarsest wheel.
+   */
+  private void insert(Entry<T> entry) {
+    long delta = entry.deadlineTick - currentTick;
+    int wheel = 0;
+    while(wheel < WHEELS - 1 && delta >= 1L << ((wheel + 1) * SLOT_BITS)) wheel++;
+    int index = wheel * SLOTS + slot(entry.deadlineTick, wheel);
+    entry.next = slots[index];
+    slots[index] = entry;
+  }
+
+  /**
+   * Helper method: Returns the slot of a tick in a wheel.
+   */
+  private static int slot(long tick, int wheel) {
+    return (int) ((tick >>> (wheel * SLOT_BITS)) & (SLOTS - 1));
+  }
+
+  /**
+   * Helper method: Returns the mask of the tick bits below the slots of a wheel.
+   */
+  private static long mask(int wheel) {
+    return (1L << (wheel * SLOT_BITS)) - 1;
+  }
+
+}
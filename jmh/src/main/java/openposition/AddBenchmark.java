@@ -0,0 +1,61 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of OpenPosition.add(): one operation adds the whole input to a fresh position, one
+ * add() call at a time, under uniformly random, increasing (accept-heavy) and decreasing
+ * (reject-heavy) scores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddBenchmark {
+  @Param({"100", "10000", "100000"})
+  private int capacity;
+
+  @Param({"10000", "100000", "1000000"})
+  private int input;
+
+  @Param({"uniform", "accept-heavy", "reject-heavy"})
+  private String distribution;
+
+  private Application[] applications; // the applications to add, in order
+
+  @Setup
+  public void setUp() {
+    applications = Inputs.of(distribution, input);
+  }
+
+  @Benchmark
+  public OpenPosition add() {
+    OpenPosition position = new OpenPosition("Bench", capacity);
+    for(Application application : applications) position.add(application);
+    return position;
+  }
+
+}
@@ -0,0 +1,66 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of ApplicationQueues of arity 2, 4 and 8 under the workload of a saturated
+ * OpenPosition: uniformly random scores (reject-heavy: most are rejected, the others replace the
+ * root), and increasing scores (accept-heavy: every admission replaces the root and sinks to the
+ * bottom of the heap). One operation adds the whole input to a fresh position.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArityBenchmark {
+  @Param({"100", "10000", "100000"})
+  private int capacity;
+
+  @Param({"1000000"})
+  private int input;
+
+  @Param({"2", "4", "8"})
+  private int arity;
+
+  @Param({"uniform", "accept-heavy"})
+  private String distribution;
+
+  private Application[] applications; // the applications to add, in order
+
+  @Setup
+  public void setUp() {
+    applications = Inputs.of(distribution, input);
+  }
+
+  @Benchmark
+  public OpenPosition add() {
+    OpenPosition position = new OpenPosition("Bench", capacity,
+        new ApplicationQueue(capacity, arity));
+    for(Application application : applications) position.add(application);
+    return position;
+  }
+
+}
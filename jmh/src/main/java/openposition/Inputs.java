@@ -0,0 +1,91 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The inputs shared by the benchmarks: Applications with uniformly random scores, the same
+ * Applications in increasing (accept-heavy) and decreasing (reject-heavy) order of score, and
+ * the queue of the highest scores of a stream of Applications.
+ */
+final class Inputs {
+  private static final long SEED = 300; // seed of the random scores of every benchmark
+
+  private Inputs() {
+  }
+
+  /**
+   * Creates the given number of Applications with uniformly random scores.
+   *
+   * @param count number of Applications to create
+   * @return an array of count random Applications
+   */
+  static Application[] random(int count) {
+    Random random = new Random(SEED);
+    Application[] applications = new Application[count];
+    for(int i = 0; i < count; i++){
+      applications[i] = new Application("app" + i, "app" + i + "@email.com", random.nextInt(101));
+    }
+    return applications;
+  }
+
+  /**
+   * Creates the given number of Applications in the order named by a distribution.
+   *
+   * @param count        number of Applications to create
+   * @param distribution "uniform" for random scores, "accept-heavy" for increasing scores, where
+   *                     most applications beat the cutoff, or "reject-heavy" for decreasing
+   *                     scores, where the first applications saturate the position
+   * @return an array of count Applications
+   * @throws IllegalArgumentException if the distribution is unknown
+   */
+  static Application[] of(String distribution, int count) {
+    Application[] applications = random(count);
+    switch(distribution){
+      case "uniform":
+        return applications;
+      case "accept-heavy":
+        Arrays.sort(applications);
+        return applications;
+      case "reject-heavy":
+        Arrays.sort(applications);
+        for(int i = 0, j = count - 1; i < j; i++, j--){
+          Application temp = applications[i];
+          applications[i] = applications[j];
+          applications[j] = temp;
+        }
+        return applications;
+      default:
+        throw new IllegalArgumentException("Unknown distribution " + distribution);
+    }
+  }
+
+  /**
+   * Streams Applications into a new ApplicationQueue of the given capacity, the way OpenPosition
+   * admits them: enqueue() while the queue has room, then replaceTop() when an Application
+   * outranks the root.
+   *
+   * @param applications the Applications to stream, in order
+   * @param capacity     capacity of the queue
+   * @return a queue holding the capacity highest-scored Applications
+   */
+  static ApplicationQueue highest(Application[] applications, int capacity) {
+    ApplicationQueue queue = new ApplicationQueue(capacity);
+    for(Application application : applications){
+      if(queue.size() < capacity) queue.enqueue(application);
+      else if(application.getScore() > queue.peek().getScore()) queue.replaceTop(application);
+    }
+    return queue;
+  }
+
+}
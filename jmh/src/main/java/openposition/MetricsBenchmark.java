@@ -0,0 +1,98 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the cost of the instrumentation: positions without metrics, which only check
+ * that they have none, against positions recording into OpenPositionMetrics, timing every add or
+ * a sample of them. No flight recording runs, so the JFR events are disabled and never created.
+ * The adds of one operation fill a fresh position with the whole input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+  @Param({"100", "10000", "100000"})
+  private int capacity;
+
+  @Param({"1000000"})
+  private int input;
+
+  @Param({"none", "metrics", "sampling=64"})
+  private String metrics;
+
+  private Application[] applications; // input random applications
+  private OpenPosition full;           // a full position, with the metrics
+
+  @Setup
+  public void setUp() {
+    applications = Inputs.random(input);
+    full = position();
+    for(Application application : applications) full.add(application);
+  }
+
+  @Benchmark
+  public OpenPosition add() {
+    OpenPosition position = position();
+    for(Application application : applications) position.add(application);
+    return position;
+  }
+
+  @Benchmark
+  public OpenPosition addFields() {
+    OpenPosition position = position();
+    for(Application a : applications) position.add(a.getName(), a.getEmail(), a.getScore());
+    return position;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<Application> bottomK() {
+    return full.bottomK(10);
+  }
+
+  // creates an empty position with the metrics of this benchmark
+  private OpenPosition position() {
+    OpenPosition position = new OpenPosition("Bench", capacity);
+    switch(metrics){
+      case "none":
+        break;
+      case "metrics":
+        position.setMetrics(new OpenPositionMetrics());
+        break;
+      case "sampling=64":
+        position.setMetrics(
+            new OpenPositionMetrics(OpenPositionMetrics.DEFAULT_SLOW_READ_NANOS, 64));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown metrics " + metrics);
+    }
+    return position;
+  }
+
+}
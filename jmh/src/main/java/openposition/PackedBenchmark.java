@@ -0,0 +1,88 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the PackedApplicationQueue against the ApplicationQueue, under the replace-root
+ * workload of a saturated OpenPosition. One operation fills the queue, then replaces its root for
+ * every application of the input, directly or through OpenPosition.add().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedBenchmark {
+  @Param({"100", "10000", "100000"})
+  private int capacity;
+
+  @Param({"1000000"})
+  private int input;
+
+  private Application[] applications; // capacity + input random applications
+
+  @Setup
+  public void setUp() {
+    applications = Inputs.random(capacity + input);
+  }
+
+  @Benchmark
+  public long applicationQueueReplaceTop() {
+    return replaceTop(new ApplicationQueue(capacity));
+  }
+
+  @Benchmark
+  public long packedApplicationQueueReplaceTop() {
+    return replaceTop(new PackedApplicationQueue(capacity));
+  }
+
+  @Benchmark
+  public OpenPosition applicationQueueAdd() {
+    return add(new ApplicationQueue(capacity));
+  }
+
+  @Benchmark
+  public OpenPosition packedApplicationQueueAdd() {
+    return add(new PackedApplicationQueue(capacity));
+  }
+
+  // fills the queue, then replaces its root with every other application
+  private long replaceTop(PriorityQueueADT<Application> queue) {
+    for(int i = 0; i < capacity; i++) queue.enqueue(applications[i]);
+    long checksum = 0;
+    for(int i = capacity; i < applications.length; i++){
+      checksum += queue.replaceTop(applications[i]).getScore();
+    }
+    return checksum;
+  }
+
+  // adds every application to a position backed by the queue
+  private OpenPosition add(PriorityQueueADT<Application> queue) {
+    OpenPosition position = new OpenPosition("Bench", capacity, queue);
+    for(Application application : applications) position.add(application);
+    return position;
+  }
+
+}
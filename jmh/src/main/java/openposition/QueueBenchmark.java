@@ -0,0 +1,74 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the ApplicationQueue operations: streaming an input into a queue of a smaller or
+ * larger capacity with enqueue() and, once it is full, replaceTop() when an application outranks
+ * the root; peek() on a full queue; and streaming the input then emptying the queue with
+ * dequeue().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+  @Param({"100", "10000", "100000"})
+  private int capacity;
+
+  @Param({"1000", "100000", "1000000"})
+  private int input;
+
+  private Application[] applications; // input random applications
+  private ApplicationQueue full; // a queue holding capacity random applications
+
+  @Setup
+  public void setUp() {
+    applications = Inputs.random(input);
+    full = new ApplicationQueue(capacity);
+    for(Application application : Inputs.random(capacity)) full.enqueue(application);
+  }
+
+  @Benchmark
+  public ApplicationQueue enqueue() {
+    return Inputs.highest(applications, capacity);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Application peek() {
+    return full.peek();
+  }
+
+  @Benchmark
+  public long enqueueDequeue() {
+    ApplicationQueue queue = Inputs.highest(applications, capacity);
+    long checksum = 0;
+    while(!queue.isEmpty()) checksum += queue.dequeue().getScore();
+    return checksum;
+  }
+
+}
@@ -0,0 +1,88 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the read paths of an OpenPosition fed an input of random applications, which
+ * leaves it partly filled or full: getTotalScore(), getApplications(), deepCopy() of its queue,
+ * and ordered and unordered iteration over its queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+  @Param({"100", "10000", "100000"})
+  private int capacity;
+
+  @Param({"100", "10000", "1000000"})
+  private int input;
+
+  private OpenPosition position; // a position fed the input
+  private ApplicationQueue queue; // a queue fed the same input
+
+  @Setup
+  public void setUp() {
+    Application[] applications = Inputs.random(input);
+    position = new OpenPosition("Bench", capacity);
+    for(Application application : applications) position.add(application);
+    queue = Inputs.highest(applications, capacity);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public int getTotalScore() {
+    return position.getTotalScore();
+  }
+
+  @Benchmark
+  public String getApplications() {
+    return position.getApplications();
+  }
+
+  @Benchmark
+  public ApplicationQueue deepCopy() {
+    return queue.deepCopy();
+  }
+
+  @Benchmark
+  public long iterator() {
+    long checksum = 0;
+    for(Application application : queue) checksum += application.getScore();
+    return checksum;
+  }
+
+  @Benchmark
+  public long unorderedIterator() {
+    long checksum = 0;
+    for(Iterator<Application> it = queue.unorderedIterator(); it.hasNext(); ){
+      checksum += it.next().getScore();
+    }
+    return checksum;
+  }
+
+}
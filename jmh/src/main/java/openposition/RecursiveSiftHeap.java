@@ -0,0 +1,74 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+/**
+ * The array min-heap of Applications as ApplicationQueue implemented it before its sift paths
+ * became iterative: recursive percolation, swapping at every level and comparing with
+ * Application.compareTo(). Kept only as a baseline for SiftBenchmark.
+ */
+class RecursiveSiftHeap {
+  private Application[] queue; // array min-heap of applications
+  private int size;            // size of this heap
+
+  RecursiveSiftHeap(int capacity) {
+    queue = new Application[capacity];
+  }
+
+  void enqueue(Application o) {
+    size++;
+    queue[size - 1] = o;
+    percolateUp(size - 1);
+  }
+
+  Application dequeue() {
+    Application returnApp = queue[0];
+    swap(0, size - 1);
+    queue[size - 1] = null;
+    size--;
+    percolateDown(0);
+    return returnApp;
+  }
+
+  Application replaceTop(Application o) {
+    Application returnApp = queue[0];
+    queue[0] = o;
+    percolateDown(0);
+    return returnApp;
+  }
+
+  private void percolateDown(int i) {
+    int left = 2 * i + 1;
+    if(left >= size || queue[left] == null) return;
+    int compareIndex = left;
+    if(left + 1 < size && queue[left].compareTo(queue[left + 1]) > 0) compareIndex = left + 1;
+    if(queue[i].compareTo(queue[compareIndex]) > 0){
+      swap(i, compareIndex);
+      percolateDown(compareIndex);
+    }
+  }
+
+  private void percolateUp(int i) {
+    int parent = (i - 1) / 2;
+    if(queue[parent] == null) return;
+    if(queue[i].compareTo(queue[parent]) < 0){
+      swap(i, parent);
+      percolateUp(parent);
+    }
+  }
+
+  private void swap(int i, int j) {
+    Application temp = queue[i];
+    queue[i] = queue[j];
+    queue[j] = temp;
+  }
+
+}
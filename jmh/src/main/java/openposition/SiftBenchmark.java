@@ -0,0 +1,68 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title:    P10 Open Position
+// Course:   CS 300 Spring 2022
+//
+// Author:   Mitchell Brenner
+// Email:    mkbrenner3@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+package openposition;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the iterative, hole-based sift paths of ApplicationQueue against the former
+ * recursive, swap-based ones kept in RecursiveSiftHeap, at capacities from 10 to 10^6. One
+ * operation fills the heap, replaces its root as many times as its capacity, then empties it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SiftBenchmark {
+  @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+  private int capacity;
+
+  private Application[] input; // 2 * capacity random applications
+
+  @Setup
+  public void setUp() {
+    input = Inputs.random(2 * capacity);
+  }
+
+  @Benchmark
+  public long recursiveSiftHeap() {
+    RecursiveSiftHeap heap = new RecursiveSiftHeap(capacity);
+    for(int i = 0; i < capacity; i++) heap.enqueue(input[i]);
+    for(int i = capacity; i < 2 * capacity; i++) heap.replaceTop(input[i]);
+    long checksum = 0;
+    for(int i = 0; i < capacity; i++) checksum += heap.dequeue().getScore();
+    return checksum;
+  }
+
+  @Benchmark
+  public long applicationQueue() {
+    ApplicationQueue heap = new ApplicationQueue(capacity);
+    for(int i = 0; i < capacity; i++) heap.enqueue(input[i]);
+    for(int i = capacity; i < 2 * capacity; i++) heap.replaceTop(input[i]);
+    long checksum = 0;
+    for(int i = 0; i < capacity; i++) checksum += heap.dequeue().getScore();
+    return checksum;
+  }
+
+}